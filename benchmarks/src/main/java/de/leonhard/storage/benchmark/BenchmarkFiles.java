@@ -0,0 +1,98 @@
+package de.leonhard.storage.benchmark;
+
+import de.leonhard.storage.SimplixBuilder;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Creates and fills the files used by the benchmarks.
+ */
+public final class BenchmarkFiles {
+
+  /**
+   * Keys are grouped in sections of this size, like in typical configs and data files.
+   */
+  public static final int SECTION_SIZE = 100;
+
+  private BenchmarkFiles() {
+  }
+
+  public enum Type {
+    YAML,
+    JSON,
+    TOML,
+    CONFIG
+  }
+
+  public static File createDirectory() throws IOException {
+    return Files.createTempDirectory("simplixstorage-benchmark").toFile();
+  }
+
+  public static void deleteDirectory(final File directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory.toPath())) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  public static FlatFile create(
+      final Type type,
+      final File directory,
+      final ReloadSettings reloadSettings) {
+    final SimplixBuilder builder = SimplixBuilder
+        .fromPath("benchmark", directory.getAbsolutePath())
+        .setReloadSettings(reloadSettings);
+
+    switch (type) {
+      case YAML:
+        return builder.createYaml();
+      case JSON:
+        return builder.createJson();
+      case TOML:
+        return builder.createToml();
+      default:
+        return builder.createConfig();
+    }
+  }
+
+  /**
+   * Fills the FlatFile with the given amount of keys using a single write.
+   */
+  public static void fill(final FlatFile flatFile, final int keys) {
+    flatFile.batch(transaction -> {
+      for (int i = 0; i < keys; i++) {
+        transaction.set(key(i), i % 2 == 0 ? i : "value-" + i);
+      }
+    });
+  }
+
+  public static String key(final int index) {
+    return section(index) + "." + keyInSection(index);
+  }
+
+  public static String section(final int index) {
+    return "section-" + index / SECTION_SIZE;
+  }
+
+  public static String keyInSection(final int index) {
+    return "key-" + index % SECTION_SIZE;
+  }
+
+  /**
+   * @return The given amount of random indices below bound, for lookups in random order.
+   */
+  public static int[] randomIndices(final int amount, final int bound) {
+    final Random random = new Random(42);
+    final int[] indices = new int[amount];
+    for (int i = 0; i < amount; i++) {
+      indices[i] = random.nextInt(bound);
+    }
+    return indices;
+  }
+}
@@ -0,0 +1,75 @@
+package de.leonhard.storage.benchmark;
+
+import de.leonhard.storage.Config;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the PRESERVE_COMMENTS write path of Yaml#write using a Config with a comment above
+ * every section and every tenth key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommentWriteBenchmark {
+
+  @Param({"100", "1000", "10000", "100000"})
+  public int keys;
+
+  private File directory;
+  private Config config;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.directory = BenchmarkFiles.createDirectory();
+
+    final List<String> lines = new ArrayList<>();
+    lines.add("# Header of the benchmark config");
+    for (int i = 0; i < this.keys; i++) {
+      if (i % BenchmarkFiles.SECTION_SIZE == 0) {
+        lines.add("# Comment of " + BenchmarkFiles.section(i));
+        lines.add(BenchmarkFiles.section(i) + ": ");
+      }
+      if (i % 10 == 0) {
+        lines.add("   # Comment of " + BenchmarkFiles.key(i));
+      }
+      lines.add("   " + BenchmarkFiles.keyInSection(i) + ": value-" + i);
+    }
+    Files.write(
+        new File(this.directory, "benchmark.yml").toPath(),
+        lines,
+        StandardCharsets.UTF_8);
+
+    this.config = new Config("benchmark", this.directory.getAbsolutePath());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFiles.deleteDirectory(this.directory);
+  }
+
+  @Benchmark
+  public void write() {
+    this.config.write();
+  }
+}
@@ -0,0 +1,71 @@
+package de.leonhard.storage.benchmark;
+
+import de.leonhard.storage.SimplixBuilder;
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks SimplixBuilder#loadDirectory with a directory of small per-user files and different
+ * amounts of threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectoryLoadBenchmark {
+
+  @Param({"YAML", "JSON"})
+  public FileType type;
+
+  @Param({"1000"})
+  public int files;
+
+  @Param({"1", "2", "4", "8"})
+  public int parallelism;
+
+  private File directory;
+  private SimplixBuilder builder;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.directory = BenchmarkFiles.createDirectory();
+    for (int i = 0; i < this.files; i++) {
+      final FlatFile flatFile = SimplixBuilder
+          .fromPath("user-" + i, this.directory.getAbsolutePath())
+          .create(this.type);
+      BenchmarkFiles.fill(flatFile, 50);
+    }
+
+    this.builder = SimplixBuilder
+        .fromPath("users", this.directory.getAbsolutePath())
+        .setReloadSettings(ReloadSettings.MANUALLY);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFiles.deleteDirectory(this.directory);
+  }
+
+  @Benchmark
+  public SimplixBuilder.DirectoryLoadResult loadDirectory() {
+    return this.builder.loadDirectory(this.type, this.parallelism);
+  }
+}
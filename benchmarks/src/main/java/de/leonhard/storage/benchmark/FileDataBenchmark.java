@@ -0,0 +1,62 @@
+package de.leonhard.storage.benchmark;
+
+import de.leonhard.storage.internal.FileData;
+import de.leonhard.storage.internal.KeyPath;
+import de.leonhard.storage.internal.settings.DataType;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares in-place inserts into FileData with the path-copying inserts of copy-on-write
+ * FileData's. The bytes allocated per insert are reported as gc.alloc.rate.norm by the GC
+ * profiler, which {@link BenchmarkRunner} always attaches (or {@code -prof gc} with JMH's own
+ * main class).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileDataBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int sectionSize;
+
+  private final KeyPath key = KeyPath.of("a.b.c.key-0");
+  private FileData inPlace;
+  private FileData pathCopying;
+  private int value;
+
+  @Setup
+  public void setUp() {
+    this.inPlace = new FileData(new HashMap<>(), DataType.UNSORTED);
+    for (int i = 0; i < this.sectionSize; i++) {
+      this.inPlace.insert("a.b.c.key-" + i, i);
+    }
+    this.pathCopying = this.inPlace.copy();
+  }
+
+  @Benchmark
+  public FileData insertInPlace() {
+    this.inPlace.insert(this.key, this.value++);
+    return this.inPlace;
+  }
+
+  @Benchmark
+  public FileData insertPathCopying() {
+    this.pathCopying.insert(this.key, this.value++);
+    return this.pathCopying;
+  }
+}
@@ -0,0 +1,105 @@
+package de.leonhard.storage.benchmark;
+
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.IntKey;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks DataStorage#get with and without a pathPrefix, and getInt compared to an IntKey.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetBenchmark {
+
+  private static final int LOOKUPS = 1024;
+
+  @Param({"YAML", "JSON", "TOML", "CONFIG"})
+  public BenchmarkFiles.Type type;
+
+  @Param({"100", "1000", "10000", "100000"})
+  public int keys;
+
+  @Param({"MANUALLY", "INTELLIGENT", "WATCHED"})
+  public ReloadSettings reloadSettings;
+
+  private File directory;
+  private FlatFile flatFile;
+  private FlatFile prefixed;
+  private String[] lookups;
+  private String[] prefixedLookups;
+  private String intLookup;
+  private IntKey intKey;
+  private int index;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.directory = BenchmarkFiles.createDirectory();
+    this.flatFile = BenchmarkFiles.create(this.type, this.directory, this.reloadSettings);
+    BenchmarkFiles.fill(this.flatFile, this.keys);
+
+    this.prefixed = BenchmarkFiles.create(this.type, this.directory, this.reloadSettings);
+    this.prefixed.setPathPrefix(BenchmarkFiles.section(0));
+
+    final int[] indices = BenchmarkFiles.randomIndices(LOOKUPS, this.keys);
+    final int[] sectionIndices = BenchmarkFiles.randomIndices(
+        LOOKUPS,
+        Math.min(this.keys, BenchmarkFiles.SECTION_SIZE));
+    this.lookups = new String[LOOKUPS];
+    this.prefixedLookups = new String[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      this.lookups[i] = BenchmarkFiles.key(indices[i]);
+      this.prefixedLookups[i] = BenchmarkFiles.keyInSection(sectionIndices[i]);
+    }
+    // Even keys hold numbers
+    this.intLookup = BenchmarkFiles.key(0);
+    this.intKey = IntKey.of(this.flatFile, this.intLookup, -1);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFiles.deleteDirectory(this.directory);
+  }
+
+  @Benchmark
+  public Object get() {
+    return this.flatFile.get(this.lookups[next()]);
+  }
+
+  @Benchmark
+  public Object getWithPathPrefix() {
+    return this.prefixed.get(this.prefixedLookups[next()]);
+  }
+
+  @Benchmark
+  public int getInt() {
+    return this.flatFile.getInt(this.intLookup);
+  }
+
+  @Benchmark
+  public int getIntKey() {
+    return this.intKey.get();
+  }
+
+  private int next() {
+    return this.index = (this.index + 1) & (LOOKUPS - 1);
+  }
+}
@@ -0,0 +1,67 @@
+package de.leonhard.storage.benchmark;
+
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks FlatFile#set, which includes writing the whole file, and FlatFile#forceReload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetBenchmark {
+
+  @Param({"YAML", "JSON", "TOML", "CONFIG"})
+  public BenchmarkFiles.Type type;
+
+  @Param({"100", "1000", "10000", "100000"})
+  public int keys;
+
+  private File directory;
+  private FlatFile flatFile;
+  private int[] indices;
+  private int index;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.directory = BenchmarkFiles.createDirectory();
+    this.flatFile = BenchmarkFiles.create(this.type, this.directory, ReloadSettings.MANUALLY);
+    BenchmarkFiles.fill(this.flatFile, this.keys);
+    this.indices = BenchmarkFiles.randomIndices(1024, this.keys);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFiles.deleteDirectory(this.directory);
+  }
+
+  @Benchmark
+  public void set() {
+    this.index = (this.index + 1) & (this.indices.length - 1);
+    this.flatFile.set(BenchmarkFiles.key(this.indices[this.index]), this.index);
+  }
+
+  @Benchmark
+  public FlatFile forceReload() {
+    this.flatFile.forceReload();
+    return this.flatFile;
+  }
+}
@@ -0,0 +1,91 @@
+package de.leonhard.storage.benchmark;
+
+import de.leonhard.storage.SimplixBuilder;
+import de.leonhard.storage.Yaml;
+import de.leonhard.storage.internal.provider.FastYamlProvider;
+import de.leonhard.storage.internal.provider.SimplixProviders;
+import de.leonhard.storage.internal.provider.YamlProvider;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks loading a directory of Yaml configs, like plugins do at startup, with yamlbeans and
+ * with the {@link FastYamlProvider}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YamlStartupBenchmark {
+
+  @Param({"YAMLBEANS", "FAST"})
+  public Provider provider;
+
+  @Param({"100", "500"})
+  public int files;
+
+  @Param({"100", "1000"})
+  public int keys;
+
+  private File directory;
+  private File[] yamlFiles;
+
+  public enum Provider {
+    YAMLBEANS,
+    FAST
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    this.directory = BenchmarkFiles.createDirectory();
+    this.yamlFiles = new File[this.files];
+    for (int i = 0; i < this.files; i++) {
+      final Yaml yaml = SimplixBuilder
+          .fromPath("config-" + i, this.directory.getAbsolutePath())
+          .setReloadSettings(ReloadSettings.MANUALLY)
+          .createYaml();
+      BenchmarkFiles.fill(yaml, this.keys);
+      yaml.set("messages.list", Arrays.asList("first line", "second: line", "'quoted'"));
+      yaml.set("messages.multiline", "first line\nsecond line");
+      this.yamlFiles[i] = yaml.getFile();
+    }
+
+    SimplixProviders.yamlProvider(
+        this.provider == Provider.FAST ? new FastYamlProvider() : new YamlProvider() {});
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    SimplixProviders.yamlProvider(null);
+    BenchmarkFiles.deleteDirectory(this.directory);
+  }
+
+  @Benchmark
+  public Yaml[] loadAll() {
+    final Yaml[] loaded = new Yaml[this.yamlFiles.length];
+    for (int i = 0; i < this.yamlFiles.length; i++) {
+      loaded[i] = SimplixBuilder
+          .fromFile(this.yamlFiles[i])
+          .setReloadSettings(ReloadSettings.MANUALLY)
+          .createYaml();
+    }
+    return loaded;
+  }
+}
@@ -0,0 +1,458 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.internal.FileData;
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.KeyPath;
+import de.leonhard.storage.internal.Transaction;
+import de.leonhard.storage.internal.editor.json.JsonReader;
+import de.leonhard.storage.internal.editor.json.JsonWriter;
+import de.leonhard.storage.internal.settings.CompressionSettings;
+import de.leonhard.storage.internal.settings.ConcurrencySettings;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.internal.settings.WriteSettings;
+import de.leonhard.storage.util.FastStringWriter;
+import de.leonhard.storage.util.FileUtils;
+import de.leonhard.storage.util.Valid;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import lombok.Getter;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * FlatFile appending every committed change to a log instead of rewriting the whole file, so the
+ * cost of a set() only depends on the size of the change.
+ *
+ * <p>Each line of the file is a record: The CRC32 of the record as hex, a space and the record as
+ * compact JSON. The first record may be a snapshot of the whole data, followed by the changes made
+ * since. Once the changes outgrow the snapshot by the compaction ratio, the file is compacted to a
+ * single snapshot on the background thread also used for write-behind.
+ *
+ * <p>Crash consistency:
+ *
+ * <ul>
+ *   <li>The changes of one commit, like a set() or a {@link #batch(Consumer)}, are stored as a
+ *   single record and are therefore either replayed completely or not at all.
+ *   <li>A record which was only partially written when the process died fails its checksum and
+ *   is ignored when reading, so the data equals the state after some earlier commit. The damaged
+ *   end of the file is cut off by the next write. A damaged record followed by valid ones fails
+ *   the reload instead. The file is neither written nor compacted until a reload succeeds, so the
+ *   valid records are kept for repairing it.
+ *   <li>Records are only forced to the disk with {@link WriteSettings#ATOMIC_SYNC}. Otherwise a
+ *   power loss may lose the most recent records.
+ *   <li>Compacting and writing the whole data always replace the file atomically, so readers see
+ *   either the old or the new file.
+ *   <li>Like with every FlatFile, changes deferred by write-behind are lost until flushed.
+ * </ul>
+ *
+ * <p>Journals use {@link ConcurrencySettings#COPY_ON_WRITE} by default, which lets compaction
+ * serialize the snapshot without holding our monitor.
+ */
+public class Journal extends FlatFile {
+
+  /**
+   * Logs smaller than this are never compacted.
+   */
+  private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+
+  /**
+   * Compact once the records after the snapshot are larger than the snapshot times this ratio.
+   */
+  @Getter private double compactionRatio = 2;
+
+  // Encoded records not yet appended to our file
+  private final StringBuilder pending = new StringBuilder();
+  // Records appended while a compaction serializes its snapshot
+  private final StringBuilder compactionTail = new StringBuilder();
+  // Length of our file up to the last valid record. -1 if the last reload failed
+  private long validLength = -1;
+  private long snapshotBytes;
+  private long logBytes;
+  private long knownModified;
+  // Incremented whenever our file is replaced, so running compactions notice they are outdated
+  private long generation;
+  private boolean compacting;
+  private boolean compactionScheduled;
+
+  public Journal(final String name, final String path) {
+    this(name, path, null, null);
+  }
+
+  public Journal(
+      final String name,
+      @Nullable final String path,
+      @Nullable final ReloadSettings reloadSettings,
+      @Nullable final Consumer<FlatFile> reloadConsumer) {
+    super(name, path, FileType.JOURNAL, reloadConsumer);
+    this.concurrencySettings = ConcurrencySettings.COPY_ON_WRITE;
+    create();
+
+    if (reloadSettings != null) {
+      this.reloadSettings = reloadSettings;
+    }
+    forceReload();
+  }
+
+  public Journal(final File file) {
+    super(file, FileType.JOURNAL);
+    this.concurrencySettings = ConcurrencySettings.COPY_ON_WRITE;
+    create();
+    forceReload();
+  }
+
+  /**
+   * Journals can't be compressed, as records are appended to the file.
+   */
+  @Override
+  public void setCompressionSettings(@NonNull final CompressionSettings compressionSettings) {
+    Valid.checkBoolean(
+        compressionSettings == CompressionSettings.NONE,
+        "Journals can't be compressed");
+  }
+
+  public final synchronized void setCompactionRatio(final double compactionRatio) {
+    Valid.checkBoolean(compactionRatio > 0, "Compaction ratio must be positive");
+    this.compactionRatio = compactionRatio;
+  }
+
+  /**
+   * Replaces our file with a snapshot of the current data. Pending write-behind changes are
+   * written first. Called automatically on a background thread once the log grew too large.
+   */
+  public final void compact() {
+    final Map<String, Object> snapshot;
+    final long startGeneration;
+    synchronized (this) {
+      if (this.compacting) {
+        return;
+      }
+      reloadIfNeeded();
+      flush();
+      if (this.validLength < 0) {
+        // Never replace a file we couldn't read
+        return;
+      }
+      // Other concurrency settings modify our sections in place, so copy all of them while we hold
+      // the lock
+      snapshot = this.concurrencySettings == ConcurrencySettings.COPY_ON_WRITE
+                 ? getFileData().toMap()
+                 : getFileData().toDeepCopy();
+      startGeneration = this.generation;
+      this.compacting = true;
+    }
+
+    try {
+      final String snapshotRecord = encode(snapshotRecord(snapshot));
+      synchronized (this) {
+        if (startGeneration != this.generation) {
+          return;
+        }
+        final String tail = this.compactionTail.toString();
+        replaceFile(snapshotRecord + tail);
+        this.snapshotBytes = this.validLength - utf8Length(tail);
+        this.logBytes = this.validLength - this.snapshotBytes;
+      }
+    } catch (final IOException ex) {
+      System.err.println("Exception compacting journal '" + getName() + "'");
+      System.err.println("In '" + FileUtils.getParentDirPath(this.file) + "'");
+      ex.printStackTrace();
+    } finally {
+      synchronized (this) {
+        this.compacting = false;
+        this.compactionTail.setLength(0);
+      }
+    }
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Abstract methods to implement
+  // ----------------------------------------------------------------------------------------------------
+
+  @Override
+  protected final synchronized Map<String, Object> readToMap() throws IOException {
+    this.pending.setLength(0);
+    this.generation++;
+    this.validLength = -1;
+
+    final byte[] bytes = Files.readAllBytes(this.file.toPath());
+    final FileData data = new FileData(new LinkedHashMap<>(), this.dataType);
+    final CRC32 crc = new CRC32();
+    long snapshotEnd = 0;
+    int start = 0;
+    while (start < bytes.length) {
+      int end = start;
+      while (end < bytes.length && bytes[end] != '\n') {
+        end++;
+      }
+
+      final Map<String, Object> record = end < bytes.length ? decode(bytes, start, end, crc) : null;
+      if (record == null) {
+        if (hasRecordAfter(bytes, end)) {
+          throw new IOException("Damaged record at byte " + start + " of '" + this.file + "'");
+        }
+        // Partially written by a crash
+        break;
+      }
+      if (apply(data, record)) {
+        snapshotEnd = end + 1;
+      }
+      start = end + 1;
+    }
+
+    this.validLength = start;
+    this.snapshotBytes = snapshotEnd;
+    this.logBytes = start - snapshotEnd;
+    this.knownModified = this.file.lastModified();
+    return data.toMap();
+  }
+
+  @Override
+  protected final synchronized void write(final FileData data) throws IOException {
+    if (this.validLength < 0) {
+      // Our data is incomplete, writing it would lose the records after the damaged one
+      this.pending.setLength(0);
+      throw new IOException("Last reload of '" + this.file + "' failed, not overwriting it");
+    }
+    if (this.pending.length() == 0) {
+      // Written explicitly: Write the whole data
+      this.pending.setLength(0);
+      final String snapshotRecord = encode(snapshotRecord(data.toMap()));
+      replaceFile(snapshotRecord);
+      this.snapshotBytes = this.validLength;
+      this.logBytes = 0;
+      countWrittenBytes(this.validLength);
+      return;
+    }
+
+    final byte[] bytes = this.pending.toString().getBytes(StandardCharsets.UTF_8);
+    try (final FileChannel channel = FileChannel.open(
+        this.file.toPath(),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE)) {
+      if (channel.size() != this.validLength) {
+        // Cut off a record damaged by a crash
+        channel.truncate(this.validLength);
+      }
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      long position = this.validLength;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      if (this.writeSettings == WriteSettings.ATOMIC_SYNC) {
+        channel.force(false);
+      }
+    }
+
+    if (this.compacting) {
+      this.compactionTail.append(this.pending);
+    }
+    this.pending.setLength(0);
+    this.validLength += bytes.length;
+    this.logBytes += bytes.length;
+    countWrittenBytes(bytes.length);
+    this.knownModified = this.file.lastModified();
+    scheduleCompactionIfNeeded();
+  }
+
+  @Override
+  protected final void onCommit(final List<Transaction.Change> changes) {
+    if (changes.size() == 1) {
+      this.pending.append(encode(changeRecord(changes.get(0))));
+      return;
+    }
+
+    final List<Object> batch = new ArrayList<>(changes.size());
+    for (final Transaction.Change change : changes) {
+      batch.add(changeRecord(change));
+    }
+    final Map<String, Object> record = new LinkedHashMap<>();
+    record.put("batch", batch);
+    this.pending.append(encode(record));
+  }
+
+  /**
+   * Compares size and modification date with our last write, as compacting and appending in the
+   * same millisecond as an external change would hide it otherwise.
+   */
+  @Override
+  protected boolean shouldReload() {
+    if (this.reloadSettings != ReloadSettings.INTELLIGENT) {
+      return super.shouldReload();
+    }
+    return this.file.length() != this.validLength || this.file.lastModified() != this.knownModified;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Internal
+  // ----------------------------------------------------------------------------------------------------
+
+  private void scheduleCompactionIfNeeded() {
+    if (this.compacting
+        || this.compactionScheduled
+        || this.logBytes < MIN_COMPACTION_BYTES
+        || this.logBytes <= this.snapshotBytes * this.compactionRatio) {
+      return;
+    }
+
+    this.compactionScheduled = true;
+    runInBackground(() -> {
+      synchronized (this) {
+        this.compactionScheduled = false;
+      }
+      compact();
+    });
+  }
+
+  // Atomically replaces our file, as a crash while truncating it would lose all data
+  private void replaceFile(final String content) throws IOException {
+    FileUtils.write(
+        this.file,
+        this.writeSettings == WriteSettings.ATOMIC_SYNC
+        ? WriteSettings.ATOMIC_SYNC
+        : WriteSettings.ATOMIC,
+        writer -> writer.write(content));
+    this.generation++;
+    this.validLength = this.file.length();
+    this.knownModified = this.file.lastModified();
+    rememberFileState();
+  }
+
+  private static Map<String, Object> snapshotRecord(final Map<String, Object> data) {
+    final Map<String, Object> record = new LinkedHashMap<>();
+    record.put("snapshot", data);
+    return record;
+  }
+
+  private static Map<String, Object> changeRecord(final Transaction.Change change) {
+    final Map<String, Object> record = new LinkedHashMap<>();
+    switch (change.getType()) {
+      case SET:
+        record.put("set", encodeKey(change.getKey()));
+        record.put("value", change.getValue());
+        break;
+      case REMOVE:
+        record.put("remove", encodeKey(change.getKey()));
+        break;
+      default:
+        record.put("clear", true);
+        break;
+    }
+    return record;
+  }
+
+  /**
+   * @return Whether the record was a snapshot.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean apply(final FileData data, final Map<String, Object> record) {
+    if (record.containsKey("snapshot")) {
+      data.loadData((Map<String, Object>) record.get("snapshot"));
+      return true;
+    } else if (record.containsKey("batch")) {
+      for (final Object change : (List<Object>) record.get("batch")) {
+        apply(data, (Map<String, Object>) change);
+      }
+    } else if (record.containsKey("set")) {
+      data.insert(decodeKey(record.get("set")), record.get("value"));
+    } else if (record.containsKey("remove")) {
+      data.remove(decodeKey(record.get("remove")));
+    } else {
+      data.clear();
+    }
+    return false;
+  }
+
+  // Keys with dots inside of a segment, like the literal keys of replaceData(), are stored as the
+  // list of their segments, as the dotted key would be split differently
+  private static Object encodeKey(final KeyPath key) {
+    final List<String> segments = new ArrayList<>(key.length());
+    boolean literal = false;
+    for (int i = 0; i < key.length(); i++) {
+      final String segment = key.segment(i);
+      literal |= segment.indexOf('.') >= 0;
+      segments.add(segment);
+    }
+    return literal ? segments : key.toString();
+  }
+
+  private static KeyPath decodeKey(final Object key) {
+    if (key instanceof List) {
+      final List<?> segments = (List<?>) key;
+      return KeyPath.ofSegments(segments.stream().map(String::valueOf).toArray(String[]::new));
+    }
+    return KeyPath.of((String) key);
+  }
+
+  private static String encode(final Map<String, Object> record) {
+    final FastStringWriter writer = new FastStringWriter();
+    try {
+      new JsonWriter(writer, 0).write(record);
+    } catch (final IOException ex) {
+      // Can't happen while writing to a String
+      throw new IllegalStateException(ex);
+    }
+    final String json = writer.toString();
+    final CRC32 crc = new CRC32();
+    crc.update(json.getBytes(StandardCharsets.UTF_8));
+    return String.format("%08x", crc.getValue()) + " " + json + "\n";
+  }
+
+  /**
+   * @return The record stored in the given line or null if it is damaged.
+   */
+  @Nullable
+  private Map<String, Object> decode(
+      final byte[] bytes,
+      final int start,
+      final int end,
+      final CRC32 crc) {
+    if (end - start < 10 || bytes[start + 8] != ' ') {
+      return null;
+    }
+
+    final long expected;
+    try {
+      expected = Long.parseLong(new String(bytes, start, 8, StandardCharsets.US_ASCII), 16);
+    } catch (final NumberFormatException ex) {
+      return null;
+    }
+    crc.reset();
+    crc.update(bytes, start + 9, end - start - 9);
+    if (crc.getValue() != expected) {
+      return null;
+    }
+
+    final String json = new String(bytes, start + 9, end - start - 9, StandardCharsets.UTF_8);
+    try {
+      return new JsonReader(new StringReader(json), this.dataType).readToMap();
+    } catch (final IOException | RuntimeException ex) {
+      return null;
+    }
+  }
+
+  private static boolean hasRecordAfter(final byte[] bytes, final int end) {
+    for (int i = end + 1; i < bytes.length; i++) {
+      if (bytes[i] != '\n') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int utf8Length(final String string) {
+    return string.getBytes(StandardCharsets.UTF_8).length;
+  }
+}
@@ -3,14 +3,16 @@ package de.leonhard.storage;
 import de.leonhard.storage.internal.FileData;
 import de.leonhard.storage.internal.FileType;
 import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.editor.json.JsonReader;
+import de.leonhard.storage.internal.editor.json.JsonWriter;
 import de.leonhard.storage.internal.settings.ReloadSettings;
 import de.leonhard.storage.util.FileUtils;
+import de.leonhard.storage.util.Valid;
 import lombok.Cleanup;
 import lombok.Getter;
 import lombok.val;
 import org.jetbrains.annotations.Nullable;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import java.io.File;
 import java.io.IOException;
@@ -24,10 +26,16 @@ import java.util.function.Consumer;
 @Getter
 public class Json extends FlatFile {
 
+  /**
+   * Spaces used to indent nested values. 0 writes compact JSON.
+   */
+  private int indentation = 3;
+
   public Json(final Json json) {
     super(json.getFile(), json.fileType);
     this.fileData = json.getFileData();
     this.pathPrefix = json.getPathPrefix();
+    this.indentation = json.getIndentation();
   }
 
   public Json(final String name, final String path) {
@@ -68,6 +76,11 @@ public class Json extends FlatFile {
     forceReload();
   }
 
+  public final void setIndentation(final int indentation) {
+    Valid.checkBoolean(indentation >= 0, "Indentation mustn't be negative");
+    this.indentation = indentation;
+  }
+
   // ----------------------------------------------------------------------------------------------------
   // Methods to override (Points where JSON is unspecific for typical FlatFiles)
   // ----------------------------------------------------------------------------------------------------
@@ -106,14 +119,12 @@ public class Json extends FlatFile {
       Files.write(this.file.toPath(), Collections.singletonList("{}"));
     }
 
-    val jsonTokener = new JSONTokener(FileUtils.createInputStream(this.file));
-    return new JSONObject(jsonTokener).toMap();
+    @Cleanup val reader = FileUtils.createReader(this.file);
+    return new JsonReader(reader, this.dataType).readToMap();
   }
 
   @Override
   protected final void write(final FileData data) throws IOException {
-    @Cleanup val writer = FileUtils.createWriter(this.file);
-    writer.write(data.toJsonObject().toString(3));
-    writer.flush();
+    writeFile(writer -> new JsonWriter(writer, this.indentation).write(data.toMap()));
   }
 }
@@ -0,0 +1,102 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.internal.FileData;
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.editor.sdb.SdbReader;
+import de.leonhard.storage.internal.editor.sdb.SdbWriter;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.util.CompressionUtils;
+import de.leonhard.storage.util.FileUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * FlatFile storing its data in the binary sdb format, for data which is only written by
+ * programs. Smaller and considerably faster to read than the text formats, and numbers keep their
+ * type. Use the {@link de.leonhard.storage.util.FlatFileConverter} to convert it to a text format
+ * for inspecting it.
+ */
+public class Sdb extends FlatFile {
+
+  public Sdb(@NonNull final Sdb sdb) {
+    super(sdb.getFile(), sdb.fileType);
+    this.fileData = sdb.getFileData();
+    this.pathPrefix = sdb.getPathPrefix();
+  }
+
+  public Sdb(final String name, final String path) {
+    this(name, path, null);
+  }
+
+  public Sdb(final String name, final String path, final InputStream inputStream) {
+    this(name, path, inputStream, null, null);
+  }
+
+  public Sdb(
+      final String name,
+      @Nullable final String path,
+      @Nullable final InputStream inputStream,
+      @Nullable final ReloadSettings reloadSettings,
+      @Nullable final Consumer<FlatFile> reloadConsumer) {
+    super(name, path, FileType.SDB, reloadConsumer);
+
+    if ((create() || this.file.length() == 0) && inputStream != null) {
+      FileUtils.writeToFile(this.file, inputStream);
+    }
+
+    if (reloadSettings != null) {
+      this.reloadSettings = reloadSettings;
+    }
+    forceReload();
+  }
+
+  public Sdb(final File file) {
+    super(file, FileType.SDB);
+    create();
+    forceReload();
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Abstract methods to implement
+  // ----------------------------------------------------------------------------------------------------
+
+  @Override
+  protected final Map<String, Object> readToMap() throws IOException {
+    @Cleanup val channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ);
+    final long size = channel.size();
+    if (size == 0) {
+      return new HashMap<>();
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("File '" + this.file + "' is too large");
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) == -1) {
+        throw new IOException("File '" + this.file + "' was truncated while reading");
+      }
+    }
+    buffer.flip();
+    return new SdbReader(
+        CompressionUtils.isCompressed(buffer) ? CompressionUtils.decompress(buffer) : buffer,
+        this.dataType).readToMap();
+  }
+
+  @Override
+  protected final void write(final FileData data) throws IOException {
+    writeFile(new SdbWriter().write(data.toMap()));
+  }
+}
@@ -0,0 +1,414 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.internal.DataStorage;
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.KeyPath;
+import de.leonhard.storage.internal.provider.SimplixProviders;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.util.FileUtils;
+import de.leonhard.storage.util.Valid;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * DataStorage spreading its keys over a fixed amount of shard files in a directory, so a set()
+ * only rewrites the shard of the key instead of one huge file.
+ *
+ * <p>Keys are assigned to shards by the hash of their first segment, so a whole section like
+ * "players.uuid" is always stored in the same shard. Shards are Json, Yaml or Toml files named
+ * "shard-index-of-count" and are loaded on their first access.
+ *
+ * <p>The shard count is fixed once a directory contains shards. Use
+ * {@link #reshard(File, FileType, int)} to change it.
+ */
+public final class ShardedStorage implements DataStorage, AutoCloseable {
+
+  private static final Pattern SHARD_NAME = Pattern.compile("shard-(\\d+)-of-(\\d+)");
+  // New shards are written under these names while resharding
+  private static final Pattern STAGED_NAME = Pattern.compile("resharding-(\\d+)-of-(\\d+)");
+  // Created once all new shards are written, named like "resharding-of-16.json.done"
+  private static final Pattern COMPLETED_NAME = Pattern.compile("resharding-of-(\\d+)\\..+\\.done");
+
+  @Getter private final File directory;
+  @Getter private final FileType fileType;
+  @Getter private final int shardCount;
+  private final SimplixBuilder builder;
+  private final AtomicReferenceArray<FlatFile> shards;
+
+  /**
+   * Opens the shards in the given directory with the default settings.
+   */
+  public ShardedStorage(
+      @NonNull final File directory,
+      @NonNull final FileType fileType,
+      final int shardCount) {
+    this(SimplixBuilder.fromDirectory(directory), fileType, shardCount);
+  }
+
+  /**
+   * Opens the shards in the directory of the builder, creating them with its settings.
+   */
+  ShardedStorage(final SimplixBuilder builder, final FileType fileType, final int shardCount) {
+    Valid.checkBoolean(shardCount > 0, "Shard count must be positive");
+    this.directory = new File(builder.getPath());
+    this.fileType = fileType;
+    this.shardCount = shardCount;
+    this.builder = builder;
+    this.shards = new AtomicReferenceArray<>(shardCount);
+
+    finishResharding(this.directory, fileType);
+    final Set<Integer> existing = findShardCounts(this.directory, fileType);
+    Valid.checkBoolean(
+        existing.isEmpty() || existing.equals(Collections.singleton(shardCount)),
+        "Directory '" + this.directory + "' contains shards for counts " + existing,
+        "Use ShardedStorage.reshard() to change the shard count to " + shardCount);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Shards
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * @return Index of the shard storing the given key.
+   */
+  public int shardIndex(@NonNull final String key) {
+    final int end = key.indexOf('.');
+    return shardIndexOfSegment(end == -1 ? key : key.substring(0, end), this.shardCount);
+  }
+
+  /**
+   * @return The shard storing the given key, loading it if needed.
+   */
+  public FlatFile getShard(@NonNull final String key) {
+    return shard(shardIndex(key));
+  }
+
+  /**
+   * @return Whether the shard was already accessed.
+   */
+  public boolean isLoaded(final int index) {
+    return this.shards.get(index) != null;
+  }
+
+  /**
+   * Writes the pending changes of all loaded shards, if write-behind is enabled.
+   */
+  public void flush() {
+    for (int i = 0; i < this.shardCount; i++) {
+      final FlatFile shard = this.shards.get(i);
+      if (shard != null) {
+        shard.flush();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    flush();
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // DataStorage
+  // ----------------------------------------------------------------------------------------------------
+
+  @Override
+  public Object get(final String key) {
+    return getShard(key).get(key);
+  }
+
+  @Override
+  public boolean contains(final String key) {
+    return getShard(key).contains(key);
+  }
+
+  @Override
+  public void set(final String key, final Object value) {
+    getShard(key).set(key, value);
+  }
+
+  @Override
+  public void remove(final String key) {
+    getShard(key).remove(key);
+  }
+
+  @Override
+  public int[] getIntArray(final String key) {
+    return getShard(key).getIntArray(key);
+  }
+
+  @Override
+  public long[] getLongArray(final String key) {
+    return getShard(key).getLongArray(key);
+  }
+
+  @Override
+  public double[] getDoubleArray(final String key) {
+    return getShard(key).getDoubleArray(key);
+  }
+
+  @Override
+  public Object get(@NonNull final KeyPath key) {
+    return shard(key).get(key);
+  }
+
+  @Override
+  public boolean contains(@NonNull final KeyPath key) {
+    return shard(key).contains(key);
+  }
+
+  @Override
+  public void set(@NonNull final KeyPath key, final Object value) {
+    shard(key).set(key, value);
+  }
+
+  @Override
+  public void remove(@NonNull final KeyPath key) {
+    shard(key).remove(key);
+  }
+
+  /**
+   * Loads all shards.
+   */
+  @Override
+  public Set<String> singleLayerKeySet() {
+    final Set<String> keys = new LinkedHashSet<>();
+    for (int i = 0; i < this.shardCount; i++) {
+      keys.addAll(shard(i).singleLayerKeySet());
+    }
+    return keys;
+  }
+
+  @Override
+  public Set<String> singleLayerKeySet(final String key) {
+    return getShard(key).singleLayerKeySet(key);
+  }
+
+  /**
+   * Loads all shards.
+   */
+  @Override
+  public Set<String> keySet() {
+    final Set<String> keys = new LinkedHashSet<>();
+    for (int i = 0; i < this.shardCount; i++) {
+      keys.addAll(shard(i).keySet());
+    }
+    return keys;
+  }
+
+  @Override
+  public Set<String> keySet(final String key) {
+    return getShard(key).keySet(key);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Resharding
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Redistributes the shards in the directory onto the given amount of shards.
+   *
+   * <p>Meant to be used offline: No ShardedStorage may use the directory meanwhile. The new shards
+   * are written under temporary names first. Only once all of them are written, the old shards are
+   * deleted and the new ones renamed. If writing them fails, they are removed again and the old
+   * shards are kept.
+   *
+   * <p>If the process dies while resharding, the next call of this method or the next
+   * ShardedStorage opening the directory either completes the resharding, if all new shards were
+   * written, or discards the new shards.
+   */
+  public static void reshard(
+      @NonNull final File directory,
+      @NonNull final FileType fileType,
+      final int shardCount) {
+    Valid.checkBoolean(shardCount > 0, "Shard count must be positive");
+    finishResharding(directory, fileType);
+    final Set<Integer> existing = findShardCounts(directory, fileType);
+    Valid.checkBoolean(
+        existing.size() <= 1,
+        "Directory '" + directory + "' contains shards for counts " + existing);
+    if (existing.isEmpty() || existing.contains(shardCount)) {
+      return;
+    }
+
+    final SimplixBuilder builder = SimplixBuilder
+        .fromDirectory(directory)
+        .setReloadSettings(ReloadSettings.MANUALLY);
+    final int oldCount = existing.iterator().next();
+    final List<Map<String, Object>> data = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      data.add(new HashMap<>());
+    }
+
+    final List<File> oldFiles = new ArrayList<>(oldCount);
+    for (int i = 0; i < oldCount; i++) {
+      final File file = new File(directory, shardName(i, oldCount) + "." + fileType.getExtension());
+      if (!file.exists()) {
+        continue;
+      }
+      oldFiles.add(file);
+      final FlatFile shard = builder.create(fileType, shardName(i, oldCount));
+      for (final String key : shard.singleLayerKeySet()) {
+        data.get(shardIndexOfSegment(key, shardCount)).put(key, shard.get(key));
+      }
+    }
+
+    final List<File> newFiles = new ArrayList<>(shardCount);
+    try {
+      for (int i = 0; i < shardCount; i++) {
+        final FlatFile shard = builder.create(fileType, stagedName(i, shardCount));
+        newFiles.add(shard.getFile());
+        shard.putAll(data.get(i));
+      }
+      // From now on, finishResharding() completes the resharding even if we die
+      Files.createFile(completedMarker(directory, fileType, shardCount).toPath());
+    } catch (final IOException ex) {
+      deleteAll(newFiles);
+      throw SimplixProviders.exceptionHandler().create(
+          ex,
+          "Couldn't write new shards while resharding '" + directory + "'");
+    } catch (final RuntimeException ex) {
+      deleteAll(newFiles);
+      throw ex;
+    }
+
+    finishResharding(directory, fileType);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Internal
+  // ----------------------------------------------------------------------------------------------------
+
+  private FlatFile shard(final KeyPath key) {
+    return shard(shardIndexOfSegment(key.segment(0), this.shardCount));
+  }
+
+  private FlatFile shard(final int index) {
+    final FlatFile shard = this.shards.get(index);
+    if (shard != null) {
+      return shard;
+    }
+
+    synchronized (this.shards) {
+      FlatFile created = this.shards.get(index);
+      if (created == null) {
+        created = this.builder.create(this.fileType, shardName(index, this.shardCount));
+        this.shards.set(index, created);
+      }
+      return created;
+    }
+  }
+
+  // String#hashCode() is specified, so keys stay in their shards across JVMs
+  private static int shardIndexOfSegment(final String segment, final int shardCount) {
+    return Math.floorMod(segment.hashCode(), shardCount);
+  }
+
+  private static String shardName(final int index, final int shardCount) {
+    return "shard-" + index + "-of-" + shardCount;
+  }
+
+  private static String stagedName(final int index, final int shardCount) {
+    return "resharding-" + index + "-of-" + shardCount;
+  }
+
+  private static File completedMarker(
+      final File directory,
+      final FileType fileType,
+      final int shardCount) {
+    return new File(
+        directory,
+        "resharding-of-" + shardCount + "." + fileType.getExtension() + ".done");
+  }
+
+  /**
+   * Completes a resharding which wrote all of its new shards: Deletes the shards of other counts
+   * and renames the new ones. Discards the new shards of a resharding which didn't.
+   */
+  private static void finishResharding(final File directory, final FileType fileType) {
+    final String extension = "." + fileType.getExtension();
+    File completed = null;
+    int shardCount = -1;
+    for (final File file : FileUtils.listFiles(directory, extension + ".done")) {
+      final Matcher matcher = COMPLETED_NAME.matcher(file.getName());
+      if (matcher.matches()) {
+        completed = file;
+        shardCount = Integer.parseInt(matcher.group(1));
+      }
+    }
+
+    try {
+      for (final File file : FileUtils.listFiles(directory, extension)) {
+        final String name = FileUtils.replaceExtensions(file.getName());
+        final Matcher staged = STAGED_NAME.matcher(name);
+        final Matcher shard = SHARD_NAME.matcher(name);
+        // New shards of an incomplete resharding or old shards of a completed one
+        final boolean outdated = completed == null
+                                 ? staged.matches()
+                                 : isOfOtherCount(staged, shardCount)
+                                   || isOfOtherCount(shard, shardCount);
+        if (outdated) {
+          Files.delete(file.toPath());
+        }
+      }
+
+      if (completed == null) {
+        return;
+      }
+      for (final File file : FileUtils.listFiles(directory, extension)) {
+        final Matcher staged = STAGED_NAME.matcher(FileUtils.replaceExtensions(file.getName()));
+        if (staged.matches()) {
+          final String name = shardName(
+              Integer.parseInt(staged.group(1)),
+              Integer.parseInt(staged.group(2)));
+          Files.move(
+              file.toPath(),
+              new File(directory, name + extension).toPath(),
+              StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+        }
+      }
+      Files.delete(completed.toPath());
+    } catch (final IOException ex) {
+      throw SimplixProviders.exceptionHandler().create(
+          ex,
+          "Couldn't finish resharding '" + directory + "'");
+    }
+  }
+
+  private static boolean isOfOtherCount(final Matcher matcher, final int shardCount) {
+    return matcher.matches() && Integer.parseInt(matcher.group(2)) != shardCount;
+  }
+
+  private static void deleteAll(final List<File> files) {
+    for (final File file : files) {
+      file.delete();
+    }
+  }
+
+  private static Set<Integer> findShardCounts(final File directory, final FileType fileType) {
+    final Set<Integer> counts = new TreeSet<>();
+    for (final File file : FileUtils.listFiles(directory, "." + fileType.getExtension())) {
+      final Matcher matcher = SHARD_NAME.matcher(FileUtils.replaceExtensions(file.getName()));
+      if (matcher.matches()) {
+        counts.add(Integer.parseInt(matcher.group(2)));
+      }
+    }
+    return counts;
+  }
+}
@@ -1,30 +1,52 @@
 package de.leonhard.storage;
 
+import de.leonhard.storage.internal.FileType;
 import de.leonhard.storage.internal.FlatFile;
 import de.leonhard.storage.internal.provider.InputStreamProvider;
 import de.leonhard.storage.internal.provider.SimplixProviders;
+import de.leonhard.storage.internal.settings.CompressionSettings;
+import de.leonhard.storage.internal.settings.ConcurrencySettings;
 import de.leonhard.storage.internal.settings.ConfigSettings;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.internal.settings.WriteSettings;
 import de.leonhard.storage.util.FileUtils;
 import de.leonhard.storage.util.Valid;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.Nullable;
 
 public final class SimplixBuilder {
 
   private final InputStreamProvider inputStreamProvider;
 
+  @Getter(AccessLevel.PACKAGE)
   private final String path;
   private String name;
   private InputStream inputStream;
   private ReloadSettings reloadSettings;
   private ConfigSettings configSettings;
   private DataType dataType;
+  private ConcurrencySettings concurrencySettings;
+  private WriteSettings writeSettings;
+  private CompressionSettings compressionSettings;
+  private long writeBehindDelay;
+  private long writeBehindMaxDelay;
 
   private @Nullable Consumer<FlatFile> reloadConsumer = null;
 
@@ -120,47 +142,266 @@ public final class SimplixBuilder {
     return this;
   }
 
+  public SimplixBuilder setConcurrencySettings(
+      @NonNull final ConcurrencySettings concurrencySettings) {
+    this.concurrencySettings = concurrencySettings;
+    return this;
+  }
+
+  public SimplixBuilder setWriteSettings(@NonNull final WriteSettings writeSettings) {
+    this.writeSettings = writeSettings;
+    return this;
+  }
+
+  public SimplixBuilder setCompressionSettings(
+      @NonNull final CompressionSettings compressionSettings) {
+    this.compressionSettings = compressionSettings;
+    return this;
+  }
+
+  /**
+   * Enables write-behind for the created FlatFile.
+   *
+   * @see FlatFile#setWriteBehind(long, long, TimeUnit)
+   */
+  public SimplixBuilder setWriteBehind(
+      final long quietPeriod,
+      final long maxDelay,
+      @NonNull final TimeUnit unit) {
+    Valid.checkBoolean(quietPeriod >= 0, "Quiet period mustn't be negative");
+    Valid.checkBoolean(maxDelay >= quietPeriod, "Max delay mustn't be shorter than quiet period");
+    this.writeBehindDelay = unit.toMillis(quietPeriod);
+    this.writeBehindMaxDelay = unit.toMillis(maxDelay);
+    return this;
+  }
+
   // ----------------------------------------------------------------------------------------------------
   // Create the objects of our FileTypes
   // ----------------------------------------------------------------------------------------------------
 
   public Config createConfig() {
-    return new Config(
+    return configure(new Config(
         this.name,
         this.path,
         this.inputStream,
         this.reloadSettings,
         this.configSettings,
         this.dataType,
-        reloadConsumer);
+        reloadConsumer));
   }
 
   public Yaml createYaml() {
-    return new Yaml(
-        this.name,
+    return createYaml(this.name);
+  }
+
+  public Toml createToml() {
+    return createToml(this.name);
+  }
+
+  public Json createJson() {
+    return createJson(this.name);
+  }
+
+  public Sdb createSdb() {
+    return createSdb(this.name);
+  }
+
+  public Journal createJournal() {
+    return createJournal(this.name);
+  }
+
+  public FlatFile create(@NonNull final FileType fileType) {
+    return create(fileType, this.name);
+  }
+
+  /**
+   * Creates a {@link ShardedStorage} spreading its keys over the given amount of files in the
+   * directory of this builder. Each shard is created with the settings of this builder.
+   */
+  public ShardedStorage createSharded(@NonNull final FileType fileType, final int shardCount) {
+    Valid.checkBoolean(
+        this.inputStream == null,
+        "InputStreams can't be used for sharded storages",
+        "They could only be read by a single shard");
+    return new ShardedStorage(this, fileType, shardCount);
+  }
+
+  FlatFile create(final FileType fileType, final String name) {
+    switch (fileType) {
+      case JSON:
+        return createJson(name);
+      case TOML:
+        return createToml(name);
+      case JOURNAL:
+        return createJournal(name);
+      case SDB:
+        return createSdb(name);
+      default:
+        return createYaml(name);
+    }
+  }
+
+  private Yaml createYaml(final String name) {
+    return configure(new Yaml(
+        name,
         this.path,
         this.inputStream,
         this.reloadSettings,
         this.configSettings,
         this.dataType,
-        reloadConsumer);
+        reloadConsumer));
   }
 
-  public Toml createToml() {
-    return new Toml(
-        this.name,
+  private Toml createToml(final String name) {
+    return configure(new Toml(
+        name,
         this.path,
         this.inputStream,
         this.reloadSettings,
-        reloadConsumer);
+        reloadConsumer));
   }
 
-  public Json createJson() {
-    return new Json(
-        this.name,
+  private Sdb createSdb(final String name) {
+    return configure(new Sdb(
+        name,
         this.path,
         this.inputStream,
         this.reloadSettings,
-        reloadConsumer);
+        reloadConsumer));
+  }
+
+  private Journal createJournal(final String name) {
+    Valid.checkBoolean(
+        this.inputStream == null,
+        "InputStreams can't be used for journals",
+        "Use addDefaultsFromMap() to add default values");
+    return configure(new Journal(
+        name,
+        this.path,
+        this.reloadSettings,
+        reloadConsumer));
+  }
+
+  private Json createJson(final String name) {
+    return configure(new Json(
+        name,
+        this.path,
+        this.inputStream,
+        this.reloadSettings,
+        reloadConsumer));
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Loading whole directories
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Loads every file of the given type in the directory of this builder in parallel, using one
+   * thread per available processor.
+   *
+   * @see #loadDirectory(FileType, int)
+   */
+  public DirectoryLoadResult loadDirectory(@NonNull final FileType fileType) {
+    return loadDirectory(fileType, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Loads every file of the given type in the directory of this builder in parallel, applying the
+   * settings of this builder to each of them. Files which can't be read don't abort the loading,
+   * but are reported in {@link DirectoryLoadResult#getErrors()}.
+   *
+   * @param parallelism Maximum amount of files read at the same time.
+   */
+  public DirectoryLoadResult loadDirectory(
+      @NonNull final FileType fileType,
+      final int parallelism) {
+    Valid.checkBoolean(parallelism > 0, "Parallelism must be positive");
+    Valid.checkBoolean(
+        this.inputStream == null,
+        "InputStreams can't be used for loading directories",
+        "They could only be read by a single file");
+
+    final List<File> files = new ArrayList<>();
+    for (final File file : FileUtils.listFiles(new File(this.path), fileType.getExtension())) {
+      if (file.isFile() && FileType.fromFile(file) == fileType) {
+        files.add(file);
+      }
+    }
+
+    final Map<String, FlatFile> loaded = new TreeMap<>();
+    final Map<String, Throwable> errors = new TreeMap<>();
+    final ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, Math.max(files.size(), 1)));
+    try {
+      final List<Future<FlatFile>> tasks = new ArrayList<>(files.size());
+      for (final File file : files) {
+        final String name = FileUtils.replaceExtensions(file.getName());
+        tasks.add(pool.submit(() -> create(fileType, name)));
+      }
+
+      for (int i = 0; i < files.size(); i++) {
+        final String fileName = files.get(i).getName();
+        try {
+          final FlatFile flatFile = tasks.get(i).get();
+          if (flatFile.getLastReloadException() != null) {
+            // Don't hand out empty files which would overwrite the broken ones when written
+            errors.put(fileName, flatFile.getLastReloadException());
+          } else {
+            loaded.put(fileName, flatFile);
+          }
+        } catch (final ExecutionException ex) {
+          errors.put(fileName, ex.getCause());
+        }
+      }
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw SimplixProviders.exceptionHandler().create(
+          ex,
+          "Interrupted while loading directory '" + this.path + "'");
+    } finally {
+      pool.shutdownNow();
+    }
+    return new DirectoryLoadResult(
+        Collections.unmodifiableMap(loaded),
+        Collections.unmodifiableMap(errors));
+  }
+
+  // Applies the settings which aren't part of the constructors
+  private <T extends FlatFile> T configure(final T flatFile) {
+    if (this.concurrencySettings != null) {
+      flatFile.setConcurrencySettings(this.concurrencySettings);
+    }
+    if (this.writeSettings != null) {
+      flatFile.setWriteSettings(this.writeSettings);
+    }
+    if (this.compressionSettings != null) {
+      flatFile.setCompressionSettings(this.compressionSettings);
+    }
+    if (this.writeBehindDelay > 0) {
+      flatFile.setWriteBehind(
+          this.writeBehindDelay,
+          this.writeBehindMaxDelay,
+          TimeUnit.MILLISECONDS);
+    }
+    return flatFile;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Result of loading a directory
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * The files loaded by {@link #loadDirectory(FileType, int)}, keyed and sorted by their file
+   * names.
+   */
+  @Getter
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  public static final class DirectoryLoadResult {
+
+    private final Map<String, FlatFile> loaded;
+    private final Map<String, Throwable> errors;
+
+    public boolean hasErrors() {
+      return !this.errors.isEmpty();
+    }
   }
 }
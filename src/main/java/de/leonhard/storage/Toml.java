@@ -68,7 +68,7 @@ public class Toml extends FlatFile {
   @Override
   protected final void write(final FileData data) {
     try {
-      TomlManager.write(data.toMap(), getFile());
+      writeFile(writer -> TomlManager.write(data.toMap(), writer));
     } catch (final IOException ioException) {
       System.err.println("Exception while writing fileData to file '" + getName() + "'");
       System.err.println("In '" + FileUtils.getParentDirPath(this.file) + "'");
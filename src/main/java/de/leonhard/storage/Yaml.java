@@ -3,19 +3,26 @@ package de.leonhard.storage;
 import de.leonhard.storage.internal.FileData;
 import de.leonhard.storage.internal.FileType;
 import de.leonhard.storage.internal.FlatFile;
-import de.leonhard.storage.internal.editor.yaml.SimpleYamlReader;
-import de.leonhard.storage.internal.editor.yaml.SimpleYamlWriter;
+import de.leonhard.storage.internal.KeyPath;
+import de.leonhard.storage.internal.Transaction;
+import de.leonhard.storage.internal.editor.yaml.YamlComments;
 import de.leonhard.storage.internal.editor.yaml.YamlEditor;
 import de.leonhard.storage.internal.editor.yaml.YamlParser;
+import de.leonhard.storage.internal.provider.SimplixProviders;
+import de.leonhard.storage.internal.settings.CompressionSettings;
 import de.leonhard.storage.internal.settings.ConfigSettings;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.internal.settings.WriteSettings;
+import de.leonhard.storage.util.FastStringWriter;
 import de.leonhard.storage.util.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,8 +40,11 @@ public class Yaml extends FlatFile {
   protected final InputStream inputStream;
   protected final YamlEditor yamlEditor;
   protected final YamlParser parser;
-  @Setter
   private ConfigSettings configSettings = ConfigSettings.SKIP_COMMENTS;
+  // Comments of our file, parsed on reload if they are preserved. Null if they must be parsed
+  @Getter(AccessLevel.NONE)
+  @Nullable
+  private YamlComments comments;
 
   public Yaml(@NonNull final Yaml yaml) {
     super(yaml.getFile());
@@ -120,18 +130,19 @@ public class Yaml extends FlatFile {
     }
 
     try {
-      val data = new SimpleYamlReader(
-              new InputStreamReader(inputStream, StandardCharsets.UTF_8)).readToMap();
+      val data = SimplixProviders.yamlProvider().read(
+          new InputStreamReader(inputStream, StandardCharsets.UTF_8));
 
       val newData = new FileData(data, DataType.UNSORTED);
+      final List<Transaction.Change> changes = new ArrayList<>();
 
       for (val key : newData.keySet()) {
         if (!this.fileData.containsKey(key)) {
-          this.fileData.insert(key, newData.get(key));
+          changes.add(Transaction.Change.set(KeyPath.of(key), newData.get(key)));
         }
       }
 
-      write();
+      commit(changes);
     } catch (final Exception ex) {
       ex.printStackTrace();
     }
@@ -145,27 +156,92 @@ public class Yaml extends FlatFile {
 
   @Override
   protected Map<String, Object> readToMap() throws IOException {
-    @Cleanup val reader = new SimpleYamlReader(getFile());
-    return reader.readToMap();
+    if (!ConfigSettings.PRESERVE_COMMENTS.equals(this.configSettings)) {
+      this.comments = null;
+      @Cleanup val reader = FileUtils.createReader(getFile());
+      return SimplixProviders.yamlProvider().read(reader);
+    }
+
+    // Comments are parsed from the same read, so writes don't have to read the file again
+    val content = new StringBuilder();
+    try (val reader = FileUtils.createReader(getFile())) {
+      val buffer = new char[8192];
+      int read;
+      while ((read = reader.read(buffer)) != -1) {
+        content.append(buffer, 0, read);
+      }
+    }
+    this.comments = YamlComments.parse(lines(content.toString()));
+    return SimplixProviders.yamlProvider().read(new StringReader(content.toString()));
   }
 
   @Override
   protected void write(final FileData data) throws IOException {
     // If Comments shouldn't be preserved
     if (!ConfigSettings.PRESERVE_COMMENTS.equals(this.configSettings)) {
-      write0(this.fileData);
+      writeFile(writer -> write0(this.fileData, writer));
       return;
     }
 
-    val unEdited = this.yamlEditor.read();
-    write0(this.fileData);
-    this.yamlEditor.write(this.parser.parseLines(unEdited, this.yamlEditor.readKeys()));
+    // Merge the comments into the new content before writing, so the file is written only once
+    if (this.comments == null) {
+      this.comments = YamlComments.parse(this.yamlEditor.read());
+    }
+    val comments = this.comments;
+    val updated = new FastStringWriter();
+    write0(this.fileData, updated);
+    writeLines(comments.merge(lines(updated.toString())));
+  }
+
+  private void writeLines(final List<String> lines) throws IOException {
+    writeFile(writer -> {
+      for (val line : lines) {
+        writer.write(line);
+        writer.write(System.lineSeparator());
+      }
+    });
   }
 
   // Writing without comments
-  private void write0(final FileData fileData) throws IOException {
-    @Cleanup val writer = new SimpleYamlWriter(this.file);
-    writer.write(fileData.toMap());
+  private void write0(final FileData fileData, final Writer writer) throws IOException {
+    SimplixProviders.yamlProvider().write(fileData.toMap(), writer);
+  }
+
+  private static List<String> lines(final String content) {
+    return content.isEmpty()
+           ? new ArrayList<>()
+           : Arrays.asList(content.split("\\r?\\n|\\r"));
+  }
+
+  public void setConfigSettings(final ConfigSettings configSettings) {
+    if (this.configSettings != configSettings) {
+      // Our comments are outdated once a write didn't preserve them
+      this.comments = null;
+    }
+    this.configSettings = configSettings;
+  }
+
+  /**
+   * Replaces text in our file directly, so our comments are parsed again before the next write.
+   */
+  @Override
+  public synchronized void replace(
+      final CharSequence target,
+      final CharSequence replacement) throws IOException {
+    super.replace(target, replacement);
+    this.comments = null;
+  }
+
+  @Override
+  public void setWriteSettings(@NonNull final WriteSettings writeSettings) {
+    super.setWriteSettings(writeSettings);
+    this.yamlEditor.setWriteSettings(writeSettings);
+  }
+
+  @Override
+  public void setCompressionSettings(@NonNull final CompressionSettings compressionSettings) {
+    super.setCompressionSettings(compressionSettings);
+    this.yamlEditor.setCompressionSettings(compressionSettings);
   }
 
   // ----------------------------------------------------------------------------------------------------
@@ -176,16 +252,16 @@ public class Yaml extends FlatFile {
     return this.yamlEditor.readHeader();
   }
 
-  public final void setHeader(final List<String> header) {
-    this.yamlEditor.setHeader(header);
+  public final synchronized void setHeader(final List<String> header) {
+    writeHeader(this.yamlEditor.withHeader(header));
   }
 
   public final void setHeader(final String... header) {
     setHeader(Arrays.asList(header));
   }
 
-  public final void addHeader(final List<String> toAdd) {
-    this.yamlEditor.addHeader(toAdd);
+  public final synchronized void addHeader(final List<String> toAdd) {
+    writeHeader(this.yamlEditor.withAddedHeader(toAdd));
   }
 
   public final void addHeader(final String... header) {
@@ -224,6 +300,21 @@ public class Yaml extends FlatFile {
     setHeader(stringList);
   }
 
+  // Written like our data, so compression, metrics and the FileWatcher treat it the same
+  private void writeHeader(final List<String> lines) {
+    try {
+      writeLines(lines);
+      rememberFileState();
+    } catch (final IOException ex) {
+      throw SimplixProviders.exceptionHandler().create(
+          ex,
+          "Error while writing to '" + getName() + "'.",
+          "In: '" + FileUtils.getParentDirPath(this.file) + "'");
+    }
+    // Our comments are parsed again from the new header
+    this.comments = null;
+  }
+
   public final Optional<InputStream> getInputStream() {
     return Optional.ofNullable(this.inputStream);
   }
@@ -0,0 +1,58 @@
+package de.leonhard.storage.internal;
+
+import lombok.NonNull;
+
+/**
+ * {@link TypedKey} for boolean values. Values are converted like
+ * {@link DataStorage#getBoolean(String)}.
+ */
+public final class BoolKey extends TypedKey {
+
+  private final boolean def;
+  // Replaced as a whole, so a value is never read together with the version of another one
+  private volatile Memo memo;
+
+  private BoolKey(final FlatFile flatFile, final String key, final boolean def) {
+    super(flatFile, key);
+    this.def = def;
+  }
+
+  /**
+   * @param def Value returned while the key doesn't exist
+   */
+  public static BoolKey of(
+      @NonNull final FlatFile flatFile,
+      @NonNull final String key,
+      final boolean def) {
+    return new BoolKey(flatFile, key, def);
+  }
+
+  public boolean get() {
+    final FileData data = data();
+    final long version = data.getVersion();
+    final Memo memo = this.memo;
+    if (memo != null && memo.version == version) {
+      return memo.value;
+    }
+
+    final Object raw = data.get(this.key);
+    final boolean value = raw == null
+                          ? this.def
+                          : raw instanceof Boolean
+                            ? (Boolean) raw
+                            : "true".equalsIgnoreCase(raw.toString());
+    this.memo = new Memo(version, value);
+    return value;
+  }
+
+  private static final class Memo {
+
+    private final long version;
+    private final boolean value;
+
+    private Memo(final long version, final boolean value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+}
@@ -47,6 +47,51 @@ public interface DataStorage {
 
   void remove(final String key);
 
+  // ----------------------------------------------------------------------------------------------------
+  // Pre-split keys
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Same as {@link #get(String)} but with a pre-split key. Implementations like {@link FlatFile}
+   * resolve these without splitting or allocating.
+   *
+   * @param key Key to search data for
+   * @return Object in data-structure. Null if nothing was found!
+   */
+  @Nullable
+  default Object get(@NonNull final KeyPath key) {
+    return get(key.toString());
+  }
+
+  /**
+   * Same as {@link #contains(String)} but with a pre-split key.
+   *
+   * @param key Key to check
+   * @return Returned value.
+   */
+  default boolean contains(@NonNull final KeyPath key) {
+    return contains(key.toString());
+  }
+
+  /**
+   * Same as {@link #set(String, Object)} but with a pre-split key.
+   *
+   * @param key   The key your value should be associated with
+   * @param value The value you want to set in your data-structure.
+   */
+  default void set(@NonNull final KeyPath key, final Object value) {
+    set(key.toString(), value);
+  }
+
+  /**
+   * Same as {@link #remove(String)} but with a pre-split key.
+   *
+   * @param key The key to remove
+   */
+  default void remove(@NonNull final KeyPath key) {
+    remove(key.toString());
+  }
+
   // ----------------------------------------------------------------------------------------------------
   //
   // Default-Implementations
@@ -89,6 +134,28 @@ public interface DataStorage {
     }
   }
 
+  /**
+   * Serializes all values using the {@link SimplixSerializer} and sets them as List. You will need
+   * to register a serializable for the type in the {@link SimplixSerializer} before.
+   *
+   * @param key    The key the List should be associated with.
+   * @param values The values you want to set in your data-structure.
+   * @param type   Type of the values, used to look up the serializable once.
+   */
+  default <T> void setSerializableList(
+      @NonNull final String key,
+      @NonNull final Collection<? extends T> values,
+      @NonNull final Class<T> type) {
+    try {
+      set(key, SimplixSerializer.serializeList(values, type));
+    } catch (final Throwable throwable) {
+      throw SimplixProviders.exceptionHandler().create(
+          throwable,
+          "Can't serialize: '" + key + "'",
+          "Class: '" + type.getName() + "'");
+    }
+  }
+
   // ----------------------------------------------------------------------------------------------------
   // Getting Strings & primitive types from data-structure
   // ----------------------------------------------------------------------------------------------------
@@ -199,16 +266,72 @@ public interface DataStorage {
     return getOrDefault(key, new ArrayList<>());
   }
 
+  /**
+   * Get a List of Integers. Elements may be stored as numbers or Strings.
+   *
+   * @param key Path to List in data structure.
+   */
   default List<Integer> getIntegerList(final String key) {
-    return getOrDefault(key, new ArrayList<String>()).stream().map(Integer::parseInt).collect(Collectors.toList());
+    final List<?> list = getList(key);
+    final List<Integer> result = new ArrayList<>(list.size());
+    for (final Object element : list) {
+      result.add(ClassWrapper.INTEGER.getInt(element));
+    }
+    return result;
   }
 
+  /**
+   * Get a List of Bytes. Elements may be stored as numbers or Strings.
+   *
+   * @param key Path to List in data structure.
+   */
   default List<Byte> getByteList(final String key) {
-    return getOrDefault(key, new ArrayList<String>()).stream().map(Byte::parseByte).collect(Collectors.toList());
+    final List<?> list = getList(key);
+    final List<Byte> result = new ArrayList<>(list.size());
+    for (final Object element : list) {
+      result.add(ClassWrapper.BYTE.getByte(element));
+    }
+    return result;
   }
 
+  /**
+   * Get a List of Longs. Elements may be stored as numbers or Strings.
+   *
+   * @param key Path to List in data structure.
+   */
   default List<Long> getLongList(final String key) {
-    return getOrDefault(key, new ArrayList<String>()).stream().map(Long::parseLong).collect(Collectors.toList());
+    final List<?> list = getList(key);
+    final List<Long> result = new ArrayList<>(list.size());
+    for (final Object element : list) {
+      result.add(ClassWrapper.LONG.getLong(element));
+    }
+    return result;
+  }
+
+  /**
+   * Get a List of numbers as int array, without boxing its elements. Elements may be stored as
+   * numbers or Strings. FlatFiles cache the converted array until their data is changed or
+   * reloaded and return a copy of it, so the returned array may be modified.
+   *
+   * @param key Path to List in data structure.
+   * @return The elements or an empty array if the key doesn't hold a List.
+   */
+  default int[] getIntArray(final String key) {
+    return ClassWrapper.INTEGER.toIntArray(get(key));
+  }
+
+  /**
+   * Like {@link #getIntArray(String)}, for longs.
+   */
+  default long[] getLongArray(final String key) {
+    return ClassWrapper.LONG.toLongArray(get(key));
+  }
+
+  /**
+   * Like {@link #getIntArray(String)}, for doubles.
+   */
+  default double[] getDoubleArray(final String key) {
+    return ClassWrapper.DOUBLE.toDoubleArray(get(key));
   }
 
   default Map<?, ?> getMap(final String key) {
@@ -265,12 +388,7 @@ public interface DataStorage {
       return null;
     }
 
-    final List<?> rawList = getList(key);
-
-    return rawList
-        .stream()
-        .map(input -> SimplixSerializer.deserialize(input, type))
-        .collect(Collectors.toList());
+    return SimplixSerializer.deserializeList(getList(key), type);
   }
 
   // ----------------------------------------------------------------------------------------------------
@@ -0,0 +1,55 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.util.ClassWrapper;
+import lombok.NonNull;
+
+/**
+ * {@link TypedKey} for double values. Numbers are converted like
+ * {@link DataStorage#getDouble(String)}.
+ */
+public final class DoubleKey extends TypedKey {
+
+  private final double def;
+  // Replaced as a whole, so a value is never read together with the version of another one
+  private volatile Memo memo;
+
+  private DoubleKey(final FlatFile flatFile, final String key, final double def) {
+    super(flatFile, key);
+    this.def = def;
+  }
+
+  /**
+   * @param def Value returned while the key doesn't exist
+   */
+  public static DoubleKey of(
+      @NonNull final FlatFile flatFile,
+      @NonNull final String key,
+      final double def) {
+    return new DoubleKey(flatFile, key, def);
+  }
+
+  public double get() {
+    final FileData data = data();
+    final long version = data.getVersion();
+    final Memo memo = this.memo;
+    if (memo != null && memo.version == version) {
+      return memo.value;
+    }
+
+    final Object raw = data.get(this.key);
+    final double value = raw == null ? this.def : ClassWrapper.DOUBLE.getDouble(raw);
+    this.memo = new Memo(version, value);
+    return value;
+  }
+
+  private static final class Memo {
+
+    private final long version;
+    private final double value;
+
+    private Memo(final long version, final double value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+}
@@ -3,11 +3,15 @@ package de.leonhard.storage.internal;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.util.JsonUtils;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.val;
 import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
@@ -19,25 +23,59 @@ import org.json.JSONObject;
 @SuppressWarnings("unchecked")
 public class FileData {
 
+  // Source of versions, so no two FileData's ever share a version
+  private static final AtomicLong VERSIONS = new AtomicLong();
+
   private final Map<String, Object> localMap;
+  // Nested maps are shared with other FileData's and must be copied before being modified
+  private final boolean copyOnWrite;
+  private volatile long version = VERSIONS.incrementAndGet();
 
   public FileData(final Map<String, Object> map, final DataType dataType) {
     this.localMap = dataType.getMapImplementation();
+    this.copyOnWrite = false;
 
     this.localMap.putAll(map);
   }
 
   public FileData(final JSONObject jsonObject) {
     this.localMap = new HashMap<>(jsonObject.toMap());
+    this.copyOnWrite = false;
   }
 
   public FileData(final JSONObject jsonObject, final DataType dataType) {
     this.localMap = dataType.getMapImplementation();
+    this.copyOnWrite = false;
     this.localMap.putAll(jsonObject.toMap());
   }
 
+  private FileData(final FileData source) {
+    this.localMap = source.createNewMap(source.localMap);
+    this.copyOnWrite = true;
+  }
+
+  /**
+   * Creates a copy sharing all nested data with this FileData. Changes to the copy only copy the
+   * sections they touch and never affect this FileData.
+   *
+   * @return the new FileData.
+   */
+  public FileData copy() {
+    return new FileData(this);
+  }
+
+  /**
+   * Changes whenever our data is changed through this class and is unique across all FileData's.
+   * Values derived from our data stay valid as long as the version is the same. Changes made to the
+   * Map returned by {@link #toMap()} aren't noticed.
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
   public void clear() {
     this.localMap.clear();
+    this.version = VERSIONS.incrementAndGet();
   }
 
   /**
@@ -51,6 +89,7 @@ public class FileData {
     if (map != null) {
       this.localMap.putAll(map);
     }
+    this.version = VERSIONS.incrementAndGet();
   }
 
   /**
@@ -60,8 +99,32 @@ public class FileData {
    * @return the value assigned to the given key or null if the key does not exist.
    */
   public Object get(final String key) {
-    final String[] parts = key.split("\\.");
-    return get(this.localMap, parts, 0);
+    return get(KeyPath.of(key));
+  }
+
+  /**
+   * Method to get the object assign to a pre-split key from a FileData Object.
+   *
+   * @param key the key to look for.
+   * @return the value assigned to the given key or null if the key does not exist.
+   */
+  public Object get(final KeyPath key) {
+    return get(this.localMap, key.parts(), 0);
+  }
+
+  /**
+   * Method to get the object assigned to a key inside of a section without building the combined
+   * key.
+   *
+   * @param section the key of the section to look in.
+   * @param key     the key to look for, relative to the section.
+   * @return the value assigned to the given key or null if the key does not exist.
+   */
+  public Object get(final KeyPath section, final KeyPath key) {
+    final Object sectionValue = get(section);
+    return sectionValue instanceof Map
+           ? get((Map<String, Object>) sectionValue, key.parts(), 0)
+           : null;
   }
 
   private Object get(final Map<String, Object> map, final String[] key, final int id) {
@@ -83,13 +146,31 @@ public class FileData {
    * @param key   the key to be used.
    * @param value the value to be assigned to the key.
    */
-  public synchronized void insert(final String key, final Object value) {
-    final String[] parts = key.split("\\.");
+  public void insert(final String key, final Object value) {
+    insert(KeyPath.of(key), value);
+  }
+
+  /**
+   * Method to assign a value to a pre-split key.
+   *
+   * @param key   the key to be used.
+   * @param value the value to be assigned to the key.
+   */
+  public synchronized void insert(final KeyPath key, final Object value) {
+    final String[] parts = key.parts();
+    if (!this.copyOnWrite) {
+      insertInPlace(this.localMap, parts, value, 0);
+      this.version = VERSIONS.incrementAndGet();
+      return;
+    }
+
+    // Sections might be shared with other FileData's, so we copy every section on the path
     this.localMap.put(
             parts[0],
             this.localMap.containsKey(parts[0]) && this.localMap.get(parts[0]) instanceof Map
                     ? insert((Map<String, Object>) this.localMap.get(parts[0]), parts, value, 1)
                     : insert(createNewMap(), parts, value, 1));
+    this.version = VERSIONS.incrementAndGet();
   }
 
   private Object insert(
@@ -108,6 +189,44 @@ public class FileData {
     }
   }
 
+  /**
+   * Walks down the given key, modifying the sections we created in place. Missing sections are
+   * created, sections we didn't create are replaced by a copy: They might be shared with the
+   * caller who set them or unmodifiable.
+   *
+   * @param map a section created by us.
+   */
+  private void insertInPlace(
+      final Map<String, Object> map,
+      final String[] key,
+      final Object value,
+      final int id) {
+    if (id == key.length - 1) {
+      map.put(key[id], value);
+      return;
+    }
+
+    insertInPlace(ownedSection(map, key[id]), key, value, id + 1);
+  }
+
+  /**
+   * @return the section stored under the key in the given map, which was created by us. If it
+   * wasn't, it is replaced by a copy created by us first.
+   */
+  private Map<String, Object> ownedSection(final Map<String, Object> map, final String key) {
+    final Object child = map.get(key);
+    if (child instanceof OwnedSection) {
+      return (Map<String, Object>) child;
+    }
+
+    final Map<String, Object> section = isSorted() ? new OwnedLinkedHashMap() : new OwnedHashMap();
+    if (child instanceof Map) {
+      section.putAll((Map<String, Object>) child);
+    }
+    map.put(key, section);
+    return section;
+  }
+
   /**
    * Check whether the map contains a certain key.
    *
@@ -115,8 +234,30 @@ public class FileData {
    * @return true if the key exists, otherwise false.
    */
   public boolean containsKey(final String key) {
-    final String[] parts = key.split("\\.");
-    return containsKey(this.localMap, parts, 0);
+    return containsKey(KeyPath.of(key));
+  }
+
+  /**
+   * Check whether the map contains a certain pre-split key.
+   *
+   * @param key the key to be looked for.
+   * @return true if the key exists, otherwise false.
+   */
+  public boolean containsKey(final KeyPath key) {
+    return containsKey(this.localMap, key.parts(), 0);
+  }
+
+  /**
+   * Check whether a section contains a certain key without building the combined key.
+   *
+   * @param section the key of the section to look in.
+   * @param key     the key to be looked for, relative to the section.
+   * @return true if the key exists, otherwise false.
+   */
+  public boolean containsKey(final KeyPath section, final KeyPath key) {
+    final Object sectionValue = get(section);
+    return sectionValue instanceof Map
+           && containsKey((Map<String, Object>) sectionValue, key.parts(), 0);
   }
 
   private boolean containsKey(
@@ -139,16 +280,27 @@ public class FileData {
    *
    * @param key the key to be removed from the map.
    */
-  public synchronized void remove(final String key) {
+  public void remove(final String key) {
+    remove(KeyPath.of(key));
+  }
+
+  /**
+   * Remove a pre-split key with its assigned value from the map if given key exists.
+   *
+   * @param key the key to be removed from the map.
+   */
+  public synchronized void remove(final KeyPath key) {
     if (containsKey(key)) {
-      final String[] parts = key.split("\\.");
-      remove(parts);
+      remove(key.parts());
+      this.version = VERSIONS.incrementAndGet();
     }
   }
 
   private void remove(final @NotNull String[] key) {
     if (key.length == 1) {
       this.localMap.remove(key[0]);
+    } else if (!this.copyOnWrite) {
+      removeInPlace(this.localMap, key, 0);
     } else {
       final Object tempValue = this.localMap.get(key[0]);
       if (tempValue instanceof Map) {
@@ -161,23 +313,38 @@ public class FileData {
     }
   }
 
+  // Like insertInPlace(), only modifies sections created by us. The key is known to exist
+  private void removeInPlace(final Map<String, Object> map, final String[] key, final int id) {
+    if (id == key.length - 1) {
+      map.remove(key[id]);
+      return;
+    }
+
+    final Map<String, Object> section = ownedSection(map, key[id]);
+    removeInPlace(section, key, id + 1);
+    if (section.isEmpty()) {
+      map.remove(key[id]);
+    }
+  }
+
   private Map<String, Object> remove(
           final Map<String, Object> map,
           final String[] key,
           final int keyIndex) {
+    final Map<String, Object> target = createNewMap(map);
     if (keyIndex < key.length - 1) {
-      final Object tempValue = map.get(key[keyIndex]);
+      final Object tempValue = target.get(key[keyIndex]);
       if (tempValue instanceof Map) {
         //noinspection unchecked
-        map.put(key[keyIndex], this.remove((Map) tempValue, key, keyIndex + 1));
-        if (((Map) map.get(key[keyIndex])).isEmpty()) {
-          map.remove(key[keyIndex]);
+        target.put(key[keyIndex], this.remove((Map) tempValue, key, keyIndex + 1));
+        if (((Map) target.get(key[keyIndex])).isEmpty()) {
+          target.remove(key[keyIndex]);
         }
       }
     } else {
-      map.remove(key[keyIndex]);
+      target.remove(key[keyIndex]);
     }
-    return map;
+    return target;
   }
 
   /**
@@ -304,6 +471,7 @@ public class FileData {
 
   public void putAll(final Map<String, Object> map) {
     this.localMap.putAll(map);
+    this.version = VERSIONS.incrementAndGet();
   }
 
   private int size(final Map<String, Object> map) {
@@ -328,6 +496,14 @@ public class FileData {
     }
   }
 
+  /**
+   * @return A copy of our data sharing no sections or lists with it, which therefore stays the same
+   * while our data is changed.
+   */
+  public Map<String, Object> toDeepCopy() {
+    return copyMap(toMap());
+  }
+
   public JSONObject toJsonObject() {
     return JsonUtils.getJsonFromMap(this.localMap);
   }
@@ -344,6 +520,43 @@ public class FileData {
     return isSorted() ? new LinkedHashMap<>(value) : new HashMap<>(value);
   }
 
+  private static Map<String, Object> copyMap(final Map<String, Object> map) {
+    final Map<String, Object> copy = new LinkedHashMap<>(map.size());
+    for (final Map.Entry<String, Object> entry : map.entrySet()) {
+      copy.put(entry.getKey(), copyValue(entry.getValue()));
+    }
+    return copy;
+  }
+
+  private static Object copyValue(final Object value) {
+    if (value instanceof Map) {
+      return copyMap((Map<String, Object>) value);
+    } else if (value instanceof Collection) {
+      final List<Object> copy = new ArrayList<>(((Collection<?>) value).size());
+      for (final Object element : (Collection<?>) value) {
+        copy.add(copyValue(element));
+      }
+      return copy;
+    }
+    return value;
+  }
+
+  // Sections created by in-place changes, which may be modified in place later on. Every other
+  // section is copied first
+  private interface OwnedSection {
+
+  }
+
+  private static final class OwnedHashMap extends HashMap<String, Object>
+      implements OwnedSection {
+
+  }
+
+  private static final class OwnedLinkedHashMap extends LinkedHashMap<String, Object>
+      implements OwnedSection {
+
+  }
+
   // ----------------------------------------------------------------------------------------------------
   // Overridden methods form Object
   // ----------------------------------------------------------------------------------------------------
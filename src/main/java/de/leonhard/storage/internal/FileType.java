@@ -10,7 +10,9 @@ import lombok.RequiredArgsConstructor;
 public enum FileType {
   JSON("json"),
   YAML("yml"),
-  TOML("toml");
+  TOML("toml"),
+  JOURNAL("journal"),
+  SDB("sdb");
 
   private final String extension;
 
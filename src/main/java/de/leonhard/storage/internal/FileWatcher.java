@@ -0,0 +1,160 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Shared {@link WatchService} backing {@link ReloadSettings#WATCHED}.
+ *
+ * <p>Every directory is registered only once. Changes are dispatched to the {@link FlatFile}s
+ * of the affected file, which only set a flag. FlatFiles are referenced weakly, so watching a
+ * file never keeps it from being garbage collected.
+ */
+@UtilityClass
+class FileWatcher {
+
+  private final Map<Path, WatchKey> directories = new HashMap<>();
+  private final Map<Path, List<WeakReference<FlatFile>>> watched = new HashMap<>();
+  private WatchService watchService;
+
+  /**
+   * Starts watching the file of the given FlatFile.
+   *
+   * @return false if the file can't be watched.
+   */
+  synchronized boolean watch(@NonNull final FlatFile flatFile) {
+    final Path path = flatFile.getFile().toPath().toAbsolutePath().normalize();
+    final Path directory = path.getParent();
+    if (directory == null) {
+      return false;
+    }
+
+    try {
+      if (watchService == null) {
+        watchService = FileSystems.getDefault().newWatchService();
+        final Thread thread = new Thread(FileWatcher::processEvents, "SimplixStorage-FileWatcher");
+        thread.setDaemon(true);
+        thread.start();
+      }
+
+      if (!directories.containsKey(directory)) {
+        directories.put(
+            directory,
+            directory.register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY));
+      }
+    } catch (final IOException | UnsupportedOperationException ex) {
+      return false;
+    }
+
+    watched.computeIfAbsent(path, ignored -> new ArrayList<>()).add(new WeakReference<>(flatFile));
+    return true;
+  }
+
+  private void processEvents() {
+    while (true) {
+      final WatchKey key;
+      try {
+        key = watchService.take();
+      } catch (final InterruptedException | ClosedWatchServiceException ex) {
+        return;
+      }
+
+      final Path directory = (Path) key.watchable();
+      for (final WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+          // Events were lost, so every file in this directory might have changed.
+          dispatchDirectory(directory);
+        } else {
+          dispatch(directory.resolve((Path) event.context()));
+        }
+      }
+
+      if (!key.reset()) {
+        removeDirectory(directory);
+      }
+    }
+  }
+
+  private synchronized void dispatch(final Path path) {
+    final List<WeakReference<FlatFile>> references = watched.get(path);
+    if (references == null) {
+      return;
+    }
+
+    notifyFlatFiles(references);
+    if (references.isEmpty()) {
+      watched.remove(path);
+      cancelIfUnused(path.getParent());
+    }
+  }
+
+  private synchronized void dispatchDirectory(final Path directory) {
+    for (final Map.Entry<Path, List<WeakReference<FlatFile>>> entry : watched.entrySet()) {
+      if (directory.equals(entry.getKey().getParent())) {
+        notifyFlatFiles(entry.getValue());
+      }
+    }
+  }
+
+  private synchronized void removeDirectory(final Path directory) {
+    directories.remove(directory);
+    final Iterator<Map.Entry<Path, List<WeakReference<FlatFile>>>> iterator =
+        watched.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<Path, List<WeakReference<FlatFile>>> entry = iterator.next();
+      if (!directory.equals(entry.getKey().getParent())) {
+        continue;
+      }
+      iterator.remove();
+      for (final WeakReference<FlatFile> reference : entry.getValue()) {
+        final FlatFile flatFile = reference.get();
+        if (flatFile != null) {
+          flatFile.onWatchCancelled();
+        }
+      }
+    }
+  }
+
+  private void notifyFlatFiles(final List<WeakReference<FlatFile>> references) {
+    final Iterator<WeakReference<FlatFile>> iterator = references.iterator();
+    while (iterator.hasNext()) {
+      final FlatFile flatFile = iterator.next().get();
+      if (flatFile == null) {
+        iterator.remove();
+      } else {
+        flatFile.onFileChanged();
+      }
+    }
+  }
+
+  private void cancelIfUnused(final Path directory) {
+    for (final Path path : watched.keySet()) {
+      if (directory.equals(path.getParent())) {
+        return;
+      }
+    }
+
+    final WatchKey key = directories.remove(directory);
+    if (key != null) {
+      key.cancel();
+    }
+  }
+}
@@ -1,19 +1,32 @@
 package de.leonhard.storage.internal;
 
 import de.leonhard.storage.annotation.ConfigPath;
+import de.leonhard.storage.internal.provider.MetricsProvider;
 import de.leonhard.storage.internal.provider.SimplixProviders;
+import de.leonhard.storage.internal.serialize.SimplixSerializer;
+import de.leonhard.storage.internal.settings.CompressionSettings;
+import de.leonhard.storage.internal.settings.ConcurrencySettings;
 import de.leonhard.storage.internal.settings.DataType;
 import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.internal.settings.WriteSettings;
 import de.leonhard.storage.sections.FlatFileSection;
+import de.leonhard.storage.util.ClassWrapper;
+import de.leonhard.storage.util.CompressionUtils;
 import de.leonhard.storage.util.FileUtils;
+import de.leonhard.storage.util.Timings;
 import de.leonhard.storage.util.Valid;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import lombok.*;
 import org.jetbrains.annotations.Nullable;
@@ -21,19 +34,95 @@ import org.jetbrains.annotations.Nullable;
 @Getter
 @ToString
 @EqualsAndHashCode
-public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
+public abstract class FlatFile implements DataStorage, Comparable<FlatFile>, AutoCloseable {
 
   protected final File file;
   protected final FileType fileType;
-  @Setter
   protected ReloadSettings reloadSettings = ReloadSettings.INTELLIGENT;
   protected DataType dataType = DataType.UNSORTED;
-  protected FileData fileData;
+  @Setter
+  protected ConcurrencySettings concurrencySettings = ConcurrencySettings.IN_PLACE;
+  protected WriteSettings writeSettings = WriteSettings.DIRECT;
+  protected CompressionSettings compressionSettings = CompressionSettings.NONE;
+  protected volatile FileData fileData;
   @Nullable
   protected Consumer<FlatFile> reloadConsumer;
   @Setter
   protected String pathPrefix;
-  private long lastLoaded;
+  private volatile long lastLoaded;
+  /**
+   * The exception thrown while reading the file during the last reload, if it failed. The data read
+   * before is kept in that case, which is empty if the first load failed.
+   */
+  @Nullable
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile Exception lastReloadException;
+  // Set by the FileWatcher, if our reloadSettings are WATCHED
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile boolean fileChanged;
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile boolean watching;
+  // Modification date & size of our file after our last read or write. Events of the
+  // FileWatcher are ignored as long as they match, as they were caused by ourselves
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile long knownModified;
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile long knownLength = -1;
+  // Set once a FlatFileRegistry evicted us, as we would diverge from its next FlatFile of our file
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile boolean retired;
+  // Write-behind: Quiet period & upper bound in millis. A quiet period of 0 writes immediately
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private long writeBehindDelay;
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private long writeBehindMaxDelay;
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile boolean dirty;
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private long firstChange;
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private long lastChange;
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @Nullable
+  private ScheduledFuture<?> pendingFlush;
+  // Bytes written by the running write(), only counted while metrics are collected
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private long writtenBytes;
+  // Arrays converted by getIntArray() etc., replaced once the version of our FileData changed
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private volatile ArrayCache arrayCache = ArrayCache.EMPTY;
+  // Null unless enabled using setSerializableCaching()
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @Nullable
+  private volatile SerializableCache serializableCache;
 
   protected FlatFile(
       @NonNull final String name,
@@ -119,32 +208,168 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
    */
   protected abstract void write(final FileData data) throws IOException;
 
+  /**
+   * Replaces the content of our file with the content written by the action, honoring our
+   * writeSettings and compressionSettings. Implementations of {@link #write(FileData)} should
+   * write through this.
+   */
+  protected final void writeFile(final FileUtils.WriteAction action) throws IOException {
+    FileUtils.write(this.file, this.writeSettings, this.compressionSettings, action);
+    final MetricsProvider metrics = metrics();
+    if (metrics != null) {
+      countWrittenBytes(this.file.length());
+      reportCompression(metrics, true);
+    }
+  }
+
+  /**
+   * Replaces the content of our file with the remaining bytes of the buffer, honoring our
+   * writeSettings and compressionSettings. For binary formats.
+   */
+  protected final void writeFile(final ByteBuffer buffer) throws IOException {
+    FileUtils.write(this.file, this.writeSettings, this.compressionSettings, buffer);
+    final MetricsProvider metrics = metrics();
+    if (metrics != null) {
+      countWrittenBytes(this.file.length());
+      reportCompression(metrics, true);
+    }
+  }
+
+  /**
+   * Reports bytes written to our file for metrics. Only needed for implementations of {@link
+   * #write(FileData)} which don't write through writeFile().
+   */
+  protected final void countWrittenBytes(final long bytes) {
+    this.writtenBytes += bytes;
+  }
+
+  /**
+   * Remembers the current modification date and size of our file as caused by ourselves, so the
+   * FileWatcher doesn't reload it. Only needed for implementations changing the file outside of
+   * {@link #write(FileData)}.
+   */
+  protected final void rememberFileState() {
+    this.knownModified = this.file.lastModified();
+    this.knownLength = this.file.length();
+  }
+
+  /**
+   * Runs the task on the background thread also used for write-behind.
+   */
+  protected static void runInBackground(@NonNull final Runnable task) {
+    WriteScheduler.schedule(task, 0);
+  }
+
   protected void handleReloadException(final IOException ioException) {
+    printReloadException(ioException);
+  }
+
+  /**
+   * Called instead of {@link #handleReloadException(IOException)} if the parser rejected the
+   * content of our file.
+   */
+  protected void handleParseException(final RuntimeException exception) {
+    printReloadException(exception);
+  }
+
+  private void printReloadException(final Exception exception) {
     final String fileName = this.fileType == null
         ? "File"
         : this.fileType.name().toLowerCase(); // fileType might be null
     System.err.println("Exception reloading " + fileName + " '" + getName() + "'");
     System.err.println("In '" + FileUtils.getParentDirPath(this.file) + "'");
-    ioException.printStackTrace();
+    exception.printStackTrace();
   }
   // ----------------------------------------------------------------------------------------------------
   // Overridden methods from DataStorage
   // ---------------------------------------------------------------------------------------------------->
 
   @Override
-  public synchronized void set(final String key, final Object value) {
+  public void set(final String key, final Object value) {
+    set(KeyPath.of(key), value);
+  }
+
+  @Override
+  public synchronized void set(final KeyPath key, final Object value) {
     reloadIfNeeded();
-    final String finalKey = (this.pathPrefix == null) ? key : this.pathPrefix + "." + key;
-    this.fileData.insert(finalKey, value);
-    write();
-    this.lastLoaded = System.currentTimeMillis();
+    final KeyPath finalKey = (this.pathPrefix == null)
+                             ? key
+                             : KeyPath.of(this.pathPrefix).resolve(key);
+    commit(Collections.singletonList(Transaction.Change.set(finalKey, value)));
   }
 
   @Override
   public final Object get(final String key) {
+    return get(KeyPath.of(key));
+  }
+
+  @Override
+  public final Object get(final KeyPath key) {
+    final MetricsProvider metrics = metrics();
+    if (metrics != null) {
+      metrics.onGet(this);
+    }
     reloadIfNeeded();
-    final String finalKey = this.pathPrefix == null ? key : this.pathPrefix + "." + key;
-    return getFileData().get(finalKey);
+    // Resolving the prefix as a section saves us from building the combined key
+    return this.pathPrefix == null
+           ? this.fileData.get(key)
+           : this.fileData.get(KeyPath.of(this.pathPrefix), key);
+  }
+
+  /**
+   * Cached until our data is changed or reloaded. Returns a copy of the cached array.
+   */
+  @Override
+  public final int[] getIntArray(final String key) {
+    return getArray(key, int[].class, ClassWrapper.INTEGER::toIntArray, int[]::clone);
+  }
+
+  /**
+   * Cached until our data is changed or reloaded. Returns a copy of the cached array.
+   */
+  @Override
+  public final long[] getLongArray(final String key) {
+    return getArray(key, long[].class, ClassWrapper.LONG::toLongArray, long[]::clone);
+  }
+
+  /**
+   * Cached until our data is changed or reloaded. Returns a copy of the cached array.
+   */
+  @Override
+  public final double[] getDoubleArray(final String key) {
+    return getArray(key, double[].class, ClassWrapper.DOUBLE::toDoubleArray, double[]::clone);
+  }
+
+  /**
+   * Returns the cached instance if serializable caching is enabled, see {@link
+   * #setSerializableCaching(boolean)}.
+   */
+  @Nullable
+  @Override
+  public final <T> T getSerializable(final String key, final Class<T> clazz) {
+    final SerializableCache serializableCache = this.serializableCache;
+    if (serializableCache == null) {
+      return DataStorage.super.getSerializable(key, clazz);
+    }
+
+    final FileData data = readFileData();
+    // Read before the value, so an instance is never stored with a newer version than its data
+    final long version = data.getVersion();
+    final KeyPath finalKey = this.pathPrefix == null
+                             ? KeyPath.of(key)
+                             : KeyPath.of(this.pathPrefix + "." + key);
+    final Object cached = serializableCache.get(version, finalKey, clazz);
+    if (cached != null) {
+      return clazz.cast(cached);
+    }
+
+    final Object raw = data.get(finalKey);
+    if (raw == null) {
+      return null;
+    }
+    final T value = SimplixSerializer.deserialize(raw, clazz);
+    serializableCache.put(version, finalKey, clazz, value);
+    return value;
   }
 
   /**
@@ -155,9 +380,15 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
    */
   @Override
   public final boolean contains(final String key) {
+    return contains(KeyPath.of(key));
+  }
+
+  @Override
+  public final boolean contains(final KeyPath key) {
     reloadIfNeeded();
-    final String finalKey = (this.pathPrefix == null) ? key : this.pathPrefix + "." + key;
-    return this.fileData.containsKey(finalKey);
+    return this.pathPrefix == null
+           ? this.fileData.containsKey(key)
+           : this.fileData.containsKey(KeyPath.of(this.pathPrefix), key);
   }
 
   @Override
@@ -185,10 +416,14 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
   }
 
   @Override
-  public final synchronized void remove(final String key) {
+  public final void remove(final String key) {
+    remove(KeyPath.of(key));
+  }
+
+  @Override
+  public final synchronized void remove(final KeyPath key) {
     reloadIfNeeded();
-    this.fileData.remove(key);
-    write();
+    commit(Collections.singletonList(Transaction.Change.remove(key)));
   }
 
   // ----------------------------------------------------------------------------------------------------
@@ -201,8 +436,29 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
    * @param map Map to insert.
    */
   public final void putAll(final Map<String, Object> map) {
-    this.fileData.putAll(map);
-    write();
+    final List<Transaction.Change> changes = new ArrayList<>(map.size());
+    for (final Map.Entry<String, Object> entry : map.entrySet()) {
+      changes.add(Transaction.Change.set(KeyPath.of(entry.getKey()), entry.getValue()));
+    }
+    commit(changes);
+  }
+
+  /**
+   * Replaces our data with the data of a map, like a {@link #clear()} followed by {@link
+   * #putAll(Map)} but written once. Readers never see the data in between.
+   *
+   * <p>Unlike putAll, the keys of the map aren't split at dots, as they are keys of our data like
+   * the ones of {@link #getData()}.
+   *
+   * @param map Map to replace our data with.
+   */
+  public final void replaceData(final Map<String, Object> map) {
+    final List<Transaction.Change> changes = new ArrayList<>(map.size() + 1);
+    changes.add(Transaction.Change.clear());
+    for (final Map.Entry<String, Object> entry : map.entrySet()) {
+      changes.add(Transaction.Change.set(KeyPath.ofSegments(entry.getKey()), entry.getValue()));
+    }
+    commit(changes);
   }
 
   /**
@@ -225,10 +481,87 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
   }
 
   public void removeAll(final String... keys) {
-    for (final String key : keys) {
-      this.fileData.remove(key);
+    batch(transaction -> {
+      for (final String key : keys) {
+        transaction.remove(key);
+      }
+    });
+  }
+
+  /**
+   * Applies several changes at once. The changes collected by the given consumer are applied
+   * while holding our monitor and are written with a single write afterwards, no matter how many
+   * keys are touched.
+   *
+   * <pre>{@code
+   * flatFile.batch(transaction -> transaction
+   *     .set("a", 1)
+   *     .remove("b"));
+   * }</pre>
+   *
+   * @param batch Consumer collecting the changes
+   */
+  public final synchronized void batch(@NonNull final Consumer<Transaction> batch) {
+    reloadIfNeeded();
+    final Transaction transaction = new Transaction(
+        this.pathPrefix == null ? null : KeyPath.of(this.pathPrefix));
+    batch.accept(transaction);
+    commit(transaction.getChanges());
+  }
+
+  /**
+   * Applies the given changes to our FileData and writes it once.
+   *
+   * @param changes Changes with absolute keys
+   */
+  protected final synchronized void commit(@NonNull final List<Transaction.Change> changes) {
+    if (changes.isEmpty()) {
+      return;
     }
-    write();
+    Valid.checkBoolean(
+        !this.retired,
+        "'" + this.file + "' was evicted from its FlatFileRegistry",
+        "Get it from the registry again instead of keeping it");
+    final long versionBefore = this.fileData.getVersion();
+
+    if (this.concurrencySettings == ConcurrencySettings.COPY_ON_WRITE) {
+      // Readers keep using the old version until the new one is complete
+      final FileData copy = this.fileData.copy();
+      for (final Transaction.Change change : changes) {
+        change.applyTo(copy);
+      }
+      this.fileData = copy;
+    } else {
+      for (final Transaction.Change change : changes) {
+        change.applyTo(this.fileData);
+      }
+    }
+    final SerializableCache serializableCache = this.serializableCache;
+    if (serializableCache != null) {
+      serializableCache.invalidate(versionBefore, this.fileData.getVersion(), changes);
+    }
+    final MetricsProvider metrics = metrics();
+    if (metrics != null) {
+      for (final Transaction.Change change : changes) {
+        if (change.getType() == Transaction.Change.Type.SET) {
+          metrics.onSet(this);
+        } else if (change.getType() == Transaction.Change.Type.REMOVE) {
+          metrics.onRemove(this);
+        }
+      }
+    }
+    onCommit(changes);
+    requestWrite();
+  }
+
+  /**
+   * Called with every list of changes committed, after they were applied to our FileData and
+   * before they are written. Lets implementations like {@link de.leonhard.storage.Journal} write
+   * the changes themselves instead of the whole data.
+   *
+   * @param changes Changes with absolute keys
+   */
+  protected void onCommit(final List<Transaction.Change> changes) {
   }
 
   // ----------------------------------------------------------------------------------------------------
@@ -243,13 +576,14 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
     reloadIfNeeded();
 
     // Creating & setting defaults
+    final List<Transaction.Change> changes = new ArrayList<>();
     for (final String key : newData.keySet()) {
       if (!this.fileData.containsKey(key)) {
-        this.fileData.insert(key, newData.get(key));
+        changes.add(Transaction.Change.set(KeyPath.of(key), newData.get(key)));
       }
     }
 
-    write();
+    commit(changes);
   }
 
   public final void addDefaultsFromFlatFile(@NonNull final FlatFile flatFile) {
@@ -267,42 +601,210 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
   public synchronized void replace(
       final CharSequence target,
       final CharSequence replacement) throws IOException {
-    final List<String> lines = Files.readAllLines(this.file.toPath());
+    final List<String> lines = FileUtils.readAllLines(this.file);
     final List<String> result = new ArrayList<>();
     for (final String line : lines) {
       result.add(line.replace(target, replacement));
     }
-    Files.write(this.file.toPath(), result);
+    writeFile(writer -> {
+      for (final String line : result) {
+        writer.write(line);
+        writer.write(System.lineSeparator());
+      }
+    });
   }
 
-  public void write() {
+  public synchronized void write() {
+    final MetricsProvider metrics = metrics();
+    final long start = metrics == null ? 0 : System.nanoTime();
+    this.writtenBytes = 0;
+    final long timing = Timings.WRITE.start();
+    boolean written = false;
     try {
       write(this.fileData);
+      rememberFileState();
+      // Only after a successful write, as the file might not contain our data otherwise
+      this.lastLoaded = System.currentTimeMillis();
+      written = true;
     } catch (final IOException ex) {
       System.err.println("Exception writing to file '" + getName() + "'");
       System.err.println("In '" + FileUtils.getParentDirPath(this.file) + "'");
       ex.printStackTrace();
+    } finally {
+      Timings.WRITE.stop(timing);
+      if (metrics != null) {
+        if (written) {
+          metrics.onWrite(this, this.writtenBytes, System.nanoTime() - start);
+        } else {
+          metrics.onWriteFailure(this, System.nanoTime() - start);
+        }
+      }
+    }
+
+    if (this.dirty) {
+      this.dirty = false;
+      WriteScheduler.unmarkPending(this);
+    }
+  }
+
+  /**
+   * Enables write-behind: Changes are no longer written on every call of set(), remove() etc.
+   * Instead, our FileData is written once no further change happened for the given quiet period,
+   * but at the latest after maxDelay passed since the first unsaved change.
+   *
+   * <p>Use {@link #flush()} or {@link #close()} to write pending changes immediately.
+   *
+   * @param quietPeriod Time without changes after which our data is written. 0 to disable.
+   * @param maxDelay    Maximum time a change may stay unsaved.
+   * @param unit        Unit of quietPeriod and maxDelay
+   */
+  public final synchronized void setWriteBehind(
+      final long quietPeriod,
+      final long maxDelay,
+      @NonNull final TimeUnit unit) {
+    Valid.checkBoolean(quietPeriod >= 0, "Quiet period mustn't be negative");
+    Valid.checkBoolean(maxDelay >= quietPeriod, "Max delay mustn't be shorter than quiet period");
+    this.writeBehindDelay = unit.toMillis(quietPeriod);
+    this.writeBehindMaxDelay = unit.toMillis(maxDelay);
+
+    if (this.writeBehindDelay == 0) {
+      flush();
+    }
+  }
+
+  /**
+   * Writes pending changes, if write-behind is enabled and there are any.
+   */
+  public final synchronized void flush() {
+    if (this.pendingFlush != null) {
+      this.pendingFlush.cancel(false);
+      this.pendingFlush = null;
     }
-    this.lastLoaded = System.currentTimeMillis();
+
+    if (this.dirty) {
+      write();
+    }
+  }
+
+  /**
+   * Writes pending changes. The FlatFile stays usable afterwards.
+   */
+  @Override
+  public void close() {
+    flush();
+  }
+
+  /**
+   * Writes pending changes and refuses all further ones. Used by {@link FlatFileRegistry} once we
+   * were evicted.
+   */
+  final synchronized void retire() {
+    flush();
+    this.retired = true;
+  }
+
+  /**
+   * Writes our data after a change. Depending on the write-behind settings this happens either
+   * immediately or deferred on a background thread.
+   */
+  protected final synchronized void requestWrite() {
+    if (this.writeBehindDelay <= 0) {
+      write();
+      return;
+    }
+
+    final long now = System.currentTimeMillis();
+    if (!this.dirty) {
+      this.dirty = true;
+      this.firstChange = now;
+      WriteScheduler.markPending(this);
+    }
+    this.lastChange = now;
+
+    if (this.pendingFlush == null) {
+      this.pendingFlush = WriteScheduler.schedule(this::flushIfDue, this.writeBehindDelay);
+    }
+  }
+
+  private synchronized void flushIfDue() {
+    this.pendingFlush = null;
+    if (!this.dirty) {
+      return;
+    }
+
+    final long now = System.currentTimeMillis();
+    final long due = Math.min(
+        this.lastChange + this.writeBehindDelay,
+        this.firstChange + this.writeBehindMaxDelay);
+
+    if (now < due) {
+      this.pendingFlush = WriteScheduler.schedule(this::flushIfDue, due - now);
+      return;
+    }
+
+    write();
   }
 
   public final boolean hasChanged() {
     return FileUtils.hasChanged(this.file, this.lastLoaded);
   }
 
-  public final void forceReload() {
-    Map<String, Object> out = new HashMap<>();
+  public final synchronized void forceReload() {
+    if (this.reloadSettings == ReloadSettings.WATCHED) {
+      startWatching();
+    }
+    // Reset before reading, so changes made while we read aren't lost
+    this.fileChanged = false;
+    final MetricsProvider metrics = metrics();
+    final long start = metrics == null ? 0 : System.nanoTime();
+    final long reloadTiming = Timings.RELOAD.start();
+    final long parseTiming = Timings.PARSE.start();
+    Map<String, Object> out = null;
     try {
       out = readToMap();
+      // Implementations might have written the file while reading it
+      rememberFileState();
+      if (metrics != null) {
+        reportCompression(metrics, false);
+      }
+      this.lastReloadException = null;
     } catch (final IOException ex) {
+      this.lastReloadException = ex;
       handleReloadException(ex);
+    } catch (final RuntimeException ex) {
+      // Parsers throw their own unchecked exceptions on malformed content
+      this.lastReloadException = ex;
+      handleParseException(ex);
     } finally {
+      Timings.PARSE.stop(parseTiming);
       if (this.fileData == null) {
-        this.fileData = new FileData(out, this.dataType);
-      } else {
-        this.fileData.loadData(out);
+        this.fileData = new FileData(out == null ? new HashMap<>() : out, this.dataType);
+      } else if (out != null) {
+        // Failed reloads keep the data we have instead of replacing it by nothing
+        if (this.concurrencySettings == ConcurrencySettings.COPY_ON_WRITE) {
+          this.fileData = new FileData(out, this.dataType);
+        } else {
+          this.fileData.loadData(out);
+        }
+        // Reloading discards pending write-behind changes
+        if (this.dirty) {
+          this.dirty = false;
+          WriteScheduler.unmarkPending(this);
+        }
+        this.arrayCache = ArrayCache.EMPTY;
+        final SerializableCache serializableCache = this.serializableCache;
+        if (serializableCache != null) {
+          serializableCache.clear();
+        }
       }
       this.lastLoaded = System.currentTimeMillis();
+      Timings.RELOAD.stop(reloadTiming);
+      if (metrics != null) {
+        metrics.onReload(this, System.nanoTime() - start);
+        if (out == null) {
+          metrics.onReloadFailure(this);
+        }
+      }
       if (this.reloadConsumer != null) {
         this.reloadConsumer.accept(this);
       }
@@ -310,8 +812,35 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
   }
 
   public final void clear() {
-    this.fileData.clear();
-    write();
+    commit(Collections.singletonList(Transaction.Change.clear()));
+  }
+
+  public void setReloadSettings(@NonNull final ReloadSettings reloadSettings) {
+    this.reloadSettings = reloadSettings;
+    if (reloadSettings == ReloadSettings.WATCHED) {
+      startWatching();
+    }
+  }
+
+  public void setWriteSettings(@NonNull final WriteSettings writeSettings) {
+    this.writeSettings = writeSettings;
+  }
+
+  /**
+   * Takes effect with our next write. Our file is read correctly with both settings.
+   */
+  public void setCompressionSettings(@NonNull final CompressionSettings compressionSettings) {
+    this.compressionSettings = compressionSettings;
+  }
+
+  /**
+   * Enables caching the instances returned by {@link #getSerializable(String, Class)}, for objects
+   * read far more often than they are changed. Repeated calls return the same instance until the
+   * key, one of its sections or anything inside of it is changed or the file is reloaded, so the
+   * instances mustn't be modified. Disabled by default.
+   */
+  public final synchronized void setSerializableCaching(final boolean enabled) {
+    this.serializableCache = enabled ? new SerializableCache() : null;
   }
 
   public final void clearPathPrefix() {
@@ -323,11 +852,90 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
   // ----------------------------------------------------------------------------------------------------
 
   protected final void reloadIfNeeded() {
-    if (shouldReload()) {
+    // Unsaved changes of write-behind are newer than the file
+    if (this.dirty) {
+      return;
+    }
+    final boolean reload = shouldReload();
+    final MetricsProvider metrics = metrics();
+    if (metrics != null) {
+      metrics.onReloadCheck(this, reload);
+    }
+    if (reload) {
       forceReload();
     }
   }
 
+  /**
+   * Our data for reads of {@link TypedKey}'s, reloaded if needed like for {@link #get(KeyPath)}.
+   */
+  final FileData readFileData() {
+    final MetricsProvider metrics = metrics();
+    if (metrics != null) {
+      metrics.onGet(this);
+    }
+    reloadIfNeeded();
+    return this.fileData;
+  }
+
+  // Copies are returned, as callers might modify the arrays
+  private <A> A getArray(
+      final String key,
+      final Class<A> type,
+      final Function<Object, A> converter,
+      final UnaryOperator<A> copier) {
+    final FileData data = readFileData();
+    // Read before the value, so an array is never stored with a newer version than its data
+    final long version = data.getVersion();
+    final String finalKey = this.pathPrefix == null ? key : this.pathPrefix + "." + key;
+    ArrayCache cache = this.arrayCache;
+    if (cache.version == version) {
+      final Object cached = cache.arrays.get(finalKey);
+      if (type.isInstance(cached)) {
+        return copier.apply(type.cast(cached));
+      }
+    }
+
+    final A array = converter.apply(data.get(KeyPath.of(finalKey)));
+    if (cache.version < version) {
+      // Drops the arrays of older versions at once
+      cache = new ArrayCache(version);
+      this.arrayCache = cache;
+    }
+    if (cache.version == version) {
+      cache.arrays.put(finalKey, array);
+    }
+    return copier.apply(array);
+  }
+
+  // Reports the sizes of our file before and after compression, if it is compressed
+  private void reportCompression(final MetricsProvider metrics, final boolean write) {
+    if (write && this.compressionSettings != CompressionSettings.GZIP) {
+      return;
+    }
+    final long rawBytes;
+    try {
+      rawBytes = CompressionUtils.decompressedSize(this.file);
+    } catch (final IOException ex) {
+      return;
+    }
+    if (rawBytes < 0) {
+      return;
+    }
+    if (write) {
+      metrics.onCompressedWrite(this, rawBytes, this.file.length());
+    } else {
+      metrics.onCompressedRead(this, rawBytes, this.file.length());
+    }
+  }
+
+  // Null while no MetricsProvider is set, so nothing is measured in vain
+  @Nullable
+  private static MetricsProvider metrics() {
+    final MetricsProvider metrics = SimplixProviders.metricsProvider();
+    return metrics == MetricsProvider.NONE ? null : metrics;
+  }
+
   // Should the file be re-read before the next get() operation?
   // Can be used as utility method for implementations of FlatFile
   protected boolean shouldReload() {
@@ -336,11 +944,51 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
         return true;
       case INTELLIGENT:
         return FileUtils.hasChanged(this.file, this.lastLoaded);
+      case WATCHED:
+        if (!this.fileChanged) {
+          return false;
+        }
+        // Reset before comparing, so an event arriving meanwhile isn't lost
+        this.fileChanged = false;
+        return this.file.lastModified() != this.knownModified
+               || this.file.length() != this.knownLength;
       default:
         return false;
     }
   }
 
+  private synchronized void startWatching() {
+    if (this.watching) {
+      return;
+    }
+
+    this.watching = FileWatcher.watch(this);
+    if (!this.watching) {
+      // The file system doesn't support watching this file.
+      this.reloadSettings = ReloadSettings.INTELLIGENT;
+    }
+  }
+
+  /**
+   * Called by the {@link FileWatcher} for every event concerning our file. Our own reads and
+   * writes are filtered out in {@link #shouldReload()}, by comparing modification date and size
+   * with the ones they left, as their events might arrive at any time.
+   */
+  final void onFileChanged() {
+    this.fileChanged = true;
+  }
+
+  /**
+   * Called by the {@link FileWatcher} once it stopped watching our directory, for example because
+   * it was deleted. Watching starts again with the next reload, which we trigger to be safe. Not
+   * synchronized, as the FileWatcher holds its own monitor.
+   */
+  final void onWatchCancelled() {
+    this.watching = false;
+    this.knownLength = -1;
+    this.fileChanged = true;
+  }
+
   // ----------------------------------------------------------------------------------------------------
   // Misc
   // ----------------------------------------------------------------------------------------------------
@@ -381,4 +1029,16 @@ public abstract class FlatFile implements DataStorage, Comparable<FlatFile> {
       throw SimplixProviders.exceptionHandler().create(e.getCause(), "Unable to set the value of fields in " + clazz.getName());
     }
   }
+
+  private static final class ArrayCache {
+
+    private static final ArrayCache EMPTY = new ArrayCache(-1);
+
+    private final long version;
+    private final Map<String, Object> arrays = new ConcurrentHashMap<>();
+
+    private ArrayCache(final long version) {
+      this.version = version;
+    }
+  }
 }
@@ -0,0 +1,332 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.util.Valid;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the most recently used FlatFiles of a large set of files, like per-player files, loaded.
+ *
+ * <p>Files are keyed by their absolute path and loaded on their first access. Once the total
+ * weight of the loaded files exceeds the maximum, the least recently used ones are evicted:
+ * Their pending write-behind changes are flushed and they are loaded again on their next access.
+ * The file just accessed is never evicted, so a file heavier than the maximum stays loaded until
+ * another file is accessed.
+ * Files in use can be pinned with {@link #acquire(File)} so they aren't evicted until they are
+ * released.
+ *
+ * <p>All methods are thread safe. Loading, flushing and weighing happens without holding the lock
+ * of the registry, so a slow file doesn't block the access to others. Concurrent accesses of a file
+ * which isn't loaded wait for a single load, and a file is never read while its evicted FlatFile is
+ * still being written.
+ *
+ * <p>Evicted FlatFiles refuse further changes with a
+ * {@link de.leonhard.storage.internal.exceptions.SimplixValidationException}, as they would
+ * diverge from the FlatFile loaded for the same file later. Get files from the registry whenever
+ * they are needed instead of keeping them, or pin them while they are used.
+ *
+ * @param <T> Type of the FlatFiles
+ */
+public final class FlatFileRegistry<T extends FlatFile> implements AutoCloseable {
+
+  private final Map<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75F, true);
+  // Removed entries, until their pending changes are written
+  private final Map<String, Entry<T>> flushing = new HashMap<>();
+  private final Function<File, ? extends T> loader;
+  private final ToLongFunction<? super T> weigher;
+  private final long maxWeight;
+  private long weight;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Creates a registry keeping up to maxSize files loaded.
+   *
+   * @param loader Creates the FlatFile of a file, for example {@code Json::new}.
+   */
+  public FlatFileRegistry(@NonNull final Function<File, ? extends T> loader, final int maxSize) {
+    this(loader, maxSize, flatFile -> 1);
+  }
+
+  /**
+   * Creates a registry keeping files loaded until their total weight exceeds maxWeight.
+   *
+   * @param weigher Weight of a file, for example its size in bytes. Determined when a file is
+   *                loaded or released.
+   */
+  public FlatFileRegistry(
+      @NonNull final Function<File, ? extends T> loader,
+      final long maxWeight,
+      @NonNull final ToLongFunction<? super T> weigher) {
+    Valid.checkBoolean(maxWeight > 0, "Max weight must be positive");
+    this.loader = loader;
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  /**
+   * @return The FlatFile of the given file, loading it if it isn't loaded.
+   */
+  public T get(@NonNull final File file) {
+    return get(file, false);
+  }
+
+  /**
+   * Like {@link #get(File)}, but pins the file until {@link #release(File)} was called as often as
+   * this method.
+   */
+  public T acquire(@NonNull final File file) {
+    return get(file, true);
+  }
+
+  public void release(@NonNull final File file) {
+    final Entry<T> entry;
+    synchronized (this) {
+      entry = this.entries.get(key(file));
+      Valid.checkBoolean(entry != null && entry.pins > 0, "File '" + file + "' isn't acquired");
+      entry.pins--;
+    }
+
+    // Data might have changed while it was in use
+    final long newWeight = this.weigher.applyAsLong(entry.flatFile);
+    synchronized (this) {
+      if (this.entries.get(entry.key) == entry) {
+        this.weight += newWeight - entry.weight;
+        entry.weight = newWeight;
+      }
+    }
+    evictIfNeeded(null);
+  }
+
+  public synchronized boolean isLoaded(@NonNull final File file) {
+    return this.entries.containsKey(key(file));
+  }
+
+  /**
+   * Flushes and removes the file, even if it is pinned.
+   */
+  public void invalidate(@NonNull final File file) {
+    final Entry<T> entry;
+    synchronized (this) {
+      entry = this.entries.remove(key(file));
+      if (entry == null) {
+        return;
+      }
+      this.weight -= entry.weight;
+      this.flushing.put(entry.key, entry);
+    }
+    retire(entry);
+  }
+
+  /**
+   * Writes the pending changes of all loaded files.
+   */
+  public void flushAll() {
+    for (final Entry<T> entry : loadedEntries()) {
+      entry.flatFile.flush();
+    }
+  }
+
+  /**
+   * Flushes and removes all files.
+   */
+  @Override
+  public void close() {
+    final List<Entry<T>> removed = loadedEntries();
+    synchronized (this) {
+      for (final Entry<T> entry : removed) {
+        if (this.entries.remove(entry.key, entry)) {
+          this.weight -= entry.weight;
+          this.flushing.put(entry.key, entry);
+        }
+      }
+    }
+    for (final Entry<T> entry : removed) {
+      retire(entry);
+    }
+  }
+
+  public synchronized Stats getStats() {
+    return new Stats(this.hits, this.misses, this.evictions, this.entries.size(), this.weight);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Internal
+  // ----------------------------------------------------------------------------------------------------
+
+  private T get(final File file, final boolean pin) {
+    final String key = key(file);
+    Entry<T> entry;
+    final boolean loading;
+    final Entry<T> previous;
+    synchronized (this) {
+      entry = this.entries.get(key);
+      loading = entry == null;
+      if (loading) {
+        this.misses++;
+        entry = new Entry<>(key);
+        this.entries.put(key, entry);
+        previous = this.flushing.get(key);
+      } else {
+        this.hits++;
+        previous = null;
+      }
+      if (pin) {
+        entry.pins++;
+      }
+    }
+    final T flatFile = loading ? load(entry, previous) : await(entry);
+    evictIfNeeded(entry);
+    return flatFile;
+  }
+
+  private T load(final Entry<T> entry, @Nullable final Entry<T> previous) {
+    try {
+      if (previous != null) {
+        previous.flushed.join();
+      }
+      final T flatFile = this.loader.apply(new File(entry.key));
+      final long flatFileWeight = this.weigher.applyAsLong(flatFile);
+      synchronized (this) {
+        entry.flatFile = flatFile;
+        if (this.entries.get(entry.key) == entry) {
+          entry.weight = flatFileWeight;
+          this.weight += flatFileWeight;
+        }
+      }
+      entry.loaded.complete(flatFile);
+      return flatFile;
+    } catch (final RuntimeException | Error ex) {
+      synchronized (this) {
+        this.entries.remove(entry.key, entry);
+      }
+      entry.loaded.completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  // Waits until the entry was loaded by another thread
+  private static <T extends FlatFile> T await(final Entry<T> entry) {
+    try {
+      return entry.loaded.join();
+    } catch (final CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  // Evicts the least recently used files, which are loaded and aren't pinned, until we are below
+  // our max weight. The accessed entry is kept even if that leaves us above it, as its FlatFile is
+  // about to be returned.
+  private void evictIfNeeded(@Nullable final Entry<T> accessed) {
+    final List<Entry<T>> evicted = new ArrayList<>();
+    synchronized (this) {
+      final Iterator<Entry<T>> iterator = this.entries.values().iterator();
+      while (this.weight > this.maxWeight && iterator.hasNext()) {
+        final Entry<T> entry = iterator.next();
+        if (entry == accessed || entry.pins > 0 || entry.flatFile == null) {
+          continue;
+        }
+        iterator.remove();
+        this.weight -= entry.weight;
+        this.evictions++;
+        this.flushing.put(entry.key, entry);
+        evicted.add(entry);
+      }
+    }
+
+    for (final Entry<T> entry : evicted) {
+      retire(entry);
+    }
+  }
+
+  private void retire(final Entry<T> entry) {
+    try {
+      final T flatFile;
+      try {
+        flatFile = await(entry);
+      } catch (final RuntimeException ex) {
+        // Failed to load, so there is nothing to write
+        return;
+      }
+      flatFile.retire();
+    } finally {
+      synchronized (this) {
+        this.flushing.remove(entry.key, entry);
+      }
+      entry.flushed.complete(null);
+    }
+  }
+
+  private synchronized List<Entry<T>> loadedEntries() {
+    final List<Entry<T>> loaded = new ArrayList<>(this.entries.size());
+    for (final Entry<T> entry : this.entries.values()) {
+      if (entry.flatFile != null) {
+        loaded.add(entry);
+      }
+    }
+    return loaded;
+  }
+
+  private static String key(final File file) {
+    return file.getAbsoluteFile().toPath().normalize().toString();
+  }
+
+  private static final class Entry<T extends FlatFile> {
+
+    private final String key;
+    private final CompletableFuture<T> loaded = new CompletableFuture<>();
+    // Completed once the FlatFile was written after the entry was removed
+    private final CompletableFuture<Void> flushed = new CompletableFuture<>();
+    // Null until loaded
+    private T flatFile;
+    private long weight;
+    private int pins;
+
+    private Entry(final String key) {
+      this.key = key;
+    }
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Statistics
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Snapshot of the statistics of a FlatFileRegistry.
+   */
+  @Getter
+  @ToString
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  public static final class Stats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+    private final long weight;
+
+    public double getHitRate() {
+      final long requests = this.hitCount + this.missCount;
+      return requests == 0 ? 1 : (double) this.hitCount / requests;
+    }
+  }
+}
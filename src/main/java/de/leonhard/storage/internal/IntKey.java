@@ -0,0 +1,55 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.util.ClassWrapper;
+import lombok.NonNull;
+
+/**
+ * {@link TypedKey} for int values. Numbers are converted like
+ * {@link DataStorage#getInt(String)}.
+ */
+public final class IntKey extends TypedKey {
+
+  private final int def;
+  // Replaced as a whole, so a value is never read together with the version of another one
+  private volatile Memo memo;
+
+  private IntKey(final FlatFile flatFile, final String key, final int def) {
+    super(flatFile, key);
+    this.def = def;
+  }
+
+  /**
+   * @param def Value returned while the key doesn't exist
+   */
+  public static IntKey of(
+      @NonNull final FlatFile flatFile,
+      @NonNull final String key,
+      final int def) {
+    return new IntKey(flatFile, key, def);
+  }
+
+  public int get() {
+    final FileData data = data();
+    final long version = data.getVersion();
+    final Memo memo = this.memo;
+    if (memo != null && memo.version == version) {
+      return memo.value;
+    }
+
+    final Object raw = data.get(this.key);
+    final int value = raw == null ? this.def : ClassWrapper.INTEGER.getInt(raw);
+    this.memo = new Memo(version, value);
+    return value;
+  }
+
+  private static final class Memo {
+
+    private final long version;
+    private final int value;
+
+    private Memo(final long version, final int value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.util.Valid;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.NonNull;
+
+/**
+ * Immutable, pre-split representation of a key like "section.subsection.key".
+ *
+ * <p>Instances obtained by {@link #of(String)} are interned in a bounded cache, so repeated
+ * lookups of the same key neither split the String again nor allocate a new array. Once the cache
+ * is full, keys which weren't used again since the last eviction are evicted, so keys only used
+ * once, like per-player keys, don't push out frequently used ones.
+ */
+public final class KeyPath {
+
+  /**
+   * Upper bound of interned paths.
+   */
+  private static final int CACHE_LIMIT = 8192;
+  /**
+   * Evicting stops once the cache is this small, so every eviction makes room for many keys.
+   */
+  private static final int EVICTION_TARGET = CACHE_LIMIT / 4 * 3;
+  private static final Map<String, KeyPath> CACHE = new ConcurrentHashMap<>();
+
+  private final String path;
+  private final String[] parts;
+  // Set when returned from the cache, cleared by evictions. Keys not used in between are evicted.
+  private volatile boolean used;
+
+  private KeyPath(final String path, final String[] parts) {
+    this.path = path;
+    this.parts = parts;
+  }
+
+  /**
+   * Returns the interned KeyPath for the given key.
+   *
+   * @param path Key in the usual dotted notation
+   * @return Cached or newly created KeyPath
+   */
+  public static KeyPath of(@NonNull final String path) {
+    final KeyPath cached = CACHE.get(path);
+    if (cached != null) {
+      // Only written when needed, so hot keys aren't written to on every lookup
+      if (!cached.used) {
+        cached.used = true;
+      }
+      return cached;
+    }
+
+    final KeyPath keyPath = new KeyPath(path, path.split("\\."));
+    if (CACHE.size() >= CACHE_LIMIT) {
+      evictUnused();
+    }
+
+    final KeyPath previous = CACHE.putIfAbsent(path, keyPath);
+    return previous == null ? keyPath : previous;
+  }
+
+  /**
+   * Creates a path of the given segments, which are used as they are even if they contain dots,
+   * like keys read from a file.
+   *
+   * @param segments Segments of the path
+   * @return Newly created KeyPath. Isn't interned.
+   */
+  public static KeyPath ofSegments(@NonNull final String... segments) {
+    Valid.checkBoolean(segments.length > 0, "A key needs at least one segment");
+    return new KeyPath(String.join(".", segments), segments.clone());
+  }
+
+  /**
+   * Evicts the keys which weren't used since the last eviction and marks the remaining ones as
+   * unused. If that doesn't free enough space, further keys are evicted in no particular order.
+   */
+  private static synchronized void evictUnused() {
+    if (CACHE.size() < CACHE_LIMIT) {
+      return;
+    }
+
+    final Iterator<KeyPath> iterator = CACHE.values().iterator();
+    while (iterator.hasNext()) {
+      final KeyPath keyPath = iterator.next();
+      if (keyPath.used) {
+        keyPath.used = false;
+      } else {
+        iterator.remove();
+      }
+    }
+
+    final Iterator<KeyPath> remaining = CACHE.values().iterator();
+    while (CACHE.size() > EVICTION_TARGET && remaining.hasNext()) {
+      remaining.next();
+      remaining.remove();
+    }
+  }
+
+  /**
+   * Creates a path pointing to the given child of this path.
+   *
+   * @param child Path relative to this one
+   * @return Combined path. Isn't interned.
+   */
+  public KeyPath resolve(@NonNull final KeyPath child) {
+    final String[] combined = Arrays.copyOf(this.parts, this.parts.length + child.parts.length);
+    System.arraycopy(child.parts, 0, combined, this.parts.length, child.parts.length);
+    return new KeyPath(this.path + "." + child.path, combined);
+  }
+
+  /**
+   * @return Number of segments of this path.
+   */
+  public int length() {
+    return this.parts.length;
+  }
+
+  /**
+   * @param index Index of the segment
+   * @return Segment at the given index
+   */
+  public String segment(final int index) {
+    return this.parts[index];
+  }
+
+  /**
+   * Direct access to the segments for {@link FileData}. Mustn't be modified.
+   */
+  String[] parts() {
+    return this.parts;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Overridden methods form Object
+  // ----------------------------------------------------------------------------------------------------
+
+  @Override
+  public int hashCode() {
+    return this.path.hashCode();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (obj == this) {
+      return true;
+    } else if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    } else {
+      final KeyPath other = (KeyPath) obj;
+      // Paths created from segments with dots differ from the dotted path
+      return this.path.equals(other.path) && Arrays.equals(this.parts, other.parts);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.path;
+  }
+}
@@ -0,0 +1,55 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.util.ClassWrapper;
+import lombok.NonNull;
+
+/**
+ * {@link TypedKey} for long values. Numbers are converted like
+ * {@link DataStorage#getLong(String)}.
+ */
+public final class LongKey extends TypedKey {
+
+  private final long def;
+  // Replaced as a whole, so a value is never read together with the version of another one
+  private volatile Memo memo;
+
+  private LongKey(final FlatFile flatFile, final String key, final long def) {
+    super(flatFile, key);
+    this.def = def;
+  }
+
+  /**
+   * @param def Value returned while the key doesn't exist
+   */
+  public static LongKey of(
+      @NonNull final FlatFile flatFile,
+      @NonNull final String key,
+      final long def) {
+    return new LongKey(flatFile, key, def);
+  }
+
+  public long get() {
+    final FileData data = data();
+    final long version = data.getVersion();
+    final Memo memo = this.memo;
+    if (memo != null && memo.version == version) {
+      return memo.value;
+    }
+
+    final Object raw = data.get(this.key);
+    final long value = raw == null ? this.def : ClassWrapper.LONG.getLong(raw);
+    this.memo = new Memo(version, value);
+    return value;
+  }
+
+  private static final class Memo {
+
+    private final long version;
+    private final long value;
+
+    private Memo(final long version, final long value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+}
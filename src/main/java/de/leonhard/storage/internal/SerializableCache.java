@@ -0,0 +1,106 @@
+package de.leonhard.storage.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Objects deserialized by {@link FlatFile#getSerializable(String, Class)}, by absolute key and
+ * class.
+ *
+ * <p>Entries belong to the {@link FileData} version they were read from. Committed changes only
+ * remove the entries of keys they touch. Any other change of the version, like a reload or a
+ * direct change of the FileData, discards all entries. Versions only ever grow, which lets us
+ * tell outdated readers from changes we didn't see.
+ *
+ * <p>Entries are nested by the segments of their keys like the data itself, so a change only
+ * visits the entries on its path and drops the subtree below it.
+ */
+final class SerializableCache {
+
+  private final Node root = new Node();
+  private volatile long version = -1;
+
+  @Nullable
+  Object get(final long dataVersion, final KeyPath key, final Class<?> type) {
+    if (dataVersion != this.version) {
+      return null;
+    }
+    Node node = this.root;
+    for (final String part : key.parts()) {
+      node = node.children.get(part);
+      if (node == null) {
+        return null;
+      }
+    }
+    return node.values.get(type);
+  }
+
+  synchronized void put(
+      final long dataVersion,
+      final KeyPath key,
+      final Class<?> type,
+      final Object value) {
+    if (dataVersion < this.version) {
+      // Read before a change we already saw
+      return;
+    }
+    if (dataVersion > this.version) {
+      this.root.children.clear();
+      this.version = dataVersion;
+    }
+    Node node = this.root;
+    for (final String part : key.parts()) {
+      node = node.children.computeIfAbsent(part, ignored -> new Node());
+    }
+    node.values.put(type, value);
+  }
+
+  /**
+   * Removes the entries touched by the changes, which changed the version of our FileData from
+   * versionBefore to versionAfter.
+   */
+  synchronized void invalidate(
+      final long versionBefore,
+      final long versionAfter,
+      final List<Transaction.Change> changes) {
+    if (this.version != versionBefore) {
+      this.root.children.clear();
+    } else {
+      for (final Transaction.Change change : changes) {
+        if (change.getType() == Transaction.Change.Type.CLEAR) {
+          this.root.children.clear();
+          break;
+        }
+        invalidate(change.getKey());
+      }
+    }
+    this.version = versionAfter;
+  }
+
+  synchronized void clear() {
+    this.root.children.clear();
+    this.version = -1;
+  }
+
+  // The key itself, its sections and everything inside of it
+  private void invalidate(final KeyPath changedKey) {
+    final String[] parts = changedKey.parts();
+    Node node = this.root;
+    for (int i = 0; i < parts.length - 1; i++) {
+      node = node.children.get(parts[i]);
+      if (node == null) {
+        return;
+      }
+      node.values.clear();
+    }
+    node.children.remove(parts[parts.length - 1]);
+  }
+
+  private static final class Node {
+
+    private final Map<Class<?>, Object> values = new ConcurrentHashMap<>();
+    private final Map<String, Node> children = new ConcurrentHashMap<>();
+  }
+}
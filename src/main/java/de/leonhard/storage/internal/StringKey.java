@@ -0,0 +1,53 @@
+package de.leonhard.storage.internal;
+
+import lombok.NonNull;
+
+/**
+ * {@link TypedKey} for String values. Other values, like numbers, are converted using toString().
+ */
+public final class StringKey extends TypedKey {
+
+  private final String def;
+  // Replaced as a whole, so a value is never read together with the version of another one
+  private volatile Memo memo;
+
+  private StringKey(final FlatFile flatFile, final String key, final String def) {
+    super(flatFile, key);
+    this.def = def;
+  }
+
+  /**
+   * @param def Value returned while the key doesn't exist
+   */
+  public static StringKey of(
+      @NonNull final FlatFile flatFile,
+      @NonNull final String key,
+      @NonNull final String def) {
+    return new StringKey(flatFile, key, def);
+  }
+
+  public String get() {
+    final FileData data = data();
+    final long version = data.getVersion();
+    final Memo memo = this.memo;
+    if (memo != null && memo.version == version) {
+      return memo.value;
+    }
+
+    final Object raw = data.get(this.key);
+    final String value = raw == null ? this.def : raw.toString();
+    this.memo = new Memo(version, value);
+    return value;
+  }
+
+  private static final class Memo {
+
+    private final long version;
+    private final String value;
+
+    private Memo(final long version, final String value) {
+      this.version = version;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package de.leonhard.storage.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects changes to a {@link FlatFile}, which are applied and written all at once when the
+ * transaction is committed. See {@link FlatFile#batch(Consumer)}.
+ *
+ * <p>Keys are resolved like in the corresponding methods of FlatFile: {@link #set(String,
+ * Object)} applies the pathPrefix of the FlatFile, {@link #remove(String)} doesn't. Reads
+ * through the FlatFile don't see the changes before the transaction was committed.
+ */
+public final class Transaction {
+
+  @Nullable
+  private final KeyPath pathPrefix;
+  private final List<Change> changes = new ArrayList<>();
+
+  Transaction(@Nullable final KeyPath pathPrefix) {
+    this.pathPrefix = pathPrefix;
+  }
+
+  public Transaction set(@NonNull final String key, final Object value) {
+    return set(KeyPath.of(key), value);
+  }
+
+  public Transaction set(@NonNull final KeyPath key, final Object value) {
+    final KeyPath finalKey = this.pathPrefix == null ? key : this.pathPrefix.resolve(key);
+    this.changes.add(Change.set(finalKey, value));
+    return this;
+  }
+
+  public Transaction remove(@NonNull final String key) {
+    return remove(KeyPath.of(key));
+  }
+
+  public Transaction remove(@NonNull final KeyPath key) {
+    this.changes.add(Change.remove(key));
+    return this;
+  }
+
+  public Transaction putAll(@NonNull final Map<String, Object> map) {
+    for (final Map.Entry<String, Object> entry : map.entrySet()) {
+      set(entry.getKey(), entry.getValue());
+    }
+    return this;
+  }
+
+  public Transaction clear() {
+    this.changes.add(Change.clear());
+    return this;
+  }
+
+  /**
+   * @return The changes collected so far.
+   */
+  public List<Change> getChanges() {
+    return Collections.unmodifiableList(this.changes);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Single changes
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * A single change to the data of a FlatFile. Keys are absolute.
+   */
+  @Getter
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  public static final class Change {
+
+    private final Type type;
+    @Nullable
+    private final KeyPath key;
+    @Nullable
+    private final Object value;
+
+    public static Change set(@NonNull final KeyPath key, final Object value) {
+      return new Change(Type.SET, key, value);
+    }
+
+    public static Change remove(@NonNull final KeyPath key) {
+      return new Change(Type.REMOVE, key, null);
+    }
+
+    public static Change clear() {
+      return new Change(Type.CLEAR, null, null);
+    }
+
+    void applyTo(final FileData fileData) {
+      switch (this.type) {
+        case SET:
+          fileData.insert(this.key, this.value);
+          break;
+        case REMOVE:
+          fileData.remove(this.key);
+          break;
+        default:
+          fileData.clear();
+          break;
+      }
+    }
+
+    public enum Type {
+      SET,
+      REMOVE,
+      CLEAR
+    }
+  }
+}
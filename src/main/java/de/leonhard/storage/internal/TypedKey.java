@@ -0,0 +1,45 @@
+package de.leonhard.storage.internal;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Key bound to a FlatFile and a type, for values read very often. The key is split and resolved
+ * against the path prefix of the FlatFile once, when the TypedKey is created.
+ *
+ * <p>The converted value is kept until the version of the {@link FileData} changes, so reading an
+ * unchanged value only compares the version and returns it. Reloading still happens according to
+ * the reload settings of the FlatFile.
+ *
+ * @see IntKey
+ * @see LongKey
+ * @see DoubleKey
+ * @see BoolKey
+ * @see StringKey
+ */
+@Getter
+public abstract class TypedKey {
+
+  protected final FlatFile flatFile;
+  protected final KeyPath key;
+
+  protected TypedKey(@NonNull final FlatFile flatFile, @NonNull final String key) {
+    this.flatFile = flatFile;
+    this.key = flatFile.getPathPrefix() == null
+               ? KeyPath.of(key)
+               : KeyPath.of(flatFile.getPathPrefix()).resolve(KeyPath.of(key));
+  }
+
+  /**
+   * @return Data of our FlatFile, reloaded if needed. Its version has to be read before reading a
+   * value from it, so a value is never stored with a newer version than it belongs to.
+   */
+  protected final FileData data() {
+    return this.flatFile.readFileData();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(" + this.key + ")";
+  }
+}
@@ -0,0 +1,62 @@
+package de.leonhard.storage.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Shared background scheduler for deferred writes of {@link FlatFile}s.
+ *
+ * <p>Keeps track of every FlatFile with pending changes, so they can be flushed when the JVM
+ * shuts down.
+ */
+@UtilityClass
+class WriteScheduler {
+
+  private final Set<FlatFile> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+  private ScheduledExecutorService executor;
+
+  synchronized ScheduledFuture<?> schedule(@NonNull final Runnable task, final long delayMillis) {
+    if (executor == null) {
+      final ScheduledThreadPoolExecutor threadPool = new ScheduledThreadPoolExecutor(
+          1,
+          runnable -> {
+            final Thread thread = new Thread(runnable, "SimplixStorage-Writer");
+            thread.setDaemon(true);
+            return thread;
+          });
+      threadPool.setRemoveOnCancelPolicy(true);
+      executor = threadPool;
+      Runtime.getRuntime().addShutdownHook(
+          new Thread(WriteScheduler::flushPending, "SimplixStorage-Shutdown"));
+    }
+    return executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  synchronized void markPending(@NonNull final FlatFile flatFile) {
+    pending.add(flatFile);
+  }
+
+  synchronized void unmarkPending(@NonNull final FlatFile flatFile) {
+    pending.remove(flatFile);
+  }
+
+  private void flushPending() {
+    final List<FlatFile> toFlush;
+    synchronized (WriteScheduler.class) {
+      toFlush = new ArrayList<>(pending);
+    }
+
+    for (final FlatFile flatFile : toFlush) {
+      flatFile.flush();
+    }
+  }
+}
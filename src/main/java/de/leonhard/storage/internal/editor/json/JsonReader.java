@@ -0,0 +1,368 @@
+package de.leonhard.storage.internal.editor.json;
+
+import de.leonhard.storage.internal.exceptions.JsonException;
+import de.leonhard.storage.internal.settings.DataType;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Streaming JSON reader, building the maps of a FileData directly while tokenizing.
+ *
+ * <p>Objects are created using {@link DataType#getMapImplementation()}, arrays as ArrayLists.
+ * Values are converted like org.json does, so the result equals {@code new
+ * JSONObject(tokener).toMap()}: integers become Integer, Long or BigInteger, decimals BigDecimal,
+ * and null becomes null. Like org.json, single quoted strings and unquoted keys and values are
+ * accepted as well.
+ */
+public final class JsonReader {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private final DataType dataType;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private final StringBuilder builder = new StringBuilder();
+  private int position;
+  private int limit;
+  private int line = 1;
+
+  public JsonReader(@NonNull final Reader reader, @NonNull final DataType dataType) {
+    this.reader = reader;
+    this.dataType = dataType;
+  }
+
+  /**
+   * Reads the JSON object the reader contains.
+   *
+   * @throws JsonException if the data is not a valid JSON object.
+   */
+  public Map<String, Object> readToMap() throws IOException {
+    if (nextClean() != '{') {
+      throw syntaxError("A JSON object must begin with '{'");
+    }
+    final Map<String, Object> result = readObject();
+    if (nextClean() != -1) {
+      throw syntaxError("Unexpected data after the end of the JSON object");
+    }
+    return result;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Values
+  // ----------------------------------------------------------------------------------------------------
+
+  private Object readValue(final int first) throws IOException {
+    switch (first) {
+      case '{':
+        return readObject();
+      case '[':
+        return readArray();
+      case '"':
+      case '\'':
+        return readString((char) first);
+      case -1:
+        throw syntaxError("Unexpected end of data");
+      default:
+        return readUnquoted(first);
+    }
+  }
+
+  // The opening brace was already consumed
+  private Map<String, Object> readObject() throws IOException {
+    final Map<String, Object> map = this.dataType.getMapImplementation();
+    int next = nextClean();
+    if (next == '}') {
+      return map;
+    }
+
+    while (true) {
+      final String key;
+      if (next == '"' || next == '\'') {
+        key = readString((char) next);
+      } else if (next == '{' || next == '[' || next == -1) {
+        throw syntaxError("Expected a key");
+      } else {
+        key = String.valueOf(readUnquoted(next));
+      }
+
+      if (nextClean() != ':') {
+        throw syntaxError("Expected a ':' after key '" + key + "'");
+      }
+      if (map.containsKey(key)) {
+        throw syntaxError("Duplicate key '" + key + "'");
+      }
+      map.put(key, readValue(nextClean()));
+
+      next = nextClean();
+      if (next == '}') {
+        return map;
+      }
+      if (next != ',' && next != ';') {
+        throw syntaxError("Expected a ',' or '}'");
+      }
+      next = nextClean();
+      // Trailing commas are accepted like in org.json
+      if (next == '}') {
+        return map;
+      }
+    }
+  }
+
+  // The opening bracket was already consumed
+  private List<Object> readArray() throws IOException {
+    final List<Object> list = new ArrayList<>();
+    int next = nextClean();
+    if (next == ']') {
+      return list;
+    }
+
+    while (true) {
+      list.add(readValue(next));
+
+      next = nextClean();
+      if (next == ']') {
+        return list;
+      }
+      if (next != ',') {
+        throw syntaxError("Expected a ',' or ']'");
+      }
+      next = nextClean();
+      if (next == ']') {
+        return list;
+      }
+    }
+  }
+
+  // The opening quote was already consumed
+  private String readString(final char quote) throws IOException {
+    this.builder.setLength(0);
+    while (true) {
+      // Copy unescaped runs straight from the buffer
+      int start = this.position;
+      while (this.position < this.limit) {
+        final char c = this.buffer[this.position];
+        if (c == quote || c == '\\' || c == '\n' || c == '\r') {
+          break;
+        }
+        this.position++;
+      }
+      this.builder.append(this.buffer, start, this.position - start);
+
+      final int c = read();
+      if (c == quote) {
+        return this.builder.toString();
+      }
+      switch (c) {
+        case -1:
+        case '\n':
+        case '\r':
+          throw syntaxError("Unterminated string");
+        case '\\':
+          readEscape();
+          break;
+        default:
+          // Buffer was empty
+          this.builder.append((char) c);
+          break;
+      }
+    }
+  }
+
+  private void readEscape() throws IOException {
+    final int c = read();
+    switch (c) {
+      case 'b':
+        this.builder.append('\b');
+        break;
+      case 't':
+        this.builder.append('\t');
+        break;
+      case 'n':
+        this.builder.append('\n');
+        break;
+      case 'f':
+        this.builder.append('\f');
+        break;
+      case 'r':
+        this.builder.append('\r');
+        break;
+      case 'u':
+        int code = 0;
+        for (int i = 0; i < 4; i++) {
+          final int digit = Character.digit(read(), 16);
+          if (digit == -1) {
+            throw syntaxError("Illegal escape");
+          }
+          code = (code << 4) | digit;
+        }
+        this.builder.append((char) code);
+        break;
+      case '"':
+      case '\'':
+      case '\\':
+      case '/':
+        this.builder.append((char) c);
+        break;
+      default:
+        throw syntaxError("Illegal escape");
+    }
+  }
+
+  private Object readUnquoted(final int first) throws IOException {
+    this.builder.setLength(0);
+    int c = first;
+    while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
+      this.builder.append((char) c);
+      c = read();
+    }
+    unread(c);
+
+    final String value = this.builder.toString().trim();
+    if (value.isEmpty()) {
+      throw syntaxError("Missing value");
+    }
+    return toValue(value);
+  }
+
+  private static Object toValue(final String value) {
+    if ("true".equalsIgnoreCase(value)) {
+      return Boolean.TRUE;
+    }
+    if ("false".equalsIgnoreCase(value)) {
+      return Boolean.FALSE;
+    }
+    if ("null".equalsIgnoreCase(value)) {
+      return null;
+    }
+
+    final char initial = value.charAt(0);
+    if ((initial >= '0' && initial <= '9') || initial == '-') {
+      try {
+        return toNumber(value, initial);
+      } catch (final NumberFormatException ignored) {
+        // Not a number, so it's an unquoted string
+      }
+    }
+    return value;
+  }
+
+  private static Number toNumber(final String value, final char initial) {
+    if (value.indexOf('.') > -1
+        || value.indexOf('e') > -1
+        || value.indexOf('E') > -1
+        || "-0".equals(value)) {
+      try {
+        final BigDecimal decimal = new BigDecimal(value);
+        if (initial == '-' && BigDecimal.ZERO.compareTo(decimal) == 0) {
+          return -0.0D;
+        }
+        return decimal;
+      } catch (final NumberFormatException ex) {
+        final Double number = Double.valueOf(value);
+        if (number.isNaN() || number.isInfinite()) {
+          throw new NumberFormatException("val [" + value + "] is not a valid number.");
+        }
+        return number;
+      }
+    }
+
+    final BigInteger integer = new BigInteger(value);
+    if (integer.bitLength() <= 31) {
+      return integer.intValue();
+    }
+    if (integer.bitLength() <= 63) {
+      return integer.longValue();
+    }
+    return integer;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Reading characters
+  // ----------------------------------------------------------------------------------------------------
+
+  private int read() throws IOException {
+    if (this.position == this.limit) {
+      this.limit = this.reader.read(this.buffer, 0, BUFFER_SIZE);
+      this.position = 0;
+      if (this.limit <= 0) {
+        this.limit = 0;
+        return -1;
+      }
+    }
+    final char c = this.buffer[this.position++];
+    if (c == '\n') {
+      this.line++;
+    }
+    return c;
+  }
+
+  private void unread(final int c) {
+    if (c == -1) {
+      return;
+    }
+    this.position--;
+    if (c == '\n') {
+      this.line--;
+    }
+  }
+
+  /**
+   * @return the next character which is not whitespace or part of a comment.
+   */
+  private int nextClean() throws IOException {
+    while (true) {
+      final int c = read();
+      if (c == '/') {
+        final int next = read();
+        if (next == '/') {
+          skipLine();
+          continue;
+        }
+        if (next == '*') {
+          skipBlockComment();
+          continue;
+        }
+        unread(next);
+        return c;
+      }
+      if (c == '#') {
+        skipLine();
+        continue;
+      }
+      if (c == -1 || c > ' ') {
+        return c;
+      }
+    }
+  }
+
+  private void skipLine() throws IOException {
+    int c;
+    do {
+      c = read();
+    } while (c != '\n' && c != '\r' && c != -1);
+  }
+
+  private void skipBlockComment() throws IOException {
+    int previous = 0;
+    while (true) {
+      final int c = read();
+      if (c == -1) {
+        throw syntaxError("Unclosed comment");
+      }
+      if (previous == '*' && c == '/') {
+        return;
+      }
+      previous = c;
+    }
+  }
+
+  private JsonException syntaxError(final String message) {
+    return new JsonException(message + " in line " + this.line);
+  }
+}
@@ -0,0 +1,238 @@
+package de.leonhard.storage.internal.editor.json;
+
+import de.leonhard.storage.internal.exceptions.JsonException;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import lombok.NonNull;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+/**
+ * Streaming JSON writer, serializing nested Maps, Collections, arrays and primitives directly
+ * to a Writer without building JSONObjects first.
+ *
+ * <p>The output is formatted like {@code JSONObject#toString(int)}, except that the order of
+ * the keys is preserved. Values of org.json, like {@code JSONObject.NULL} or JSONArrays, are
+ * written like org.json writes them. An indentation of 0 writes compact JSON without any
+ * whitespace.
+ */
+public final class JsonWriter {
+
+  private final Writer writer;
+  private final int indentFactor;
+
+  public JsonWriter(@NonNull final Writer writer, final int indentFactor) {
+    this.writer = writer;
+    this.indentFactor = indentFactor;
+  }
+
+  public void write(@NonNull final Map<?, ?> map) throws IOException {
+    writeMap(map, 0);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Values
+  // ----------------------------------------------------------------------------------------------------
+
+  private void writeValue(final Object value, final int indent) throws IOException {
+    if (JSONObject.NULL.equals(value)) {
+      this.writer.write("null");
+    } else if (value instanceof JSONString) {
+      writeJsonString((JSONString) value);
+    } else if (value instanceof Number) {
+      writeNumber((Number) value);
+    } else if (value instanceof Boolean) {
+      this.writer.write(value.toString());
+    } else if (value instanceof Enum) {
+      writeString(((Enum<?>) value).name());
+    } else if (value instanceof JSONObject) {
+      writeMap(((JSONObject) value).toMap(), indent);
+    } else if (value instanceof JSONArray) {
+      writeIterator(((JSONArray) value).iterator(), ((JSONArray) value).length(), indent);
+    } else if (value instanceof Map) {
+      writeMap((Map<?, ?>) value, indent);
+    } else if (value instanceof Collection) {
+      writeIterator(((Collection<?>) value).iterator(), ((Collection<?>) value).size(), indent);
+    } else if (value.getClass().isArray()) {
+      writeArray(value, indent);
+    } else {
+      writeString(value.toString());
+    }
+  }
+
+  private void writeMap(final Map<?, ?> map, final int indent) throws IOException {
+    final int size = map.size();
+    this.writer.write('{');
+    if (size == 1) {
+      // Single entries are written in one line, like org.json does
+      final Map.Entry<?, ?> entry = map.entrySet().iterator().next();
+      writeKey(entry.getKey());
+      writeValue(entry.getValue(), indent);
+    } else if (size > 1) {
+      final int newIndent = indent + this.indentFactor;
+      boolean first = true;
+      for (final Map.Entry<?, ?> entry : map.entrySet()) {
+        if (!first) {
+          this.writer.write(',');
+        }
+        first = false;
+        newLine(newIndent);
+        writeKey(entry.getKey());
+        writeValue(entry.getValue(), newIndent);
+      }
+      newLine(indent);
+    }
+    this.writer.write('}');
+  }
+
+  private void writeKey(final Object key) throws IOException {
+    writeString(String.valueOf(key));
+    this.writer.write(':');
+    if (this.indentFactor > 0) {
+      this.writer.write(' ');
+    }
+  }
+
+  private void writeIterator(final Iterator<?> iterator, final int size, final int indent)
+      throws IOException {
+    this.writer.write('[');
+    if (size == 1) {
+      writeValue(iterator.next(), indent);
+    } else if (size > 1) {
+      final int newIndent = indent + this.indentFactor;
+      boolean first = true;
+      while (iterator.hasNext()) {
+        if (!first) {
+          this.writer.write(',');
+        }
+        first = false;
+        newLine(newIndent);
+        writeValue(iterator.next(), newIndent);
+      }
+      newLine(indent);
+    }
+    this.writer.write(']');
+  }
+
+  private void writeArray(final Object array, final int indent) throws IOException {
+    final int length = Array.getLength(array);
+    writeIterator(new Iterator<Object>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return this.index < length;
+      }
+
+      @Override
+      public Object next() {
+        return Array.get(array, this.index++);
+      }
+    }, length, indent);
+  }
+
+  private void newLine(final int indent) throws IOException {
+    if (this.indentFactor <= 0) {
+      return;
+    }
+    this.writer.write('\n');
+    for (int i = 0; i < indent; i++) {
+      this.writer.write(' ');
+    }
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Primitives
+  // ----------------------------------------------------------------------------------------------------
+
+  private void writeNumber(final Number number) throws IOException {
+    if ((number instanceof Double && !Double.isFinite(number.doubleValue()))
+        || (number instanceof Float && !Float.isFinite(number.floatValue()))) {
+      throw new JsonException("JSON does not allow non-finite numbers: '" + number + "'");
+    }
+
+    final String string = number.toString();
+    if (string.indexOf('.') > 0 && string.indexOf('e') < 0 && string.indexOf('E') < 0) {
+      // Shorten 1.50 to 1.5 and 2.0 to 2, like org.json does
+      int end = string.length();
+      while (string.charAt(end - 1) == '0') {
+        end--;
+      }
+      if (string.charAt(end - 1) == '.') {
+        end--;
+      }
+      this.writer.write(string, 0, end);
+    } else {
+      this.writer.write(string);
+    }
+  }
+
+  private void writeJsonString(final JSONString value) throws IOException {
+    final String json;
+    try {
+      json = value.toJSONString();
+    } catch (final RuntimeException ex) {
+      throw new JsonException(ex, "Can't write '" + value.getClass().getSimpleName() + "'");
+    }
+    if (json == null) {
+      writeString(value.toString());
+    } else {
+      this.writer.write(json);
+    }
+  }
+
+  private void writeString(final String string) throws IOException {
+    this.writer.write('"');
+    final int length = string.length();
+    int start = 0;
+    char previous = 0;
+    for (int i = 0; i < length; i++) {
+      final char c = string.charAt(i);
+      final String escaped = escape(c, previous);
+      previous = c;
+      if (escaped == null) {
+        continue;
+      }
+      this.writer.write(string, start, i - start);
+      this.writer.write(escaped);
+      start = i + 1;
+    }
+    this.writer.write(string, start, length - start);
+    this.writer.write('"');
+  }
+
+  /**
+   * @return The escape sequence for the character or null if it doesn't need to be escaped.
+   */
+  private static String escape(final char c, final char previous) {
+    switch (c) {
+      case '\\':
+        return "\\\\";
+      case '"':
+        return "\\\"";
+      case '/':
+        return previous == '<' ? "\\/" : null;
+      case '\b':
+        return "\\b";
+      case '\t':
+        return "\\t";
+      case '\n':
+        return "\\n";
+      case '\f':
+        return "\\f";
+      case '\r':
+        return "\\r";
+      default:
+        if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+          final String hex = Integer.toHexString(c);
+          return "\\u" + "0000".substring(hex.length()) + hex;
+        }
+        return null;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package de.leonhard.storage.internal.editor.sdb;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Constants of the binary sdb format.
+ *
+ * <p>A file starts with {@link #MAGIC}, followed by the entries of the root map. Maps and lists
+ * are stored as their size followed by their entries. Every value starts with one of the type
+ * tags below. Sizes, lengths and integers are varints, integers zigzag-encoded. Strings are stored
+ * as their UTF-8 length followed by their UTF-8 bytes.
+ *
+ * <p>Keys are stored as varints: 0 followed by the key as String when a key occurs for the first
+ * time, otherwise the index of its first occurrence plus one. Repeated keys like the ones of a list
+ * of similar sections are therefore stored only once.
+ */
+@UtilityClass
+class SdbFormat {
+
+  final byte[] MAGIC = {'S', 'D', 'B', 1};
+
+  final byte NULL = 0;
+  final byte FALSE = 1;
+  final byte TRUE = 2;
+  final byte INT = 3;
+  final byte LONG = 4;
+  final byte FLOAT = 5;
+  final byte DOUBLE = 6;
+  final byte STRING = 7;
+  final byte MAP = 8;
+  final byte LIST = 9;
+  final byte BIG_INTEGER = 10;
+  final byte BIG_DECIMAL = 11;
+}
@@ -0,0 +1,167 @@
+package de.leonhard.storage.internal.editor.sdb;
+
+import de.leonhard.storage.internal.exceptions.SdbException;
+import de.leonhard.storage.internal.settings.DataType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Decodes data written by the {@link SdbWriter}.
+ *
+ * <p>Maps are created using {@link DataType#getMapImplementation()}, lists as ArrayLists. Numbers
+ * keep the type they were written with.
+ */
+public final class SdbReader {
+
+  private final ByteBuffer buffer;
+  private final DataType dataType;
+  private final List<String> keys = new ArrayList<>();
+
+  public SdbReader(@NonNull final ByteBuffer buffer, @NonNull final DataType dataType) {
+    this.buffer = buffer;
+    this.dataType = dataType;
+  }
+
+  /**
+   * @return The root map of the data.
+   * @throws SdbException if the data is not valid sdb data.
+   */
+  public Map<String, Object> readToMap() {
+    try {
+      for (final byte expected : SdbFormat.MAGIC) {
+        if (this.buffer.get() != expected) {
+          throw new SdbException("Data doesn't start with the sdb header");
+        }
+      }
+      final Map<String, Object> result = readEntries();
+      if (this.buffer.hasRemaining()) {
+        throw error("Unexpected data after the end of the root map");
+      }
+      return result;
+    } catch (final BufferUnderflowException ex) {
+      throw new SdbException(ex, "Unexpected end of sdb data");
+    } catch (final NumberFormatException ex) {
+      throw new SdbException(ex, "Invalid number in sdb data");
+    }
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Values
+  // ----------------------------------------------------------------------------------------------------
+
+  private Object readValue() {
+    final byte tag = this.buffer.get();
+    switch (tag) {
+      case SdbFormat.NULL:
+        return null;
+      case SdbFormat.FALSE:
+        return false;
+      case SdbFormat.TRUE:
+        return true;
+      case SdbFormat.INT:
+        return (int) unZigZag(readVarLong());
+      case SdbFormat.LONG:
+        return unZigZag(readVarLong());
+      case SdbFormat.FLOAT:
+        return this.buffer.getFloat();
+      case SdbFormat.DOUBLE:
+        return this.buffer.getDouble();
+      case SdbFormat.STRING:
+        return readString();
+      case SdbFormat.MAP:
+        return readEntries();
+      case SdbFormat.LIST:
+        final int size = readSize();
+        final List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(readValue());
+        }
+        return list;
+      case SdbFormat.BIG_INTEGER:
+        return new BigInteger(readString());
+      case SdbFormat.BIG_DECIMAL:
+        return new BigDecimal(readString());
+      default:
+        throw error("Unknown type tag " + tag);
+    }
+  }
+
+  private Map<String, Object> readEntries() {
+    final int size = readSize();
+    final Map<String, Object> map = this.dataType.getMapImplementation();
+    for (int i = 0; i < size; i++) {
+      final String key = readKey();
+      map.put(key, readValue());
+    }
+    return map;
+  }
+
+  private String readKey() {
+    final long index = readVarLong();
+    if (index == 0) {
+      final String key = readString();
+      this.keys.add(key);
+      return key;
+    }
+    if (index > this.keys.size()) {
+      throw error("Reference to unknown key " + index);
+    }
+    return this.keys.get((int) index - 1);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Primitives
+  // ----------------------------------------------------------------------------------------------------
+
+  private String readString() {
+    final int length = readSize();
+    if (!this.buffer.hasArray()) {
+      final byte[] bytes = new byte[length];
+      this.buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+    final String string = new String(
+        this.buffer.array(),
+        this.buffer.arrayOffset() + this.buffer.position(),
+        length,
+        StandardCharsets.UTF_8);
+    this.buffer.position(this.buffer.position() + length);
+    return string;
+  }
+
+  // Every element takes at least one byte, so larger sizes can only come from damaged data
+  private int readSize() {
+    final long size = readVarLong();
+    if (size < 0 || size > this.buffer.remaining()) {
+      throw error("Invalid size " + size);
+    }
+    return (int) size;
+  }
+
+  private long readVarLong() {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final byte b = this.buffer.get();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw error("Malformed varint");
+  }
+
+  private static long unZigZag(final long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private SdbException error(final String message) {
+    return new SdbException(message + " at byte " + this.buffer.position());
+  }
+}
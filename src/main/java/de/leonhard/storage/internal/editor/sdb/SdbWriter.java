@@ -0,0 +1,151 @@
+package de.leonhard.storage.internal.editor.sdb;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Encodes nested Maps, Collections, arrays and primitives into the binary sdb format described in
+ * {@link SdbFormat}.
+ *
+ * <p>Like the JsonWriter, Enums are stored by their name and unknown objects by their toString().
+ * Bytes, Shorts and Characters are stored as Integers respectively Strings.
+ */
+public final class SdbWriter {
+
+  private final Map<String, Integer> keys = new HashMap<>();
+  private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+  /**
+   * @return Buffer containing the encoded map, ready to be read.
+   */
+  public ByteBuffer write(@NonNull final Map<?, ?> map) {
+    this.buffer.clear();
+    this.keys.clear();
+    ensureCapacity(SdbFormat.MAGIC.length);
+    this.buffer.put(SdbFormat.MAGIC);
+    writeEntries(map);
+    this.buffer.flip();
+    return this.buffer;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Values
+  // ----------------------------------------------------------------------------------------------------
+
+  private void writeValue(final Object value) {
+    if (value == null) {
+      writeTag(SdbFormat.NULL);
+    } else if (value instanceof Boolean) {
+      writeTag((Boolean) value ? SdbFormat.TRUE : SdbFormat.FALSE);
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      writeTag(SdbFormat.INT);
+      writeVarLong(zigZag(((Number) value).intValue()));
+    } else if (value instanceof Long) {
+      writeTag(SdbFormat.LONG);
+      writeVarLong(zigZag((Long) value));
+    } else if (value instanceof Float) {
+      writeTag(SdbFormat.FLOAT);
+      ensureCapacity(4);
+      this.buffer.putFloat((Float) value);
+    } else if (value instanceof Double) {
+      writeTag(SdbFormat.DOUBLE);
+      ensureCapacity(8);
+      this.buffer.putDouble((Double) value);
+    } else if (value instanceof BigInteger) {
+      writeTag(SdbFormat.BIG_INTEGER);
+      writeString(value.toString());
+    } else if (value instanceof BigDecimal) {
+      writeTag(SdbFormat.BIG_DECIMAL);
+      writeString(value.toString());
+    } else if (value instanceof Map) {
+      writeTag(SdbFormat.MAP);
+      writeEntries((Map<?, ?>) value);
+    } else if (value instanceof Collection) {
+      final Collection<?> collection = (Collection<?>) value;
+      writeTag(SdbFormat.LIST);
+      writeVarLong(collection.size());
+      for (final Object element : collection) {
+        writeValue(element);
+      }
+    } else if (value.getClass().isArray()) {
+      final int length = Array.getLength(value);
+      writeTag(SdbFormat.LIST);
+      writeVarLong(length);
+      for (int i = 0; i < length; i++) {
+        writeValue(Array.get(value, i));
+      }
+    } else if (value instanceof Enum) {
+      writeTag(SdbFormat.STRING);
+      writeString(((Enum<?>) value).name());
+    } else {
+      writeTag(SdbFormat.STRING);
+      writeString(value.toString());
+    }
+  }
+
+  private void writeEntries(final Map<?, ?> map) {
+    writeVarLong(map.size());
+    for (final Map.Entry<?, ?> entry : map.entrySet()) {
+      writeKey(String.valueOf(entry.getKey()));
+      writeValue(entry.getValue());
+    }
+  }
+
+  private void writeKey(final String key) {
+    final Integer index = this.keys.get(key);
+    if (index != null) {
+      writeVarLong(index + 1L);
+      return;
+    }
+    this.keys.put(key, this.keys.size());
+    writeVarLong(0);
+    writeString(key);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Primitives
+  // ----------------------------------------------------------------------------------------------------
+
+  private void writeTag(final byte tag) {
+    ensureCapacity(1);
+    this.buffer.put(tag);
+  }
+
+  private void writeString(final String string) {
+    final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    writeVarLong(bytes.length);
+    ensureCapacity(bytes.length);
+    this.buffer.put(bytes);
+  }
+
+  private void writeVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      this.buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    this.buffer.put((byte) value);
+  }
+
+  private static long zigZag(final long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private void ensureCapacity(final int bytes) {
+    if (this.buffer.remaining() >= bytes) {
+      return;
+    }
+    final int required = this.buffer.position() + bytes;
+    final ByteBuffer grown = ByteBuffer.allocate(Math.max(required, this.buffer.capacity() * 2));
+    this.buffer.flip();
+    grown.put(this.buffer);
+    this.buffer = grown;
+  }
+}
@@ -2,9 +2,9 @@ package de.leonhard.storage.internal.editor.toml;
 
 import de.leonhard.storage.internal.exceptions.TomlException;
 import de.leonhard.storage.util.FastStringWriter;
+import de.leonhard.storage.util.FileUtils;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.Map;
@@ -160,7 +160,7 @@ public class TomlManager {
    */
   public Map<String, Object> read(final File file, final boolean strictAsciiBareKeys)
       throws IOException, TomlException {
-    return read(Files.newInputStream(file.toPath()), strictAsciiBareKeys);
+    return read(FileUtils.createInputStream(file), strictAsciiBareKeys);
   }
 
   /**
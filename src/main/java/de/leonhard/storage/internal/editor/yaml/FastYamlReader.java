@@ -0,0 +1,887 @@
+package de.leonhard.storage.internal.editor.yaml;
+
+import com.esotericsoftware.yamlbeans.YamlException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads the block style YAML config files are usually written in, without the tokenizer, parser
+ * and reflection of yamlbeans. Returns the same data as {@link SimpleYamlReader}: Scalars are read
+ * as Strings, mappings as LinkedHashMaps and sequences as ArrayLists.
+ *
+ * <p>Supports block mappings and sequences, flow sequences and mappings written on a single line
+ * as well as plain, quoted and block scalars. Documents using anything else, like anchors, tags,
+ * complex keys or multiple documents, are read with yamlbeans instead, which also reports syntax
+ * errors.
+ */
+public final class FastYamlReader {
+
+  private static final int MAX_SIMPLE_KEY_LENGTH = 1024;
+  private static final char END = '\0';
+  private static final Unsupported UNSUPPORTED = new Unsupported();
+
+  private final String yaml;
+  private final StringBuilder buffer = new StringBuilder();
+  private String text;
+  private int length;
+  private int pos;
+  private int lineStart;
+
+  public FastYamlReader(@NonNull final String yaml) {
+    this.yaml = yaml;
+  }
+
+  public Map<String, Object> readToMap() throws YamlException {
+    final Map<String, Object> result = tryRead();
+    if (result != null) {
+      return result;
+    }
+    return new SimpleYamlReader(this.yaml).readToMap();
+  }
+
+  /**
+   * @return The data of the document or null if it has to be read with yamlbeans.
+   */
+  @Nullable
+  Map<String, Object> tryRead() {
+    try {
+      return readDocument();
+    } catch (final RuntimeException ex) {
+      return null;
+    }
+  }
+
+  private Map<String, Object> readDocument() {
+    this.text = normalize(this.yaml);
+    this.length = this.text.length();
+    this.pos = 0;
+    this.lineStart = 0;
+
+    final int indent = nextContentLine();
+    if (indent == -1) {
+      return new HashMap<>();
+    }
+    this.pos += indent;
+    // A document start marker is allowed at any column in the first line
+    if (isDocumentMarker()) {
+      throw UNSUPPORTED;
+    }
+    final Map<String, Object> result;
+    if (peek() == '{') {
+      // Empty documents are written as "{}"
+      result = readFlowMapping();
+      endLine();
+    } else {
+      result = readMapping(indent);
+    }
+    if (nextContentLine() != -1) {
+      throw UNSUPPORTED;
+    }
+    return result;
+  }
+
+  private static String normalize(final String yaml) {
+    for (int i = 0; i < yaml.length(); i++) {
+      final char c = yaml.charAt(i);
+      if (c == END || c == '\u0085' || c == '\u2028' || c == '\u2029' || c == '\ufeff') {
+        throw UNSUPPORTED;
+      }
+    }
+    if (yaml.indexOf('\r') == -1) {
+      return yaml;
+    }
+    return yaml.replace("\r\n", "\n").replace('\r', '\n');
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Block collections
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Reads a block mapping whose first key starts at the current position.
+   */
+  private Map<String, Object> readMapping(final int indent) {
+    final Map<String, Object> map = new LinkedHashMap<>();
+    while (true) {
+      final String key = readKey();
+      map.put(key, readMappingValue(indent));
+
+      final int next = nextContentLine();
+      if (next < indent) {
+        return map;
+      }
+      if (next > indent) {
+        throw UNSUPPORTED;
+      }
+      this.pos += next;
+    }
+  }
+
+  /**
+   * Reads a block sequence whose first entry indicator is at the current position.
+   */
+  private List<Object> readSequence(final int indent) {
+    final List<Object> list = new ArrayList<>();
+    while (true) {
+      this.pos++;
+      list.add(readSequenceEntry(indent));
+
+      final int next = nextContentLine();
+      if (next > indent) {
+        throw UNSUPPORTED;
+      }
+      if (next < indent || !isBlockEntry(this.pos + next)) {
+        return list;
+      }
+      this.pos += next;
+    }
+  }
+
+  private String readKey() {
+    final char c = peek();
+    final int keyLine = this.lineStart;
+    final String key;
+    if (c == '"' || c == '\'') {
+      key = scanQuoted(c);
+      skipSpaces();
+    } else if (isPlainStart()) {
+      key = scanPlain(column() + 1);
+    } else {
+      throw UNSUPPORTED;
+    }
+
+    // Only simple keys are supported, "<<" would be a merge key
+    if (this.lineStart != keyLine
+        || peek() != ':'
+        || !isBlank(peek(1))
+        || key.length() >= MAX_SIMPLE_KEY_LENGTH
+        || "<<".equals(key)) {
+      throw UNSUPPORTED;
+    }
+    this.pos++;
+    return key;
+  }
+
+  private boolean isKeyAhead() {
+    final int start = this.pos;
+    final int startLine = this.lineStart;
+    try {
+      readKey();
+      return true;
+    } catch (final Unsupported ex) {
+      return false;
+    } finally {
+      this.pos = start;
+      this.lineStart = startLine;
+    }
+  }
+
+  @Nullable
+  private Object readMappingValue(final int indent) {
+    skipSpaces();
+    if (isLineEnd()) {
+      skipLine();
+      return readBlockNode(indent, true);
+    }
+    return readInlineValue(indent);
+  }
+
+  @Nullable
+  private Object readSequenceEntry(final int indent) {
+    skipSpaces();
+    if (isLineEnd()) {
+      skipLine();
+      return readBlockNode(indent, false);
+    }
+    // Compact nested sequences and mappings like "- - a" and "- a: b"
+    if (isBlockEntry(this.pos)) {
+      return readSequence(column());
+    }
+    if (isKeyAhead()) {
+      return readMapping(column());
+    }
+    return readInlineValue(indent);
+  }
+
+  /**
+   * Reads a collection starting in the next content line, if there is any.
+   *
+   * @param indentless Whether a sequence may start at the same indentation as its parent.
+   */
+  @Nullable
+  private Object readBlockNode(final int parentIndent, final boolean indentless) {
+    final int indent = nextContentLine();
+    if (indent == -1) {
+      return null;
+    }
+    final boolean blockEntry = isBlockEntry(this.pos + indent);
+    if (indent > parentIndent) {
+      this.pos += indent;
+      return blockEntry ? readSequence(indent) : readMapping(indent);
+    }
+    if (indentless && indent == parentIndent && blockEntry) {
+      this.pos += indent;
+      return readSequence(indent);
+    }
+    return null;
+  }
+
+  private Object readInlineValue(final int indent) {
+    final Object value;
+    switch (peek()) {
+      case '[':
+        value = readFlowSequence();
+        break;
+      case '{':
+        value = readFlowMapping();
+        break;
+      case '"':
+      case '\'':
+        value = scanQuoted(peek());
+        break;
+      case '|':
+      case '>':
+        value = scanBlockScalar(peek(), indent);
+        toLineStart();
+        return value;
+      default:
+        if (!isPlainStart()) {
+          throw UNSUPPORTED;
+        }
+        final int valueLine = this.lineStart;
+        value = scanPlain(indent + 1);
+        if (this.lineStart != valueLine) {
+          toLineStart();
+          return value;
+        }
+        break;
+    }
+    endLine();
+    return value;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Flow collections
+  // ----------------------------------------------------------------------------------------------------
+
+  private List<Object> readFlowSequence() {
+    this.pos++;
+    final List<Object> list = new ArrayList<>();
+    skipFlowSpaces();
+    if (peek() == ']') {
+      this.pos++;
+      return list;
+    }
+    while (true) {
+      list.add(readFlowNode());
+      skipFlowSpaces();
+      final char c = peek();
+      this.pos++;
+      if (c == ']') {
+        return list;
+      }
+      if (c != ',') {
+        throw UNSUPPORTED;
+      }
+      skipFlowSpaces();
+      if (peek() == ']') {
+        throw UNSUPPORTED;
+      }
+    }
+  }
+
+  private Map<String, Object> readFlowMapping() {
+    this.pos++;
+    final Map<String, Object> map = new LinkedHashMap<>();
+    skipFlowSpaces();
+    if (peek() == '}') {
+      this.pos++;
+      return map;
+    }
+    while (true) {
+      final Object key = readFlowNode();
+      skipFlowSpaces();
+      if (!(key instanceof String) || "<<".equals(key) || peek() != ':' || peek(1) != ' ') {
+        throw UNSUPPORTED;
+      }
+      this.pos++;
+      skipFlowSpaces();
+      if (peek() == ',' || peek() == '}') {
+        throw UNSUPPORTED;
+      }
+      map.put((String) key, readFlowNode());
+
+      skipFlowSpaces();
+      final char c = peek();
+      this.pos++;
+      if (c == '}') {
+        return map;
+      }
+      if (c != ',') {
+        throw UNSUPPORTED;
+      }
+      skipFlowSpaces();
+      if (peek() == '}') {
+        throw UNSUPPORTED;
+      }
+    }
+  }
+
+  private Object readFlowNode() {
+    final char c = peek();
+    switch (c) {
+      case '[':
+        return readFlowSequence();
+      case '{':
+        return readFlowMapping();
+      case '"':
+      case '\'':
+        final int line = this.lineStart;
+        final String value = scanQuoted(c);
+        if (this.lineStart != line) {
+          throw UNSUPPORTED;
+        }
+        return value;
+      default:
+        if (c == '?' || c == ':' || !isPlainStart() || isFlowIndicator(peek(1)) && c == '-') {
+          throw UNSUPPORTED;
+        }
+        return scanFlowPlain();
+    }
+  }
+
+  private void skipFlowSpaces() {
+    skipSpaces();
+    // Flow collections spanning multiple lines aren't supported
+    if (peek() == '\n' || peek() == '\t') {
+      throw UNSUPPORTED;
+    }
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Scalars, following the Tokenizer of yamlbeans
+  // ----------------------------------------------------------------------------------------------------
+
+  private String scanPlain(final int indent) {
+    final StringBuilder chunks = new StringBuilder();
+    String spaces = "";
+    while (peek() != '#') {
+      int length = 0;
+      while (true) {
+        final char c = peek(length);
+        if (c == ' ' || c == '\t' || c == '\n' || c == END || c == ':' && isBlank(peek(length + 1))) {
+          break;
+        }
+        length++;
+      }
+      if (length == 0) {
+        break;
+      }
+      chunks.append(spaces).append(this.text, this.pos, this.pos + length);
+      this.pos += length;
+      spaces = scanPlainSpaces();
+      if (spaces.isEmpty() || column() < indent) {
+        break;
+      }
+    }
+    return chunks.toString();
+  }
+
+  private String scanPlainSpaces() {
+    final int start = this.pos;
+    while (peek() == ' ' || peek() == '\t') {
+      this.pos++;
+    }
+    if (peek() != '\n') {
+      return this.text.substring(start, this.pos);
+    }
+    newLine();
+    if (isDocumentMarker()) {
+      return "";
+    }
+    int breaks = 0;
+    while (true) {
+      final char c = peek();
+      if (c == ' ') {
+        this.pos++;
+      } else if (c == '\n') {
+        newLine();
+        breaks++;
+        if (isDocumentMarker()) {
+          return "";
+        }
+      } else {
+        break;
+      }
+    }
+    return breaks == 0 ? " " : lineBreaks(breaks);
+  }
+
+  private String scanFlowPlain() {
+    final StringBuilder chunks = new StringBuilder();
+    String spaces = "";
+    while (peek() != '#') {
+      int length = 0;
+      while (!isBlank(peek(length)) && !isFlowIndicator(peek(length))
+          && peek(length) != ':' && peek(length) != '?') {
+        length++;
+      }
+      final char c = peek(length);
+      if (c == ':' && !isBlank(peek(length + 1)) && !isFlowIndicator(peek(length + 1))) {
+        throw UNSUPPORTED;
+      }
+      if (length == 0) {
+        break;
+      }
+      chunks.append(spaces).append(this.text, this.pos, this.pos + length);
+      this.pos += length;
+
+      final int start = this.pos;
+      while (peek() == ' ' || peek() == '\t') {
+        this.pos++;
+      }
+      if (peek() == '\n') {
+        throw UNSUPPORTED;
+      }
+      spaces = this.text.substring(start, this.pos);
+      if (spaces.isEmpty()) {
+        break;
+      }
+    }
+    return chunks.toString();
+  }
+
+  private String scanQuoted(final char quote) {
+    final boolean doubleQuoted = quote == '"';
+    final StringBuilder chunks = this.buffer;
+    chunks.setLength(0);
+    this.pos++;
+    scanQuotedNonSpaces(doubleQuoted, chunks);
+    while (peek() != quote) {
+      scanQuotedSpaces(chunks);
+      scanQuotedNonSpaces(doubleQuoted, chunks);
+    }
+    this.pos++;
+    return chunks.toString();
+  }
+
+  private void scanQuotedNonSpaces(final boolean doubleQuoted, final StringBuilder chunks) {
+    while (true) {
+      int length = 0;
+      while ("'\"\\ \t\n".indexOf(peek(length)) == -1 && peek(length) != END) {
+        length++;
+      }
+      chunks.append(this.text, this.pos, this.pos + length);
+      this.pos += length;
+
+      char c = peek();
+      if (!doubleQuoted && c == '\'' && peek(1) == '\'') {
+        chunks.append('\'');
+        this.pos += 2;
+        continue;
+      }
+      if (doubleQuoted && c == '\'' || !doubleQuoted && (c == '"' || c == '\\')) {
+        chunks.append(c);
+        this.pos++;
+        continue;
+      }
+      if (!doubleQuoted || c != '\\') {
+        return;
+      }
+
+      this.pos++;
+      c = peek();
+      final String replacement = escapeReplacement(c);
+      if (replacement != null) {
+        chunks.append(replacement);
+        this.pos++;
+        continue;
+      }
+      final int codeLength = c == 'x' ? 2 : c == 'u' ? 4 : c == 'U' ? 8 : -1;
+      if (codeLength != -1) {
+        this.pos++;
+        if (this.pos + codeLength > this.length) {
+          throw UNSUPPORTED;
+        }
+        final String code = this.text.substring(this.pos, this.pos + codeLength);
+        for (int i = 0; i < codeLength; i++) {
+          if (Character.digit(code.charAt(i), 16) == -1 || code.charAt(i) > 'f') {
+            throw UNSUPPORTED;
+          }
+        }
+        chunks.append(Character.toChars(Integer.parseInt(code, 16)));
+        this.pos += codeLength;
+        continue;
+      }
+      if (c != '\n') {
+        throw UNSUPPORTED;
+      }
+      newLine();
+      scanQuotedBreaks(chunks);
+    }
+  }
+
+  private void scanQuotedSpaces(final StringBuilder chunks) {
+    final int start = this.pos;
+    while (peek() == ' ' || peek() == '\t') {
+      this.pos++;
+    }
+    final char c = peek();
+    if (c == END) {
+      throw UNSUPPORTED;
+    }
+    if (c != '\n') {
+      chunks.append(this.text, start, this.pos);
+      return;
+    }
+    newLine();
+    final int breaksStart = chunks.length();
+    scanQuotedBreaks(chunks);
+    if (chunks.length() == breaksStart) {
+      chunks.append(' ');
+    }
+  }
+
+  private void scanQuotedBreaks(final StringBuilder chunks) {
+    while (true) {
+      if (isDocumentMarker()) {
+        throw UNSUPPORTED;
+      }
+      while (peek() == ' ' || peek() == '\t') {
+        this.pos++;
+      }
+      if (peek() != '\n') {
+        return;
+      }
+      newLine();
+      chunks.append('\n');
+    }
+  }
+
+  @Nullable
+  private static String escapeReplacement(final char c) {
+    switch (c) {
+      case '0':
+        return "\u0000";
+      case 'a':
+        return "\u0007";
+      case 'b':
+        return "\b";
+      case 't':
+      case '\t':
+        return "\t";
+      case 'n':
+        return "\n";
+      case 'v':
+        return "\u000b";
+      case 'f':
+        return "\f";
+      case 'r':
+        return "\r";
+      case 'e':
+        return "\u001b";
+      case ' ':
+        return " ";
+      case '"':
+        return "\"";
+      case '\\':
+        return "\\";
+      case 'N':
+        return "\u0085";
+      case '_':
+        return "\u00a0";
+      case 'L':
+        return "\u2028";
+      case 'P':
+        return "\u2029";
+      default:
+        return null;
+    }
+  }
+
+  private String scanBlockScalar(final char style, final int indent) {
+    final boolean folded = style == '>';
+    this.pos++;
+
+    // Indicators
+    int chomping = 0;
+    int increment = -1;
+    char c = peek();
+    if (c == '-' || c == '+') {
+      chomping = c == '-' ? 1 : 2;
+      this.pos++;
+      if (Character.isDigit(peek())) {
+        increment = indentationIndicator();
+      }
+    } else if (Character.isDigit(c)) {
+      increment = indentationIndicator();
+      c = peek();
+      if (c == '-' || c == '+') {
+        chomping = c == '-' ? 1 : 2;
+        this.pos++;
+      }
+    }
+    if (peek() != ' ' && peek() != '\n' && peek() != END) {
+      throw UNSUPPORTED;
+    }
+
+    // Rest of the line
+    skipSpaces();
+    if (peek() == '#') {
+      skipComment();
+    }
+    if (peek() == '\n') {
+      newLine();
+    } else if (peek() != END) {
+      throw UNSUPPORTED;
+    }
+
+    final int minIndent = Math.max(indent + 1, 1);
+    final int scalarIndent;
+    String breaks;
+    if (increment == -1) {
+      int maxIndent = 0;
+      int lineBreaks = 0;
+      while (peek() == ' ' || peek() == '\n') {
+        if (peek() == '\n') {
+          newLine();
+          lineBreaks++;
+          continue;
+        }
+        this.pos++;
+        maxIndent = Math.max(maxIndent, column());
+      }
+      breaks = lineBreaks(lineBreaks);
+      scalarIndent = Math.max(minIndent, maxIndent);
+    } else {
+      scalarIndent = minIndent + increment - 1;
+      breaks = scanBlockScalarBreaks(scalarIndent);
+    }
+
+    final StringBuilder chunks = new StringBuilder();
+    String lineBreak = "";
+    while (column() == scalarIndent && peek() != END) {
+      chunks.append(breaks);
+      final boolean leadingNonSpace = peek() != ' ' && peek() != '\t';
+      int length = 0;
+      while (peek(length) != '\n' && peek(length) != END) {
+        length++;
+      }
+      chunks.append(this.text, this.pos, this.pos + length);
+      this.pos += length;
+      if (peek() == '\n') {
+        newLine();
+        lineBreak = "\n";
+      } else {
+        lineBreak = "";
+      }
+      breaks = scanBlockScalarBreaks(scalarIndent);
+      if (column() != scalarIndent || peek() == END) {
+        break;
+      }
+      if (folded && !lineBreak.isEmpty() && leadingNonSpace && peek() != ' ' && peek() != '\t') {
+        if (breaks.isEmpty()) {
+          chunks.append(' ');
+        }
+        continue;
+      }
+      chunks.append(lineBreak);
+    }
+
+    if (chomping == 0) {
+      chunks.append(lineBreak);
+    } else if (chomping == 2) {
+      chunks.append(lineBreak).append(breaks);
+    }
+    return chunks.toString();
+  }
+
+  private int indentationIndicator() {
+    final char c = peek();
+    if (c < '1' || c > '9') {
+      throw UNSUPPORTED;
+    }
+    this.pos++;
+    return c - '0';
+  }
+
+  private String scanBlockScalarBreaks(final int indent) {
+    int breaks = 0;
+    while (column() < indent && peek() == ' ') {
+      this.pos++;
+    }
+    while (peek() == '\n') {
+      newLine();
+      breaks++;
+      while (column() < indent && peek() == ' ') {
+        this.pos++;
+      }
+    }
+    return lineBreaks(breaks);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Lines
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Skips empty and comment lines, starting at the beginning of a line.
+   *
+   * @return The indentation of the next content line, which the position is at the beginning of,
+   * or -1 at the end of the document.
+   */
+  private int nextContentLine() {
+    while (this.pos < this.length) {
+      int indent = 0;
+      while (peek(indent) == ' ') {
+        indent++;
+      }
+      final char c = peek(indent);
+      if (c == '\n') {
+        this.pos += indent;
+        newLine();
+      } else if (c == '#') {
+        this.pos += indent;
+        skipLine();
+      } else if (c == END) {
+        this.pos = this.length;
+      } else if (c == '\t' || indent == 0 && isDocumentMarker()) {
+        throw UNSUPPORTED;
+      } else {
+        return indent;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Expects nothing but a comment until the end of the line and skips it.
+   */
+  private void endLine() {
+    skipSpaces();
+    if (peek() == '#') {
+      skipComment();
+    }
+    if (peek() == '\n') {
+      newLine();
+    } else if (peek() != END) {
+      throw UNSUPPORTED;
+    }
+  }
+
+  /**
+   * Moves back to the beginning of the line, after a scalar was followed by its indentation.
+   */
+  private void toLineStart() {
+    if (this.pos >= this.length) {
+      return;
+    }
+    for (int i = this.lineStart; i < this.pos; i++) {
+      if (this.text.charAt(i) != ' ') {
+        throw UNSUPPORTED;
+      }
+    }
+    this.pos = this.lineStart;
+  }
+
+  private void skipLine() {
+    skipComment();
+    if (peek() == '\n') {
+      newLine();
+    }
+  }
+
+  private void skipComment() {
+    while (peek() != '\n' && peek() != END) {
+      this.pos++;
+    }
+  }
+
+  private void skipSpaces() {
+    while (peek() == ' ') {
+      this.pos++;
+    }
+  }
+
+  private void newLine() {
+    this.pos++;
+    this.lineStart = this.pos;
+  }
+
+  private int column() {
+    return this.pos - this.lineStart;
+  }
+
+  private char peek() {
+    return this.pos < this.length ? this.text.charAt(this.pos) : END;
+  }
+
+  private char peek(final int offset) {
+    final int index = this.pos + offset;
+    return index < this.length ? this.text.charAt(index) : END;
+  }
+
+  private boolean isLineEnd() {
+    final char c = peek();
+    return c == '\n' || c == '#' || c == END;
+  }
+
+  private boolean isBlockEntry(final int index) {
+    return index < this.length
+        && this.text.charAt(index) == '-'
+        && isBlank(index + 1 < this.length ? this.text.charAt(index + 1) : END);
+  }
+
+  private boolean isPlainStart() {
+    final char c = peek();
+    if ("-?:,[]{}#&*!|>'\"%@ \t\n".indexOf(c) == -1 && c != END) {
+      return true;
+    }
+    return (c == '-' || c == '?' || c == ':') && !isBlank(peek(1));
+  }
+
+  private boolean isDocumentMarker() {
+    if (this.pos + 3 > this.length) {
+      return false;
+    }
+    final boolean marker = this.text.startsWith("---", this.pos)
+        || this.text.startsWith("...", this.pos);
+    return marker && isBlank(peek(3));
+  }
+
+  private static boolean isBlank(final char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == END;
+  }
+
+  private static boolean isFlowIndicator(final char c) {
+    return c == ',' || c == '[' || c == ']' || c == '{' || c == '}';
+  }
+
+  private static String lineBreaks(final int amount) {
+    if (amount == 0) {
+      return "";
+    }
+    final char[] breaks = new char[amount];
+    Arrays.fill(breaks, '\n');
+    return new String(breaks);
+  }
+
+  /**
+   * Thrown when the document has to be read with yamlbeans. Doesn't fill in its stack trace, as it
+   * is only used for control flow.
+   */
+  private static final class Unsupported extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private Unsupported() {
+      super(null, null, false, false);
+    }
+  }
+}
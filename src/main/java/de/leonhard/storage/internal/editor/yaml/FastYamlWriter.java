@@ -0,0 +1,615 @@
+package de.leonhard.storage.internal.editor.yaml;
+
+import de.leonhard.storage.internal.provider.SimplixProviders;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Emits YAML for trees of Maps, Collections, Strings, Numbers, Booleans, Characters and Enums
+ * without any reflection.
+ *
+ * <p>The output is identical to the output of yamlbeans using the default {@link
+ * SimplixProviders#yamlConfig()}: Block style, an indentation of 3 spaces, lines wrapped at
+ * column 100 and no unicode escapes. Trees containing anything else must be checked with {@link
+ * #isSupported(Map)} first and written with yamlbeans instead.
+ *
+ * <p>The Writer isn't buffered by this class.
+ */
+public final class FastYamlWriter {
+
+  private static final int INDENT_SIZE = 3;
+  private static final int WRAP_COLUMN = 100;
+  private static final int MAX_SIMPLE_KEY_LENGTH = 1024;
+
+  private static final char PLAIN = 0;
+  private static final char SINGLE_QUOTED = '\'';
+  private static final char DOUBLE_QUOTED = '"';
+  private static final char LITERAL = '|';
+
+  private final Writer writer;
+  private final String lineSeparator = System.getProperty("line.separator");
+  private int column;
+  private boolean whitespace = true;
+  private boolean indentation = true;
+
+  public FastYamlWriter(@NonNull final Writer writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Writes the map as YAML document and flushes the Writer.
+   */
+  public void write(@NonNull final Map<?, ?> map) throws IOException {
+    writeNode(map, -1, false, false);
+    // Document end
+    writeIndent(0);
+    this.writer.flush();
+  }
+
+  /**
+   * @return true if the map only contains values this writer can emit like yamlbeans.
+   */
+  public static boolean isSupported(@NonNull final Map<?, ?> map) {
+    for (final Map.Entry<?, ?> entry : map.entrySet()) {
+      final Object key = entry.getKey();
+      if (!isScalar(key)) {
+        return false;
+      }
+      // Keys which can't be written as simple keys are written as complex keys by yamlbeans
+      final String keyString = scalarToString(key);
+      if (keyString.length() >= MAX_SIMPLE_KEY_LENGTH || isMultiline(keyString)) {
+        return false;
+      }
+      if (!isSupportedValue(entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSupportedValue(final Object value) {
+    if (value == null || isScalar(value)) {
+      return true;
+    }
+    if (value instanceof Map) {
+      return isSupported((Map<?, ?>) value);
+    }
+    if (value instanceof Collection) {
+      for (final Object item : (Collection<?>) value) {
+        if (!isSupportedValue(item)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  // Same types yamlbeans writes as scalar by default
+  private static boolean isScalar(final Object value) {
+    if (value == null) {
+      return false;
+    }
+    final Class<?> type = value.getClass();
+    return type == String.class
+        || type == Integer.class
+        || type == Boolean.class
+        || type == Float.class
+        || type == Long.class
+        || type == Double.class
+        || type == Short.class
+        || type == Byte.class
+        || type == Character.class
+        || value instanceof Enum;
+  }
+
+  private static String scalarToString(final Object value) {
+    return value instanceof Enum ? ((Enum<?>) value).name() : String.valueOf(value);
+  }
+
+  private static boolean isMultiline(final String scalar) {
+    return scalar.indexOf('\n') != -1 || scalar.indexOf('\u0085') != -1;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Nodes
+  // ----------------------------------------------------------------------------------------------------
+
+  private void writeNode(
+      final Object value,
+      final int indent,
+      final boolean mappingContext,
+      final boolean simpleKey) throws IOException {
+    if (value instanceof Map) {
+      writeMapping((Map<?, ?>) value, indent);
+    } else if (value instanceof Collection) {
+      writeSequence((Collection<?>) value, indent, mappingContext);
+    } else {
+      writeScalar(
+          value == null ? null : scalarToString(value),
+          indent == -1 ? INDENT_SIZE : indent + INDENT_SIZE,
+          simpleKey);
+    }
+  }
+
+  private void writeMapping(final Map<?, ?> map, final int indent) throws IOException {
+    if (map.isEmpty()) {
+      writeIndicator("{", true, true, false);
+      writeIndicator("}", false, false, false);
+      return;
+    }
+
+    final int mappingIndent = indent == -1 ? 0 : indent + INDENT_SIZE;
+    for (final Map.Entry<?, ?> entry : map.entrySet()) {
+      writeIndent(mappingIndent);
+      writeNode(entry.getKey(), mappingIndent, true, true);
+      writeIndicator(": ", false, true, false);
+      writeNode(entry.getValue(), mappingIndent, true, false);
+    }
+  }
+
+  private void writeSequence(
+      final Collection<?> collection,
+      final int indent,
+      final boolean mappingContext) throws IOException {
+    if (collection.isEmpty()) {
+      writeIndicator("[", true, true, false);
+      writeIndicator("]", false, false, false);
+      return;
+    }
+
+    // Sequences in mappings aren't indented
+    final int sequenceIndent;
+    if (indent == -1) {
+      sequenceIndent = 0;
+    } else if (mappingContext && !this.indentation) {
+      sequenceIndent = indent;
+    } else {
+      sequenceIndent = indent + INDENT_SIZE;
+    }
+
+    final Iterator<?> iterator = collection.iterator();
+    while (iterator.hasNext()) {
+      writeIndent(sequenceIndent);
+      writeIndicator("-", true, false, true);
+      writeNode(iterator.next(), sequenceIndent, false, false);
+    }
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Scalars
+  // ----------------------------------------------------------------------------------------------------
+
+  private void writeScalar(
+      final String scalar,
+      final int indent,
+      final boolean simpleKey) throws IOException {
+    final boolean split = !simpleKey;
+    switch (chooseStyle(scalar, simpleKey)) {
+      case DOUBLE_QUOTED:
+        writeDoubleQuoted(scalar, split, indent);
+        break;
+      case SINGLE_QUOTED:
+        writeSingleQuoted(scalar, split, indent);
+        break;
+      case LITERAL:
+        writeLiteral(scalar, indent);
+        break;
+      default:
+        writePlain(scalar, split, indent);
+        break;
+    }
+  }
+
+  /**
+   * Analyzes the scalar like yamlbeans does to choose the style it would use.
+   */
+  private static char chooseStyle(final String scalar, final boolean simpleKey) {
+    if (scalar == null) {
+      return PLAIN;
+    }
+    if (scalar.isEmpty()) {
+      return DOUBLE_QUOTED;
+    }
+
+    boolean blockIndicators = false;
+    boolean lineBreaks = false;
+    boolean inlineBreaks = false;
+    boolean leadingSpaces = false;
+    boolean leadingBreaks = false;
+    boolean trailingSpaces = false;
+    boolean trailingBreaks = false;
+    boolean inlineBreaksSpaces = false;
+    boolean mixedBreaksSpaces = false;
+
+    if ("---".equals(scalar) || "...".equals(scalar)) {
+      blockIndicators = true;
+    }
+
+    boolean precededBySpace = true;
+    boolean followedBySpace = scalar.length() == 1 || isBlankOrBreak(scalar.charAt(1));
+    boolean spaces = false;
+    boolean breaks = false;
+    boolean mixed = false;
+    boolean leading = false;
+
+    for (int index = 0; index < scalar.length(); index++) {
+      final char c = scalar.charAt(index);
+      if (index == 0) {
+        if ("#,[]{}&*!|>'\"%@`".indexOf(c) != -1) {
+          blockIndicators = true;
+        }
+        if ((c == '?' || c == ':' || c == '-') && followedBySpace) {
+          blockIndicators = true;
+        }
+      } else if ((c == ':' && followedBySpace) || (c == '#' && precededBySpace)) {
+        blockIndicators = true;
+      }
+
+      if (c == '\n' || c == '\u0085') {
+        lineBreaks = true;
+      }
+
+      if (c == ' ' || c == '\n' || c == '\u0085') {
+        if (spaces && breaks) {
+          if (c != ' ') {
+            mixed = true;
+          }
+        } else if (spaces) {
+          if (c != ' ') {
+            breaks = true;
+            mixed = true;
+          }
+        } else if (breaks) {
+          if (c == ' ') {
+            spaces = true;
+          }
+        } else {
+          leading = index == 0;
+          if (c == ' ') {
+            spaces = true;
+          } else {
+            breaks = true;
+          }
+        }
+      } else if (spaces || breaks) {
+        if (leading) {
+          if (spaces && breaks) {
+            mixedBreaksSpaces = true;
+          } else if (spaces) {
+            leadingSpaces = true;
+          } else {
+            leadingBreaks = true;
+          }
+        } else if (mixed) {
+          mixedBreaksSpaces = true;
+        } else if (spaces && breaks) {
+          inlineBreaksSpaces = true;
+        } else if (breaks) {
+          inlineBreaks = true;
+        }
+        leading = false;
+        mixed = false;
+        breaks = false;
+        spaces = false;
+      }
+
+      if ((spaces || breaks) && index == scalar.length() - 1) {
+        if (spaces && breaks) {
+          mixedBreaksSpaces = true;
+        } else if (spaces) {
+          trailingSpaces = true;
+          if (leading) {
+            leadingSpaces = true;
+          }
+        } else {
+          trailingBreaks = true;
+          if (leading) {
+            leadingBreaks = true;
+          }
+        }
+        leading = false;
+        mixed = false;
+        breaks = false;
+        spaces = false;
+      }
+
+      precededBySpace = isBlankOrBreak(c);
+      followedBySpace = index + 2 >= scalar.length() || isBlankOrBreak(scalar.charAt(index + 2));
+    }
+
+    final boolean allowPlain = !(leadingSpaces || leadingBreaks || trailingSpaces
+        || trailingBreaks || inlineBreaksSpaces || mixedBreaksSpaces || inlineBreaks
+        || lineBreaks || blockIndicators);
+    final boolean allowSingleQuoted = !(inlineBreaksSpaces || mixedBreaksSpaces || inlineBreaks
+        || trailingBreaks);
+    final boolean allowBlock = !(leadingSpaces || leadingBreaks || trailingSpaces
+        || mixedBreaksSpaces);
+
+    if (allowPlain) {
+      return PLAIN;
+    }
+    if (allowSingleQuoted && !(simpleKey && lineBreaks)) {
+      return SINGLE_QUOTED;
+    }
+    if (lineBreaks && allowBlock) {
+      return LITERAL;
+    }
+    return DOUBLE_QUOTED;
+  }
+
+  private static boolean isBlankOrBreak(final char c) {
+    return c == 0 || c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\u0085';
+  }
+
+  private static boolean isBreak(final char c) {
+    return c == '\n' || c == '\u0085';
+  }
+
+  private void writePlain(final String text, final boolean split, final int indent)
+      throws IOException {
+    if (text == null || text.isEmpty()) {
+      return;
+    }
+    if (!this.whitespace) {
+      write(" ");
+    }
+    this.whitespace = false;
+    this.indentation = false;
+
+    boolean spaces = false;
+    boolean breaks = false;
+    int start = 0;
+    for (int end = 0; end <= text.length(); end++) {
+      final char c = end < text.length() ? text.charAt(end) : 0;
+      if (spaces) {
+        if (c != ' ') {
+          if (start + 1 == end && this.column > WRAP_COLUMN && split) {
+            writeIndent(indent);
+            this.whitespace = false;
+            this.indentation = false;
+          } else {
+            write(text, start, end);
+          }
+          start = end;
+        }
+      } else if (breaks) {
+        if (!isBreak(c)) {
+          if (text.charAt(start) == '\n') {
+            writeLineBreak();
+          }
+          writeBreaks(text, start, end);
+          writeIndent(indent);
+          this.whitespace = false;
+          this.indentation = false;
+          start = end;
+        }
+      } else if (c == 0 || c == ' ' || isBreak(c)) {
+        write(text, start, end);
+        start = end;
+      }
+      if (c != 0) {
+        spaces = c == ' ';
+        breaks = isBreak(c);
+      }
+    }
+  }
+
+  private void writeSingleQuoted(final String text, final boolean split, final int indent)
+      throws IOException {
+    writeIndicator("'", true, false, false);
+    boolean spaces = false;
+    boolean breaks = false;
+    int start = 0;
+    for (int end = 0; end <= text.length(); end++) {
+      final char c = end < text.length() ? text.charAt(end) : 0;
+      if (spaces) {
+        if (c != ' ') {
+          if (start + 1 == end
+              && this.column > WRAP_COLUMN
+              && split
+              && start != 0
+              && end != text.length()) {
+            writeIndent(indent);
+          } else {
+            write(text, start, end);
+          }
+          start = end;
+        }
+      } else if (breaks) {
+        if (!isBreak(c)) {
+          writeBreaks(text, start, end);
+          writeIndent(indent);
+          start = end;
+        }
+      } else if (!isBreak(c) && start < end) {
+        write(text, start, end);
+        start = end;
+      }
+      if (c == '\'') {
+        write("''");
+        start = end + 1;
+      }
+      if (c != 0) {
+        spaces = c == ' ';
+        breaks = isBreak(c);
+      }
+    }
+    writeIndicator("'", false, false, false);
+  }
+
+  private void writeDoubleQuoted(final String text, final boolean split, final int indent)
+      throws IOException {
+    writeIndicator("\"", true, false, false);
+    int start = 0;
+    for (int end = 0; end <= text.length(); end++) {
+      final char c = end < text.length() ? text.charAt(end) : 0;
+      if (c == 0 || c == '"' || c == '\\' || c == '\u0085' || c < ' ' || c > '~') {
+        if (start < end) {
+          write(text, start, end);
+          start = end;
+        }
+        if (c != 0) {
+          final String escaped = escape(c);
+          if (escaped == null) {
+            write(text, end, end + 1);
+          } else {
+            write(escaped);
+          }
+          start = end + 1;
+        }
+      }
+
+      if (end > 0
+          && end < text.length() - 1
+          && (c == ' ' || start <= end)
+          && this.column + (end - start) > WRAP_COLUMN
+          && split) {
+        if (start < end) {
+          write(text, start, end);
+          start = end;
+        }
+        write("\\");
+        writeIndent(indent);
+        this.whitespace = false;
+        this.indentation = false;
+        if (text.charAt(start) == ' ') {
+          write("\\");
+        }
+      }
+    }
+    writeIndicator("\"", false, false, false);
+  }
+
+  private static String escape(final char c) {
+    switch (c) {
+      case 0:
+        return "\\0";
+      case 7:
+        return "\\a";
+      case '\b':
+        return "\\b";
+      case '\t':
+        return "\\t";
+      case '\n':
+        return "\\n";
+      case 11:
+        return "\\v";
+      case '\f':
+        return "\\f";
+      case '\r':
+        return "\\r";
+      case 27:
+        return "\\e";
+      case '"':
+        return "\\\"";
+      case '\\':
+        return "\\\\";
+      case '\u0085':
+        return "\\N";
+      case '\u00a0':
+        return "\\_";
+      default:
+        return null;
+    }
+  }
+
+  private void writeLiteral(final String text, final int indent) throws IOException {
+    writeIndicator("|" + chomp(text), true, false, false);
+    writeIndent(indent);
+    boolean breaks = false;
+    int start = 0;
+    for (int end = 0; end <= text.length(); end++) {
+      final char c = end < text.length() ? text.charAt(end) : 0;
+      if (breaks) {
+        if (!isBreak(c)) {
+          writeBreaks(text, start, end);
+          if (c != 0) {
+            writeIndent(indent);
+          }
+          start = end;
+        }
+      } else if (c == 0 || isBreak(c)) {
+        // Not counted in the column, like in yamlbeans
+        this.writer.write(text, start, end - start);
+        if (c == 0) {
+          writeLineBreak();
+        }
+        start = end;
+      }
+      if (c != 0) {
+        breaks = isBreak(c);
+      }
+    }
+  }
+
+  // Like yamlbeans, only the second to last character is taken into account
+  private static String chomp(final String text) {
+    return isBreak(text.charAt(text.length() - 2)) ? "" : "-";
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Low level writing
+  // ----------------------------------------------------------------------------------------------------
+
+  private void writeIndicator(
+      final String indicator,
+      final boolean needWhitespace,
+      final boolean whitespace,
+      final boolean indentation) throws IOException {
+    if (!this.whitespace && needWhitespace) {
+      write(" ");
+    }
+    write(indicator);
+    this.whitespace = whitespace;
+    this.indentation = this.indentation && indentation;
+  }
+
+  private void writeIndent(final int indent) throws IOException {
+    if (!this.indentation || this.column > indent || (this.column == indent && !this.whitespace)) {
+      writeLineBreak();
+    }
+    if (this.column < indent) {
+      this.whitespace = true;
+      for (int i = this.column; i < indent; i++) {
+        this.writer.write(' ');
+      }
+      this.column = indent;
+    }
+  }
+
+  private void writeBreaks(final String text, final int start, final int end) throws IOException {
+    for (int i = start; i < end; i++) {
+      final char c = text.charAt(i);
+      if (c == '\n') {
+        writeLineBreak();
+      } else {
+        this.writer.write(c);
+        this.whitespace = true;
+        this.indentation = true;
+        this.column = 0;
+      }
+    }
+  }
+
+  private void writeLineBreak() throws IOException {
+    this.writer.write(this.lineSeparator);
+    this.whitespace = true;
+    this.indentation = true;
+    this.column = 0;
+  }
+
+  private void write(final String text) throws IOException {
+    this.writer.write(text);
+    this.column += text.length();
+  }
+
+  private void write(final String text, final int start, final int end) throws IOException {
+    this.writer.write(text, start, end - start);
+    this.column += end - start;
+  }
+}
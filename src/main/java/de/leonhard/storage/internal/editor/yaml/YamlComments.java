@@ -0,0 +1,195 @@
+package de.leonhard.storage.internal.editor.yaml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * The comments of a YAML file, attached to the nodes they precede.
+ *
+ * <p>Nodes are identified by their path, like {@code section.key}, so comments survive changes
+ * of the indentation and of the order of the keys. Lines which aren't keys, like list items, are
+ * identified by their parent and their content. Leading and trailing comments are kept as the
+ * header and the footer.
+ *
+ * <p>Parsing and merging are linear in the number of lines.
+ */
+public final class YamlComments {
+
+  private final List<String> header = new ArrayList<>();
+  private final List<String> footer = new ArrayList<>();
+  private final Map<String, List<List<String>>> comments = new HashMap<>();
+
+  private YamlComments() {
+  }
+
+  /**
+   * Extracts the comments of the lines of a YAML file.
+   */
+  public static YamlComments parse(@NonNull final List<String> lines) {
+    final YamlComments result = new YamlComments();
+    final NodeTracker tracker = new NodeTracker();
+    List<String> pending = new ArrayList<>();
+    boolean first = true;
+
+    for (final String line : lines) {
+      if (isComment(line)) {
+        pending.add(line);
+        continue;
+      }
+
+      final String node = tracker.next(line);
+      if (first) {
+        result.header.addAll(pending);
+        first = false;
+      } else if (!pending.isEmpty()) {
+        result.comments.computeIfAbsent(node, ignored -> new ArrayList<>(1)).add(pending);
+      }
+      pending = new ArrayList<>();
+    }
+
+    if (first) {
+      // Comments only
+      result.header.addAll(pending);
+    } else {
+      result.footer.addAll(pending);
+    }
+    return result;
+  }
+
+  /**
+   * Inserts the comments into the lines of a YAML file without comments. Can be called again for
+   * every new version of the lines.
+   *
+   * <p>Comments of nodes which no longer exist are dropped, also from this instance, so they don't
+   * reappear once the node is added again.
+   *
+   * @return the merged lines.
+   */
+  public List<String> merge(@NonNull final List<String> lines) {
+    final List<String> out = new ArrayList<>(lines.size() + this.header.size());
+    out.addAll(this.header);
+
+    // Blocks used per node, as nodes like equal list items might occur several times
+    final Map<String, Integer> used = new HashMap<>();
+    final NodeTracker tracker = new NodeTracker();
+    for (final String line : lines) {
+      if (isComment(line)) {
+        out.add(line);
+        continue;
+      }
+
+      final String node = tracker.next(line);
+      final List<List<String>> blocks = this.comments.get(node);
+      if (blocks != null) {
+        final int index = used.merge(node, 1, Integer::sum) - 1;
+        if (index < blocks.size()) {
+          out.addAll(blocks.get(index));
+        }
+      }
+      out.add(line);
+    }
+
+    out.addAll(this.footer);
+    dropUnused(used);
+    return out;
+  }
+
+  public List<String> getHeader() {
+    return Collections.unmodifiableList(this.header);
+  }
+
+  public List<String> getFooter() {
+    return Collections.unmodifiableList(this.footer);
+  }
+
+  private void dropUnused(final Map<String, Integer> used) {
+    final Iterator<Map.Entry<String, List<List<String>>>> iterator =
+        this.comments.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<String, List<List<String>>> entry = iterator.next();
+      final int count = used.getOrDefault(entry.getKey(), 0);
+      if (count == 0) {
+        iterator.remove();
+      } else if (count < entry.getValue().size()) {
+        entry.getValue().subList(count, entry.getValue().size()).clear();
+      }
+    }
+  }
+
+  private static boolean isComment(final String line) {
+    final String trimmed = line.trim();
+    return trimmed.isEmpty() || trimmed.startsWith("#");
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Resolving the paths of lines
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Resolves the node of each line from the indentation of the lines before.
+   */
+  private static final class NodeTracker {
+
+    private final List<Integer> indents = new ArrayList<>();
+    private final List<String> paths = new ArrayList<>();
+
+    String next(final String line) {
+      final int indent = indentOf(line);
+      final boolean listItem = line.startsWith("-", indent);
+
+      // List items might have the same indentation as their parent
+      while (!this.indents.isEmpty()) {
+        final int last = this.indents.get(this.indents.size() - 1);
+        if (last < indent || (listItem && last == indent)) {
+          break;
+        }
+        this.indents.remove(this.indents.size() - 1);
+        this.paths.remove(this.paths.size() - 1);
+      }
+
+      final String parent = this.paths.isEmpty() ? "" : this.paths.get(this.paths.size() - 1);
+      final String key = listItem ? null : keyOf(line, indent);
+      if (key == null) {
+        return parent + '\0' + line.trim();
+      }
+
+      final String path = parent.isEmpty() ? key : parent + '.' + key;
+      this.indents.add(indent);
+      this.paths.add(path);
+      return path;
+    }
+
+    private static int indentOf(final String line) {
+      int indent = 0;
+      while (indent < line.length() && line.charAt(indent) == ' ') {
+        indent++;
+      }
+      return indent;
+    }
+
+    /**
+     * @return the key of the line or null if it's no key, like lines of multiline strings.
+     */
+    private static String keyOf(final String line, final int start) {
+      char quote = 0;
+      for (int i = start; i < line.length(); i++) {
+        final char c = line.charAt(i);
+        if (quote != 0) {
+          if (c == quote) {
+            quote = 0;
+          }
+        } else if (c == '\'' || c == '"') {
+          quote = c;
+        } else if (c == ':' && (i + 1 == line.length() || line.charAt(i + 1) == ' ')) {
+          return line.substring(start, i).trim();
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -1,17 +1,24 @@
 package de.leonhard.storage.internal.editor.yaml;
 
+import de.leonhard.storage.internal.settings.CompressionSettings;
+import de.leonhard.storage.internal.settings.WriteSettings;
 import de.leonhard.storage.util.FileUtils;
 import de.leonhard.storage.util.YamlUtils;
 import java.io.File;
 import java.util.List;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 @Getter
 @RequiredArgsConstructor
 public class YamlEditor {
 
   private final File file;
+  @Setter
+  private WriteSettings writeSettings = WriteSettings.DIRECT;
+  @Setter
+  private CompressionSettings compressionSettings = CompressionSettings.NONE;
 
   public List<String> read() {
     return FileUtils.readAllLines(file);
@@ -49,10 +56,21 @@ public class YamlEditor {
   // Writing specific things from File
   // ----------------------------------------------------------------------------------------------------
   public void write(final List<String> lines) {
-    FileUtils.write(file, lines);
+    FileUtils.write(file, lines, writeSettings, compressionSettings);
   }
 
   public void setHeader(final List<String> header) {
+    write(withHeader(header));
+  }
+
+  public void addHeader(final List<String> header) {
+    write(withAddedHeader(header));
+  }
+
+  /**
+   * @return The lines of our file with its header replaced by the given one.
+   */
+  public List<String> withHeader(final List<String> header) {
     final List<String> lines = read();
 
     // Remove old header
@@ -63,19 +81,18 @@ public class YamlEditor {
       final String toAdd = header.get(i);
       lines.add(i, toAdd.startsWith("#") ? toAdd : "#" + toAdd);
     }
-
-    // Write to file
-    write(lines);
+    return lines;
   }
 
-  public void addHeader(final List<String> header) {
+  /**
+   * @return The lines of our file with the given header added in front of them.
+   */
+  public List<String> withAddedHeader(final List<String> header) {
     final List<String> lines = read();
     for (int i = 0; i < header.size(); i++) {
       final String toAdd = header.get(i);
       lines.add(i, toAdd.startsWith("#") ? toAdd : "#" + toAdd);
     }
-
-    // Write to file
-    write(lines);
+    return lines;
   }
 }
@@ -2,7 +2,6 @@ package de.leonhard.storage.internal.editor.yaml;
 
 import java.util.*;
 import lombok.RequiredArgsConstructor;
-import lombok.val;
 
 @RequiredArgsConstructor
 public final class YamlParser {
@@ -11,43 +10,15 @@ public final class YamlParser {
 
   private final YamlEditor yamlEditor;
 
+  /**
+   * Inserts the comments of the old lines into the updated lines.
+   *
+   * @see YamlComments
+   */
   public List<String> parseLines(
       final List<String> comments,
       final List<String> updated) {
-    final List<String> out = new ArrayList<>();
-    final Map<String, List<String>> parsed = assignCommentsToKey(comments);
-
-    for (final String line : updated) {
-      val rawList = getKeyAndRemove(line, parsed);
-      if (rawList == null || rawList.isEmpty()) {
-
-        out.add(line);
-        continue;
-      }
-
-      Collections.reverse(rawList);
-      out.addAll(rawList);
-      if (!line.equals(FOOTER)) {
-        out.add(line);
-      }
-    }
-
-    return out;
-  }
-
-  private List<String> getKeyAndRemove(String key, final Map<String, List<String>> data) {
-    key = key.split(":")[0];
-    for (final val entry : data.entrySet()) {
-      final String entryKey = entry.getKey().split(":")[0];
-
-      // using substring since indentation might differ a bit
-      if (key.equals(entryKey) || key.substring(1).equals(entryKey)) {
-        data.remove(entry.getKey());
-        return entry.getValue();
-      }
-    }
-
-    return new ArrayList<>();
+    return YamlComments.parse(comments).merge(updated);
   }
 
   public Map<String, List<String>> assignCommentsToKey() {
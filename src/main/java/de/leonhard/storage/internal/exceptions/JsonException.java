@@ -0,0 +1,19 @@
+package de.leonhard.storage.internal.exceptions;
+
+import de.leonhard.storage.internal.exception.SimplixException;
+
+/**
+ * Thrown when a problem occurs during parsing or writing JSON data.
+ */
+public class JsonException extends SimplixException {
+
+  private static final long serialVersionUID = 1L;
+
+  public JsonException(final Throwable cause, final String... messages) {
+    super(cause, messages);
+  }
+
+  public JsonException(final String... messages) {
+    super(messages);
+  }
+}
@@ -0,0 +1,19 @@
+package de.leonhard.storage.internal.exceptions;
+
+import de.leonhard.storage.internal.exception.SimplixException;
+
+/**
+ * Thrown when a problem occurs during reading binary sdb data.
+ */
+public class SdbException extends SimplixException {
+
+  private static final long serialVersionUID = 1L;
+
+  public SdbException(final Throwable cause, final String... messages) {
+    super(cause, messages);
+  }
+
+  public SdbException(final String... messages) {
+    super(messages);
+  }
+}
@@ -0,0 +1,42 @@
+package de.leonhard.storage.internal.provider;
+
+import de.leonhard.storage.internal.editor.yaml.FastYamlReader;
+import de.leonhard.storage.internal.editor.yaml.FastYamlWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * YamlProvider using hand-written YAML code for plain trees of Maps, Lists and scalars, which is
+ * what Yaml files usually contain. Anything else is still handled by yamlbeans.
+ *
+ * <p>Produces the same output as yamlbeans, as long as the default {@link
+ * SimplixProviders#yamlConfig()} is used. Enable it using {@code SimplixProviders.yamlProvider(new
+ * FastYamlProvider())}.
+ */
+public class FastYamlProvider extends YamlProvider {
+
+  @Override
+  public Map<String, Object> read(@NonNull final Reader reader) throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    final char[] buffer = new char[8192];
+    int read;
+    while ((read = reader.read(buffer)) != -1) {
+      builder.append(buffer, 0, read);
+    }
+    return new FastYamlReader(builder.toString()).readToMap();
+  }
+
+  @Override
+  public void write(
+      @NonNull final Map<String, Object> data,
+      @NonNull final Writer writer) throws IOException {
+    if (!FastYamlWriter.isSupported(data)) {
+      super.write(data, writer);
+      return;
+    }
+    new FastYamlWriter(writer).write(data);
+  }
+}
@@ -0,0 +1,316 @@
+package de.leonhard.storage.internal.provider;
+
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.util.LatencyHistogram;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * MetricsProvider keeping lock-free counters and latency histograms per file in memory. FlatFiles
+ * of the same file share their metrics.
+ *
+ * <p>Enable it using {@code SimplixProviders.metricsProvider(metrics)} and read the metrics using
+ * {@link #getMetrics(File)} or {@link #scrape()}.
+ */
+public class InMemoryMetricsProvider extends MetricsProvider {
+
+  private final Map<File, FileMetrics> metrics = new ConcurrentHashMap<>();
+
+  @Override
+  public void onGet(final FlatFile flatFile) {
+    metricsOf(flatFile).gets.increment();
+  }
+
+  @Override
+  public void onSet(final FlatFile flatFile) {
+    metricsOf(flatFile).sets.increment();
+  }
+
+  @Override
+  public void onRemove(final FlatFile flatFile) {
+    metricsOf(flatFile).removes.increment();
+  }
+
+  @Override
+  public void onReloadCheck(final FlatFile flatFile, final boolean reload) {
+    final FileMetrics fileMetrics = metricsOf(flatFile);
+    fileMetrics.reloadChecks.increment();
+    if (reload) {
+      fileMetrics.triggeredReloads.increment();
+    }
+  }
+
+  @Override
+  public void onReload(final FlatFile flatFile, final long nanos) {
+    final FileMetrics fileMetrics = metricsOf(flatFile);
+    fileMetrics.reloads.increment();
+    fileMetrics.reloadLatency.record(nanos);
+  }
+
+  @Override
+  public void onReloadFailure(final FlatFile flatFile) {
+    metricsOf(flatFile).reloadFailures.increment();
+  }
+
+  @Override
+  public void onWrite(final FlatFile flatFile, final long bytes, final long nanos) {
+    final FileMetrics fileMetrics = metricsOf(flatFile);
+    fileMetrics.writes.increment();
+    fileMetrics.bytesWritten.add(bytes);
+    fileMetrics.writeLatency.record(nanos);
+  }
+
+  @Override
+  public void onWriteFailure(final FlatFile flatFile, final long nanos) {
+    final FileMetrics fileMetrics = metricsOf(flatFile);
+    fileMetrics.writeFailures.increment();
+    fileMetrics.writeLatency.record(nanos);
+  }
+
+  @Override
+  public void onCompressedRead(
+      final FlatFile flatFile,
+      final long rawBytes,
+      final long compressedBytes) {
+    final FileMetrics fileMetrics = metricsOf(flatFile);
+    fileMetrics.rawBytesRead.add(rawBytes);
+    fileMetrics.compressedBytesRead.add(compressedBytes);
+  }
+
+  @Override
+  public void onCompressedWrite(
+      final FlatFile flatFile,
+      final long rawBytes,
+      final long compressedBytes) {
+    final FileMetrics fileMetrics = metricsOf(flatFile);
+    fileMetrics.rawBytesWritten.add(rawBytes);
+    fileMetrics.compressedBytesWritten.add(compressedBytes);
+  }
+
+  /**
+   * @return Metrics of the file, null if no FlatFile of it reported anything yet.
+   */
+  @Nullable
+  public FileMetrics getMetrics(@NonNull final File file) {
+    return this.metrics.get(file.getAbsoluteFile());
+  }
+
+  public Map<File, FileMetrics> getAllMetrics() {
+    return Collections.unmodifiableMap(this.metrics);
+  }
+
+  public void reset() {
+    this.metrics.clear();
+  }
+
+  /**
+   * Formats all metrics in the Prometheus text format, one line per metric and file, like
+   * {@code simplix_writes_total{file="/data/config.yml"} 12}. Durations are in seconds.
+   */
+  public String scrape() {
+    final StringBuilder builder = new StringBuilder();
+    for (final Map.Entry<File, FileMetrics> entry : new TreeMap<>(this.metrics).entrySet()) {
+      final String label = "{file=\"" + escape(entry.getKey().getPath()) + "\"";
+      final FileMetrics fileMetrics = entry.getValue();
+      appendLine(builder, "simplix_gets_total", label, fileMetrics.getGets());
+      appendLine(builder, "simplix_sets_total", label, fileMetrics.getSets());
+      appendLine(builder, "simplix_removes_total", label, fileMetrics.getRemoves());
+      appendLine(builder, "simplix_reload_checks_total", label, fileMetrics.getReloadChecks());
+      appendLine(
+          builder,
+          "simplix_triggered_reloads_total",
+          label,
+          fileMetrics.getTriggeredReloads());
+      appendLine(builder, "simplix_reloads_total", label, fileMetrics.getReloads());
+      appendLine(builder, "simplix_reload_failures_total", label, fileMetrics.getReloadFailures());
+      appendLine(builder, "simplix_writes_total", label, fileMetrics.getWrites());
+      appendLine(builder, "simplix_write_failures_total", label, fileMetrics.getWriteFailures());
+      appendLine(builder, "simplix_written_bytes_total", label, fileMetrics.getBytesWritten());
+      appendLine(
+          builder,
+          "simplix_compression_read_raw_bytes_total",
+          label,
+          fileMetrics.getRawBytesRead());
+      appendLine(
+          builder,
+          "simplix_compression_read_compressed_bytes_total",
+          label,
+          fileMetrics.getCompressedBytesRead());
+      appendLine(
+          builder,
+          "simplix_compression_written_raw_bytes_total",
+          label,
+          fileMetrics.getRawBytesWritten());
+      appendLine(
+          builder,
+          "simplix_compression_written_compressed_bytes_total",
+          label,
+          fileMetrics.getCompressedBytesWritten());
+      appendLatency(builder, "simplix_reload_seconds", label, fileMetrics.getReloadLatency());
+      appendLatency(builder, "simplix_write_seconds", label, fileMetrics.getWriteLatency());
+    }
+    return builder.toString();
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Internal
+  // ----------------------------------------------------------------------------------------------------
+
+  private FileMetrics metricsOf(final FlatFile flatFile) {
+    // Keyed by the absolute file, so relative files hit the lookup without locking as well
+    final File file = flatFile.getFile().getAbsoluteFile();
+    final FileMetrics fileMetrics = this.metrics.get(file);
+    if (fileMetrics != null) {
+      return fileMetrics;
+    }
+    return this.metrics.computeIfAbsent(file, ignored -> new FileMetrics());
+  }
+
+  private static void appendLatency(
+      final StringBuilder builder,
+      final String name,
+      final String label,
+      final LatencyHistogram.Snapshot snapshot) {
+    for (final double quantile : new double[]{0.5, 0.99, 0.999}) {
+      builder
+          .append(name).append(label).append(",quantile=\"").append(quantile).append("\"} ")
+          .append(snapshot.getPercentile(quantile * 100) / 1e9).append('\n');
+    }
+    builder.append(name).append("_count").append(label).append("} ")
+        .append(snapshot.getCount()).append('\n');
+    builder.append(name).append("_sum").append(label).append("} ")
+        .append(snapshot.getSum() / 1e9).append('\n');
+  }
+
+  private static void appendLine(
+      final StringBuilder builder,
+      final String name,
+      final String label,
+      final long value) {
+    builder.append(name).append(label).append("} ").append(value).append('\n');
+  }
+
+  private static String escape(final String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  public static final class FileMetrics {
+
+    private final LongAdder gets = new LongAdder();
+    private final LongAdder sets = new LongAdder();
+    private final LongAdder removes = new LongAdder();
+    private final LongAdder reloadChecks = new LongAdder();
+    private final LongAdder triggeredReloads = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder rawBytesRead = new LongAdder();
+    private final LongAdder compressedBytesRead = new LongAdder();
+    private final LongAdder rawBytesWritten = new LongAdder();
+    private final LongAdder compressedBytesWritten = new LongAdder();
+    private final LatencyHistogram reloadLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+    private FileMetrics() {
+    }
+
+    public long getGets() {
+      return this.gets.sum();
+    }
+
+    public long getSets() {
+      return this.sets.sum();
+    }
+
+    public long getRemoves() {
+      return this.removes.sum();
+    }
+
+    public long getReloadChecks() {
+      return this.reloadChecks.sum();
+    }
+
+    /**
+     * @return Reload checks which found the file changed and reloaded it.
+     */
+    public long getTriggeredReloads() {
+      return this.triggeredReloads.sum();
+    }
+
+    /**
+     * @return Reloads in total, including explicit calls of forceReload().
+     */
+    public long getReloads() {
+      return this.reloads.sum();
+    }
+
+    /**
+     * @return Reloads which failed to read or parse the file. Included in {@link #getReloads()}.
+     */
+    public long getReloadFailures() {
+      return this.reloadFailures.sum();
+    }
+
+    /**
+     * @return Successful writes.
+     */
+    public long getWrites() {
+      return this.writes.sum();
+    }
+
+    /**
+     * @return Writes which failed. Their durations are included in {@link #getWriteLatency()}.
+     */
+    public long getWriteFailures() {
+      return this.writeFailures.sum();
+    }
+
+    public long getBytesWritten() {
+      return this.bytesWritten.sum();
+    }
+
+    /**
+     * @return Bytes read from compressed files of this file after decompression.
+     */
+    public long getRawBytesRead() {
+      return this.rawBytesRead.sum();
+    }
+
+    /**
+     * @return Bytes read from compressed files of this file before decompression.
+     */
+    public long getCompressedBytesRead() {
+      return this.compressedBytesRead.sum();
+    }
+
+    /**
+     * @return Bytes written to this file with compression before compressing them.
+     */
+    public long getRawBytesWritten() {
+      return this.rawBytesWritten.sum();
+    }
+
+    /**
+     * @return Bytes written to this file with compression after compressing them.
+     */
+    public long getCompressedBytesWritten() {
+      return this.compressedBytesWritten.sum();
+    }
+
+    public LatencyHistogram.Snapshot getReloadLatency() {
+      return this.reloadLatency.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot getWriteLatency() {
+      return this.writeLatency.snapshot();
+    }
+  }
+}
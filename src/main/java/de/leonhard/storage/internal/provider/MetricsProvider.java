@@ -0,0 +1,95 @@
+package de.leonhard.storage.internal.provider;
+
+import de.leonhard.storage.internal.FlatFile;
+
+/**
+ * Receives metrics of every FlatFile. Does nothing by default, in which case FlatFiles don't even
+ * measure durations. See {@link InMemoryMetricsProvider} for an implementation collecting them.
+ *
+ * <p>Methods are called on the hot paths of FlatFiles, from any thread, and should return quickly.
+ */
+public abstract class MetricsProvider {
+
+  /**
+   * Used while no MetricsProvider is set.
+   */
+  public static final MetricsProvider NONE = new MetricsProvider() {};
+
+  public void onGet(final FlatFile flatFile) {
+  }
+
+  /**
+   * Called for every key set, including those set in a batch.
+   */
+  public void onSet(final FlatFile flatFile) {
+  }
+
+  /**
+   * Called for every key removed, including those removed in a batch.
+   */
+  public void onRemove(final FlatFile flatFile) {
+  }
+
+  /**
+   * Called whenever a FlatFile checked whether its file has to be reloaded.
+   *
+   * @param reload Whether the check triggered a reload
+   */
+  public void onReloadCheck(final FlatFile flatFile, final boolean reload) {
+  }
+
+  /**
+   * Called after a FlatFile read its file, even if reading it failed.
+   *
+   * @param nanos Duration of reading and parsing the file
+   */
+  public void onReload(final FlatFile flatFile, final long nanos) {
+  }
+
+  /**
+   * Called after {@link #onReload(FlatFile, long)}, if reading or parsing the file failed.
+   */
+  public void onReloadFailure(final FlatFile flatFile) {
+  }
+
+  /**
+   * Called after a FlatFile wrote its file.
+   *
+   * @param bytes Bytes written to the file
+   * @param nanos Duration of the write
+   */
+  public void onWrite(final FlatFile flatFile, final long bytes, final long nanos) {
+  }
+
+  /**
+   * Called instead of {@link #onWrite(FlatFile, long, long)} if writing the file failed.
+   *
+   * @param nanos Duration until the write failed
+   */
+  public void onWriteFailure(final FlatFile flatFile, final long nanos) {
+  }
+
+  /**
+   * Called after a FlatFile read its file, if the file was compressed.
+   *
+   * @param rawBytes        Bytes after decompression
+   * @param compressedBytes Bytes read from the file
+   */
+  public void onCompressedRead(
+      final FlatFile flatFile,
+      final long rawBytes,
+      final long compressedBytes) {
+  }
+
+  /**
+   * Called after a FlatFile wrote its file compressed.
+   *
+   * @param rawBytes        Bytes before compression
+   * @param compressedBytes Bytes written to the file
+   */
+  public void onCompressedWrite(
+      final FlatFile flatFile,
+      final long rawBytes,
+      final long compressedBytes) {
+  }
+}
@@ -22,6 +22,10 @@ public class SimplixProviders {
   private InputStreamProvider inputStreamProvider;
   @Setter
   private ExceptionHandler exceptionHandler;
+  @Setter
+  private YamlProvider yamlProvider;
+  @Setter
+  private MetricsProvider metricsProvider;
 
   public MapProvider mapProvider() {
     if (mapProvider == null) {
@@ -59,4 +63,20 @@ public class SimplixProviders {
 
     return exceptionHandler;
   }
+
+  public YamlProvider yamlProvider() {
+    if (yamlProvider == null) {
+      yamlProvider = new YamlProvider() {};
+    }
+
+    return yamlProvider;
+  }
+
+  public MetricsProvider metricsProvider() {
+    if (metricsProvider == null) {
+      metricsProvider = MetricsProvider.NONE;
+    }
+
+    return metricsProvider;
+  }
 }
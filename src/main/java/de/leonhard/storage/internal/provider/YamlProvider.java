@@ -0,0 +1,31 @@
+package de.leonhard.storage.internal.provider;
+
+import de.leonhard.storage.internal.editor.yaml.SimpleYamlReader;
+import de.leonhard.storage.internal.editor.yaml.SimpleYamlWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+import lombok.NonNull;
+
+/**
+ * Reads and writes the data of Yaml files. Uses yamlbeans with {@link SimplixProviders#yamlConfig()}
+ * by default. See {@link FastYamlProvider} for a faster implementation.
+ */
+public abstract class YamlProvider {
+
+  /**
+   * Reads the data of a Yaml file. The Reader is closed by the caller.
+   */
+  public Map<String, Object> read(@NonNull final Reader reader) throws IOException {
+    return new SimpleYamlReader(reader).readToMap();
+  }
+
+  public void write(
+      @NonNull final Map<String, Object> data,
+      @NonNull final Writer writer) throws IOException {
+    final SimpleYamlWriter yamlWriter = new SimpleYamlWriter(writer);
+    yamlWriter.write(data);
+    yamlWriter.close();
+  }
+}
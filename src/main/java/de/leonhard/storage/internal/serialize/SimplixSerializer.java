@@ -1,28 +1,52 @@
 package de.leonhard.storage.internal.serialize;
 
 import de.leonhard.storage.util.Valid;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import org.jetbrains.annotations.Nullable;
 
 /**
- * Class to register serializable's
+ * Class to register serializable's.
+ *
+ * <p>A class is serialized by the serializable registered for it or, if there is none, by the one
+ * of its closest superclass or interface. The result is resolved once per class and cached,
+ * including classes without a serializable, until the next registration.
+ *
+ * <p>Deserializing uses the same serializable, but as that might create instances of a superclass,
+ * the result is checked to be an instance of the requested class.
  */
 @UtilityClass
 public class SimplixSerializer {
 
-  private final List<SimplixSerializable<?>> serializables = Collections
-      .synchronizedList(new ArrayList<>());
+  private final Map<Class<?>, SimplixSerializable<?>> serializables = new ConcurrentHashMap<>();
+  // Incremented on registration, so cached resolutions are redone
+  private final AtomicInteger generation = new AtomicInteger();
+  // ClassValue instead of a Map, so classes of unloaded ClassLoaders aren't kept
+  private final ClassValue<Resolution> resolutions = new ClassValue<Resolution>() {
+    @Override
+    protected Resolution computeValue(final Class<?> type) {
+      return new Resolution(generation.get(), resolve(type));
+    }
+  };
 
   public boolean isSerializable(final Class<?> clazz) {
     return findSerializable(clazz) != null;
   }
 
   /**
-   * Register a serializable to our list
+   * Register a serializable. If another serializable was registered for the same class before, it
+   * is kept.
    *
    * @param serializable Serializable to register
    */
@@ -30,29 +54,27 @@ public class SimplixSerializer {
     Valid.notNull(
         serializable.getClazz(),
         "Class of serializable mustn't be null");
-    serializables.add(serializable);
+    if (serializables.putIfAbsent(serializable.getClazz(), serializable) == null) {
+      generation.incrementAndGet();
+    }
   }
 
   @Nullable
   public SimplixSerializable<?> findSerializable(final Class<?> clazz) {
-    for (final SimplixSerializable<?> serializable : serializables) {
-      if (serializable.getClazz().equals(clazz)) {
-        return serializable;
-      }
+    Resolution resolution = resolutions.get(clazz);
+    if (resolution.generation != generation.get()) {
+      resolutions.remove(clazz);
+      resolution = resolutions.get(clazz);
     }
-    return null;
+    return resolution.serializable;
   }
 
   @SuppressWarnings("ALL")
-  /**e
+  /**
    * Method to save an object
    */
   public Object serialize(final Object obj) {
-    final SimplixSerializable serializable = findSerializable(obj.getClass());
-
-    Valid.notNull(
-        serializable,
-        "No serializable found for '" + obj.getClass().getSimpleName() + "'");
+    final SimplixSerializable serializable = serializableOf(obj.getClass());
     return serializable.serialize(obj);
   }
 
@@ -62,6 +84,101 @@ public class SimplixSerializer {
         serializable,
         "No serializable found for '" + type.getSimpleName() + "'",
         "Raw: '" + raw.getClass().getSimpleName() + "'");
-    return (T) serializable.deserialize(raw);
+    return checkType(serializable, serializable.deserialize(raw), type);
+  }
+
+  /**
+   * Serializes all values with the serializable of the given type, which is only looked up once.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<Object> serializeList(
+      @NonNull final Collection<? extends T> values,
+      @NonNull final Class<T> type) {
+    final SimplixSerializable<T> serializable = (SimplixSerializable<T>) serializableOf(type);
+    final List<Object> result = new ArrayList<>(values.size());
+    for (final T value : values) {
+      result.add(serializable.serialize(value));
+    }
+    return result;
+  }
+
+  /**
+   * Deserializes all elements with the serializable of the given type, which is only looked up
+   * once.
+   */
+  public <T> List<T> deserializeList(@NonNull final List<?> raw, @NonNull final Class<T> type) {
+    final SimplixSerializable<?> serializable = serializableOf(type);
+    final List<T> result = new ArrayList<>(raw.size());
+    for (final Object element : raw) {
+      result.add(checkType(serializable, serializable.deserialize(element), type));
+    }
+    return result;
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Internal
+  // ----------------------------------------------------------------------------------------------------
+
+  private SimplixSerializable<?> serializableOf(final Class<?> clazz) {
+    final SimplixSerializable<?> serializable = findSerializable(clazz);
+    Valid.notNull(
+        serializable,
+        "No serializable found for '" + clazz.getSimpleName() + "'");
+    return serializable;
+  }
+
+  // Serializables of superclasses might not create instances of the requested class
+  private <T> T checkType(
+      final SimplixSerializable<?> serializable,
+      @Nullable final Object deserialized,
+      final Class<T> type) {
+    Valid.checkBoolean(
+        deserialized == null || type.isInstance(deserialized),
+        "Serializable for '" + serializable.getClazz().getSimpleName()
+        + "' can't deserialize '" + type.getSimpleName() + "'",
+        "Deserialized: '" + (deserialized == null ? null : deserialized.getClass().getSimpleName())
+        + "'");
+    return type.cast(deserialized);
+  }
+
+  // The class itself, then its superclasses, then the interfaces of all of them, closest first
+  @Nullable
+  private SimplixSerializable<?> resolve(final Class<?> type) {
+    for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+      final SimplixSerializable<?> serializable = serializables.get(current);
+      if (serializable != null) {
+        return serializable;
+      }
+    }
+
+    final Deque<Class<?>> queue = new ArrayDeque<>();
+    final Set<Class<?>> visited = new HashSet<>();
+    for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+      Collections.addAll(queue, current.getInterfaces());
+    }
+    while (!queue.isEmpty()) {
+      final Class<?> anInterface = queue.poll();
+      if (!visited.add(anInterface)) {
+        continue;
+      }
+      final SimplixSerializable<?> serializable = serializables.get(anInterface);
+      if (serializable != null) {
+        return serializable;
+      }
+      Collections.addAll(queue, anInterface.getInterfaces());
+    }
+    return null;
+  }
+
+  private static final class Resolution {
+
+    private final int generation;
+    @Nullable
+    private final SimplixSerializable<?> serializable;
+
+    private Resolution(final int generation, @Nullable final SimplixSerializable<?> serializable) {
+      this.generation = generation;
+      this.serializable = serializable;
+    }
   }
 }
@@ -0,0 +1,17 @@
+package de.leonhard.storage.internal.settings;
+
+/**
+ * Defines whether a FlatFile compresses its file when writing. Compressed files are detected by
+ * their content when reading, so files can be switched between both settings at any time.
+ */
+public enum CompressionSettings {
+  /**
+   * Write the file as it is.
+   */
+  NONE,
+  /**
+   * Write the file GZIP compressed, favoring speed over size. Text data typically shrinks to a
+   * tenth, which pays off on slow disks. The file can be inspected using gunzip or zcat.
+   */
+  GZIP
+}
@@ -0,0 +1,19 @@
+package de.leonhard.storage.internal.settings;
+
+/**
+ * Defines how a FlatFile publishes changes of its data to concurrent readers.
+ */
+public enum ConcurrencySettings {
+  /**
+   * Changes and reloads modify the FileData in place. Writers are synchronized, readers aren't,
+   * so concurrent reads might see partially applied changes.
+   */
+  IN_PLACE,
+  /**
+   * Every change and reload creates a new FileData, sharing all untouched sections with the
+   * previous one, which is then published atomically. Readers never lock and never see partial
+   * state. Published data is treated as immutable and mustn't be modified through {@code
+   * getFileData()} or {@code getData()}.
+   */
+  COPY_ON_WRITE
+}
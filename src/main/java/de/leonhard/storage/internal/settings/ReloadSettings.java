@@ -3,5 +3,10 @@ package de.leonhard.storage.internal.settings;
 public enum ReloadSettings {
   AUTOMATICALLY,
   INTELLIGENT,
+  /**
+   * Like {@link #INTELLIGENT}, but changes are detected by a shared {@link
+   * java.nio.file.WatchService} instead of checking the modification date on every read.
+   */
+  WATCHED,
   MANUALLY
 }
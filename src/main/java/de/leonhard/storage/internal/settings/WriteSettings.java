@@ -0,0 +1,22 @@
+package de.leonhard.storage.internal.settings;
+
+/**
+ * Defines how a FlatFile replaces the content of its file when writing.
+ */
+public enum WriteSettings {
+  /**
+   * Truncate the file and write the new content into it. Fastest, but a crash while writing
+   * leaves a partially written file, and reloads in the meantime might read partial content.
+   */
+  DIRECT,
+  /**
+   * Write to a temporary file next to the file first, which then atomically replaces the file.
+   * Reloads always see either the old or the new content.
+   */
+  ATOMIC,
+  /**
+   * Like {@link #ATOMIC}, but force the new content to the disk before replacing the file, so
+   * it survives a power loss. Considerably slower than ATOMIC.
+   */
+  ATOMIC_SYNC
+}
@@ -56,6 +56,21 @@ public class FlatFileSection implements DataStorage {
     return flatFile.get(createFinalKey(key));
   }
 
+  @Override
+  public int[] getIntArray(final String key) {
+    return flatFile.getIntArray(createFinalKey(key));
+  }
+
+  @Override
+  public long[] getLongArray(final String key) {
+    return flatFile.getLongArray(createFinalKey(key));
+  }
+
+  @Override
+  public double[] getDoubleArray(final String key) {
+    return flatFile.getDoubleArray(createFinalKey(key));
+  }
+
   @Override
   public <E extends Enum<E>> E getEnum(String key, Class<E> enumType) {
     return flatFile.getEnum(createFinalKey(key), enumType);
@@ -94,6 +94,26 @@ public class ClassWrapper {
       return new Long[0];
     }
 
+    /**
+     * Converts every element of a List, which may be Numbers or Strings, without boxing.
+     *
+     * @return Converted elements or an empty array if obj isn't a List
+     */
+    public long[] toLongArray(final Object obj) {
+      if (!(obj instanceof List)) {
+        return new long[0];
+      }
+      final List<?> list = (List<?>) obj;
+      final long[] result = new long[list.size()];
+      for (int i = 0; i < result.length; i++) {
+        final Object element = list.get(i);
+        result[i] = element instanceof Number
+                    ? ((Number) element).longValue()
+                    : Long.parseLong(element.toString());
+      }
+      return result;
+    }
+
     public Long getLong(final Object obj) {
       if (obj instanceof Number) {
         return ((Number) obj).longValue();
@@ -117,6 +137,26 @@ public class ClassWrapper {
       return new Double[0];
     }
 
+    /**
+     * Converts every element of a List, which may be Numbers or Strings, without boxing.
+     *
+     * @return Converted elements or an empty array if obj isn't a List
+     */
+    public double[] toDoubleArray(final Object obj) {
+      if (!(obj instanceof List)) {
+        return new double[0];
+      }
+      final List<?> list = (List<?>) obj;
+      final double[] result = new double[list.size()];
+      for (int i = 0; i < result.length; i++) {
+        final Object element = list.get(i);
+        result[i] = element instanceof Number
+                    ? ((Number) element).doubleValue()
+                    : Double.parseDouble(element.toString());
+      }
+      return result;
+    }
+
     public Double getDouble(final Object obj) {
       if (obj instanceof Number) {
         return ((Number) obj).doubleValue();
@@ -163,6 +203,26 @@ public class ClassWrapper {
       return new Integer[0];
     }
 
+    /**
+     * Converts every element of a List, which may be Numbers or Strings, without boxing.
+     *
+     * @return Converted elements or an empty array if obj isn't a List
+     */
+    public int[] toIntArray(final Object obj) {
+      if (!(obj instanceof List)) {
+        return new int[0];
+      }
+      final List<?> list = (List<?>) obj;
+      final int[] result = new int[list.size()];
+      for (int i = 0; i < result.length; i++) {
+        final Object element = list.get(i);
+        result[i] = element instanceof Number
+                    ? ((Number) element).intValue()
+                    : Integer.parseInt(element.toString());
+      }
+      return result;
+    }
+
     public Integer getInt(final Object obj) {
       if (obj instanceof Number) {
         return ((Number) obj).intValue();
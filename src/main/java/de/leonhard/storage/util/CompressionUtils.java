@@ -0,0 +1,309 @@
+package de.leonhard.storage.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * GZIP compression of files, as used by
+ * {@link de.leonhard.storage.internal.settings.CompressionSettings#GZIP}.
+ *
+ * <p>Deflaters hold native memory and are expensive to create, so they are pooled instead of
+ * being created for every write like GZIPOutputStream does. Compressed and raw bytes of compressed
+ * files are counted across all files to judge the benefit of compression. Per file, they are
+ * reported to the {@link de.leonhard.storage.internal.provider.MetricsProvider}.
+ */
+@UtilityClass
+public class CompressionUtils {
+
+  private final int MAX_POOLED_DEFLATERS = Runtime.getRuntime().availableProcessors() * 2;
+  private final Queue<Deflater> deflaterPool = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pooledDeflaters = new AtomicInteger();
+
+  private final LongAdder rawBytesWritten = new LongAdder();
+  private final LongAdder compressedBytesWritten = new LongAdder();
+  private final LongAdder rawBytesRead = new LongAdder();
+  private final LongAdder compressedBytesRead = new LongAdder();
+
+  // ----------------------------------------------------------------------------------------------------
+  // Detecting & reading
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * @return Whether the data starts with the GZIP magic bytes.
+   */
+  public boolean isCompressed(final int firstByte, final int secondByte) {
+    return firstByte == 0x1F && secondByte == 0x8B;
+  }
+
+  /**
+   * @return Whether the remaining bytes of the buffer start with the GZIP magic bytes.
+   */
+  public boolean isCompressed(@NonNull final ByteBuffer buffer) {
+    return buffer.remaining() >= 2
+           && isCompressed(buffer.get(buffer.position()) & 0xFF,
+                           buffer.get(buffer.position() + 1) & 0xFF);
+  }
+
+  /**
+   * Reads the size of the decompressed content from the trailer of a GZIP file, without
+   * decompressing it. GZIP only stores the lower 32 bits of the size.
+   *
+   * @return The size or -1 if the file isn't GZIP compressed.
+   */
+  public long decompressedSize(@NonNull final File file) throws IOException {
+    try (final RandomAccessFile access = new RandomAccessFile(file, "r")) {
+      final long length = access.length();
+      // Header & trailer
+      if (length < 18 || !isCompressed(access.read(), access.read())) {
+        return -1;
+      }
+      access.seek(length - 4);
+      final byte[] trailer = new byte[4];
+      access.readFully(trailer);
+      return (trailer[0] & 0xFFL)
+             | (trailer[1] & 0xFFL) << 8
+             | (trailer[2] & 0xFFL) << 16
+             | (trailer[3] & 0xFFL) << 24;
+    }
+  }
+
+  /**
+   * Decompresses the remaining bytes of the buffer, which must be GZIP compressed.
+   *
+   * @return Buffer containing the decompressed data, ready to be read.
+   */
+  public ByteBuffer decompress(@NonNull final ByteBuffer buffer) throws IOException {
+    final byte[] compressed = new byte[buffer.remaining()];
+    buffer.get(compressed);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+    try (final InputStream in = decompressIfNeeded(new ByteArrayInputStream(compressed))) {
+      final byte[] chunk = new byte[8192];
+      int read;
+      while ((read = in.read(chunk)) != -1) {
+        out.write(chunk, 0, read);
+      }
+    }
+    return ByteBuffer.wrap(out.toByteArray());
+  }
+
+  /**
+   * Returns a stream of the decompressed data if the stream is GZIP compressed, otherwise a stream
+   * of the data itself.
+   */
+  public InputStream decompressIfNeeded(@NonNull final InputStream in) throws IOException {
+    final InputStream buffered = in.markSupported() ? in : new BufferedInputStream(in);
+    buffered.mark(2);
+    final int first = buffered.read();
+    final int second = buffered.read();
+    buffered.reset();
+    if (!isCompressed(first, second)) {
+      return buffered;
+    }
+    return new CountingInputStream(
+        new GZIPInputStream(new CountingInputStream(buffered, compressedBytesRead), 8192),
+        rawBytesRead);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Writing
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Returns a stream compressing the data written to it. {@link DeflaterOutputStream#finish()} has
+   * to be called once all data was written. Closing the stream finishes it as well and closes the
+   * given stream. If writing fails before, {@link #release(DeflaterOutputStream)} has to be called.
+   */
+  public DeflaterOutputStream compress(@NonNull final OutputStream out) throws IOException {
+    return new GzipOutputStream(out, borrowDeflater());
+  }
+
+  /**
+   * Releases the resources of a stream returned by {@link #compress(OutputStream)} without
+   * finishing it, for example after writing failed. The stream can't be used afterwards. Does
+   * nothing if the stream was finished already.
+   */
+  public void release(@NonNull final DeflaterOutputStream compressed) {
+    if (compressed instanceof GzipOutputStream) {
+      ((GzipOutputStream) compressed).releaseDeflater();
+    }
+  }
+
+  private Deflater borrowDeflater() {
+    final Deflater deflater = deflaterPool.poll();
+    if (deflater == null) {
+      return new Deflater(Deflater.BEST_SPEED, true);
+    }
+    pooledDeflaters.decrementAndGet();
+    return deflater;
+  }
+
+  private void returnDeflater(final Deflater deflater) {
+    if (pooledDeflaters.incrementAndGet() > MAX_POOLED_DEFLATERS) {
+      pooledDeflaters.decrementAndGet();
+      deflater.end();
+      return;
+    }
+    deflater.reset();
+    deflaterPool.offer(deflater);
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Statistics
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * @return Bytes written to compressed files before compression.
+   */
+  public long getRawBytesWritten() {
+    return rawBytesWritten.sum();
+  }
+
+  /**
+   * @return Bytes written to compressed files after compression.
+   */
+  public long getCompressedBytesWritten() {
+    return compressedBytesWritten.sum();
+  }
+
+  /**
+   * @return Bytes read from compressed files after decompression.
+   */
+  public long getRawBytesRead() {
+    return rawBytesRead.sum();
+  }
+
+  /**
+   * @return Bytes read from compressed files before decompression.
+   */
+  public long getCompressedBytesRead() {
+    return compressedBytesRead.sum();
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Streams
+  // ----------------------------------------------------------------------------------------------------
+
+  /**
+   * Writes the GZIP format like GZIPOutputStream, but with a pooled Deflater.
+   */
+  private static final class GzipOutputStream extends DeflaterOutputStream {
+
+    // Magic bytes, compression method, flags, modification time, extra flags, OS
+    private static final byte[] HEADER = {
+        0x1F, (byte) 0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final CRC32 crc = new CRC32();
+    private long rawBytes;
+    private boolean finished;
+
+    private GzipOutputStream(final OutputStream out, final Deflater deflater) throws IOException {
+      super(out, deflater, 8192);
+      out.write(HEADER);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+      if (this.def == null) {
+        throw new IOException("Stream was finished or released");
+      }
+      super.write(bytes, offset, length);
+      this.crc.update(bytes, offset, length);
+      this.rawBytes += length;
+    }
+
+    @Override
+    public void finish() throws IOException {
+      if (this.finished) {
+        return;
+      }
+      if (this.def == null) {
+        throw new IOException("Stream was released");
+      }
+      try {
+        super.finish();
+        final long crcValue = this.crc.getValue();
+        this.out.write(new byte[]{
+            (byte) crcValue, (byte) (crcValue >> 8), (byte) (crcValue >> 16),
+            (byte) (crcValue >> 24), (byte) this.rawBytes, (byte) (this.rawBytes >> 8),
+            (byte) (this.rawBytes >> 16), (byte) (this.rawBytes >> 24)});
+        this.finished = true;
+
+        rawBytesWritten.add(this.rawBytes);
+        compressedBytesWritten.add(HEADER.length + this.def.getBytesWritten() + 8);
+      } finally {
+        releaseDeflater();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (this.def == null && !this.finished) {
+        // Released, there is nothing to finish
+        this.out.close();
+        return;
+      }
+      super.close();
+    }
+
+    // The Deflater is reset before being reused, so this is safe at any point
+    private void releaseDeflater() {
+      if (this.def != null) {
+        returnDeflater(this.def);
+        this.def = null;
+      }
+    }
+  }
+
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private final LongAdder counter;
+
+    private CountingInputStream(final InputStream in, final LongAdder counter) {
+      super(in);
+      this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if (b != -1) {
+        this.counter.increment();
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+      final int read = super.read(bytes, offset, length);
+      if (read > 0) {
+        this.counter.add(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      this.counter.add(skipped);
+      return skipped;
+    }
+  }
+}
@@ -72,7 +72,7 @@ public class FastStringWriter extends Writer {
 
   @Override
   public void write(final int c) {
-    this.stringBuilder.append(c);
+    this.stringBuilder.append((char) c);
   }
 
   @Override
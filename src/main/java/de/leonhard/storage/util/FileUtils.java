@@ -1,15 +1,22 @@
 package de.leonhard.storage.util;
 
 import de.leonhard.storage.internal.provider.SimplixProviders;
+import de.leonhard.storage.internal.settings.CompressionSettings;
+import de.leonhard.storage.internal.settings.WriteSettings;
 import lombok.*;
 import lombok.experimental.UtilityClass;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -142,9 +149,14 @@ public class FileUtils {
   // Methods for reading & writing a file
   // ----------------------------------------------------------------------------------------------------
 
+  /**
+   * Creates an InputStream of the content of the file, which is decompressed if the file was
+   * written with {@link CompressionSettings#GZIP}.
+   */
   public InputStream createInputStream(@NonNull final File file) {
     try {
-      return Files.newInputStream(file.toPath());
+      return CompressionUtils.decompressIfNeeded(
+          new BufferedInputStream(Files.newInputStream(file.toPath())));
     } catch (final IOException ex) {
       throw SimplixProviders.exceptionHandler().create(
           ex,
@@ -165,32 +177,65 @@ public class FileUtils {
   }
 
   public Reader createReader(@NonNull final File file) {
+    return new InputStreamReader(createInputStream(file), StandardCharsets.UTF_8);
+  }
+
+  public Writer createWriter(@NonNull final File file) {
+    return createWriter(file, CompressionSettings.NONE);
+  }
+
+  /**
+   * Creates a Writer replacing the content of the file. Closing the Writer finishes the
+   * compression.
+   */
+  public Writer createWriter(
+      @NonNull final File file,
+      @NonNull final CompressionSettings compressionSettings) {
     try {
-      return new InputStreamReader(new FileInputStream(file),StandardCharsets.UTF_8);
-    } catch (final FileNotFoundException ex) {
+      final OutputStream out = new FileOutputStream(file, false);
+      return new OutputStreamWriter(
+          compressionSettings == CompressionSettings.GZIP ? CompressionUtils.compress(out) : out,
+          StandardCharsets.UTF_8);
+    } catch (final IOException ex) {
       throw SimplixProviders.exceptionHandler().create(
           ex,
-          "Error while creating Reader for '" + file.getName() + "'.",
+          "Error while creating Writer for '" + file.getName() + "'.",
           "In: '" + getParentDirPath(file) + "'");
     }
   }
 
-  public Writer createWriter(@NonNull final File file) {
+  public void write(
+      @NonNull final File file,
+      @NonNull final List<String> lines) {
     try {
-       return new OutputStreamWriter(new FileOutputStream(file, false),StandardCharsets.UTF_8);
+      Files.write(file.toPath(), lines);
     } catch (final IOException ex) {
       throw SimplixProviders.exceptionHandler().create(
           ex,
-          "Error while creating Writer for '" + file.getName() + "'.",
+          "Error while writing to '" + file.getName() + "'.",
           "In: '" + getParentDirPath(file) + "'");
     }
   }
 
   public void write(
       @NonNull final File file,
-      @NonNull final List<String> lines) {
+      @NonNull final List<String> lines,
+      @NonNull final WriteSettings writeSettings) {
+    write(file, lines, writeSettings, CompressionSettings.NONE);
+  }
+
+  public void write(
+      @NonNull final File file,
+      @NonNull final List<String> lines,
+      @NonNull final WriteSettings writeSettings,
+      @NonNull final CompressionSettings compressionSettings) {
     try {
-      Files.write(file.toPath(), lines);
+      write(file, writeSettings, compressionSettings, writer -> {
+        for (val line : lines) {
+          writer.write(line);
+          writer.write(System.lineSeparator());
+        }
+      });
     } catch (final IOException ex) {
       throw SimplixProviders.exceptionHandler().create(
           ex,
@@ -199,6 +244,155 @@ public class FileUtils {
     }
   }
 
+  /**
+   * Replaces the content of a file with the content written by the given action, as defined by
+   * the WriteSettings. The Writer passed to the action is buffered and uses UTF-8.
+   */
+  public void write(
+      @NonNull final File file,
+      @NonNull final WriteSettings writeSettings,
+      @NonNull final WriteAction action) throws IOException {
+    write(file, writeSettings, CompressionSettings.NONE, action);
+  }
+
+  /**
+   * Like {@link #write(File, WriteSettings, WriteAction)}, compressing the content as defined by
+   * the CompressionSettings.
+   */
+  public void write(
+      @NonNull final File file,
+      @NonNull final WriteSettings writeSettings,
+      @NonNull final CompressionSettings compressionSettings,
+      @NonNull final WriteAction action) throws IOException {
+    replaceContent(file, writeSettings, compressionSettings, out -> writeAndFlush(out, action));
+  }
+
+  /**
+   * Replaces the content of a file with the remaining bytes of the buffer, as defined by the
+   * WriteSettings and CompressionSettings.
+   */
+  public void write(
+      @NonNull final File file,
+      @NonNull final WriteSettings writeSettings,
+      @NonNull final CompressionSettings compressionSettings,
+      @NonNull final ByteBuffer buffer) throws IOException {
+    replaceContent(file, writeSettings, compressionSettings, out -> {
+      if (buffer.hasArray()) {
+        out.write(
+            buffer.array(),
+            buffer.arrayOffset() + buffer.position(),
+            buffer.remaining());
+        buffer.position(buffer.limit());
+        return;
+      }
+      final byte[] chunk = new byte[Math.min(buffer.remaining(), 8192)];
+      while (buffer.hasRemaining()) {
+        final int length = Math.min(buffer.remaining(), chunk.length);
+        buffer.get(chunk, 0, length);
+        out.write(chunk, 0, length);
+      }
+    });
+  }
+
+  private void replaceContent(
+      final File file,
+      final WriteSettings writeSettings,
+      final CompressionSettings compressionSettings,
+      final StreamAction action) throws IOException {
+    if (writeSettings == WriteSettings.DIRECT) {
+      @Cleanup val out = new FileOutputStream(file, false);
+      writeCompressed(out, compressionSettings, action);
+      return;
+    }
+
+    val target = file.toPath().toAbsolutePath();
+    // Unique per write, so concurrent writers never share a temporary file
+    val temp = target.resolveSibling(
+        "." + file.getName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+    try {
+      try (val out = new FileOutputStream(temp.toFile())) {
+        writeCompressed(out, compressionSettings, action);
+        if (writeSettings == WriteSettings.ATOMIC_SYNC) {
+          out.getFD().sync();
+        }
+      }
+
+      try {
+        Files.move(
+            temp,
+            target,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (final AtomicMoveNotSupportedException ex) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+
+      if (writeSettings == WriteSettings.ATOMIC_SYNC) {
+        syncDirectory(target.getParent());
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private void writeCompressed(
+      final OutputStream out,
+      final CompressionSettings compressionSettings,
+      final StreamAction action) throws IOException {
+    if (compressionSettings == CompressionSettings.NONE) {
+      action.write(out);
+      return;
+    }
+    // Compressing our small chunks directly is slow, so the stream is buffered
+    val compressed = CompressionUtils.compress(out);
+    try {
+      val buffered = new BufferedOutputStream(compressed, 8192);
+      action.write(buffered);
+      buffered.flush();
+      compressed.finish();
+    } finally {
+      // Only needed if writing failed, finish() released it otherwise
+      CompressionUtils.release(compressed);
+    }
+  }
+
+  private void writeAndFlush(
+      final OutputStream out,
+      final WriteAction action) throws IOException {
+    final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+      // Writers wrapping this one might close it. The stream is closed by the caller
+      @Override
+      public void close() throws IOException {
+        flush();
+      }
+    };
+    action.write(writer);
+    writer.flush();
+  }
+
+  // Makes the rename durable. Not every platform can open directories, which is fine to skip
+  private void syncDirectory(@Nullable final Path directory) {
+    if (directory == null) {
+      return;
+    }
+    try (val channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (final IOException ignored) {
+    }
+  }
+
+  @FunctionalInterface
+  public interface WriteAction {
+
+    void write(Writer writer) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface StreamAction {
+
+    void write(OutputStream out) throws IOException;
+  }
+
   public void writeToFile(
       @NonNull final File file,
       @NonNull final InputStream inputStream) {
@@ -221,8 +415,14 @@ public class FileUtils {
   }
 
   private byte[] readAllBytes(@NonNull final File file) {
-    try {
-      return Files.readAllBytes(file.toPath());
+    try (val in = createInputStream(file)) {
+      val out = new ByteArrayOutputStream((int) Math.min(file.length(), Integer.MAX_VALUE - 8));
+      val buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
     } catch (final IOException ex) {
       throw SimplixProviders.exceptionHandler().create(
           ex,
@@ -1,14 +1,41 @@
 package de.leonhard.storage.util;
 
+import de.leonhard.storage.SimplixBuilder;
+import de.leonhard.storage.internal.FileType;
 import de.leonhard.storage.internal.FlatFile;
+import java.io.File;
+import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class FlatFileConverter {
 
+  /**
+   * Replaces the data of the destination with a copy of the data of the source and writes it.
+   * Works between every FileType, for example to turn a binary {@link de.leonhard.storage.Sdb}
+   * into a readable Json file and back.
+   */
   public void addAllData(final FlatFile source, final FlatFile destination) {
-    destination.getFileData().clear();
-    destination.getFileData().loadData(source.getFileData().toMap());
-    destination.write();
+    // Copied, so the FlatFiles never modify sections of each other
+    destination.replaceData(source.getFileData().toDeepCopy());
+    // Written immediately, even if the destination defers writes
+    destination.flush();
+  }
+
+  /**
+   * Writes the data of the source to a file of the given type next to it, named like the source.
+   *
+   * @return The FlatFile of the new file.
+   */
+  public FlatFile convert(@NonNull final FlatFile source, @NonNull final FileType fileType) {
+    Valid.checkBoolean(
+        source.getFileType() != fileType,
+        "File '" + source.getName() + "' already is of type " + fileType);
+    final File target = new File(
+        FileUtils.getParentDirPath(source.getFile()),
+        FileUtils.replaceExtensions(source.getName()) + "." + fileType.getExtension());
+    final FlatFile destination = SimplixBuilder.fromFile(target).create(fileType);
+    addAllData(source, destination);
+    return destination;
   }
 }
@@ -1,47 +1,48 @@
 package de.leonhard.storage.util;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import lombok.experimental.UtilityClass;
 import lombok.val;
 import lombok.var;
 
 /**
- * Utility Class to take benchmarks
+ * Utility Class to take benchmarks. Safe to use from multiple threads, as long as they use
+ * different names at the same time. Results are printed and recorded in the {@link Timings} timer of
+ * the same name.
  */
 @UtilityClass
 public class LagCatcher {
 
-  private final Map<String, Long> startTimes = new HashMap<>();
-  private final Map<String, Long> stopTimes = new HashMap<>();
+  private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+  private final Map<String, Long> stopTimes = new ConcurrentHashMap<>();
 
   public void start(final String name) {
-    if (LagCatcher.startTimes.containsKey(name)) {
+    val nanoTime = System.nanoTime();
+    if (LagCatcher.startTimes.putIfAbsent(name, nanoTime) != null) {
       throw new IllegalStateException(("Test is already running for '" + name + "'"));
     }
-    val nanoTime = System.nanoTime();
-    LagCatcher.startTimes.put(name, nanoTime);
   }
 
   public void stop(final String name) {
-    if (LagCatcher.stopTimes.containsKey(name)) {
+    val nanoTime = System.nanoTime();
+    if (!LagCatcher.startTimes.containsKey(name)
+        || LagCatcher.stopTimes.putIfAbsent(name, nanoTime) != null) {
       throw new IllegalStateException(("No test running for '" + name + "'"));
     }
-    LagCatcher.stopTimes.put(name, System.nanoTime());
   }
 
   private void show(final String name) {
     if (!LagCatcher.startTimes.containsKey(name) || !LagCatcher.stopTimes.containsKey(name)) {
       throw new IllegalStateException(("No results found for '" + name + "'"));
     }
-    val value = LagCatcher.startTimes.get(name);
-    if (value == null) {
-      return;
-    }
-    val value2 = LagCatcher.stopTimes.get(name);
-    if (value2 != null) {
+    // Stop time first, as a new test of the same name may start once the start time is removed
+    val value2 = LagCatcher.stopTimes.remove(name);
+    val value = LagCatcher.startTimes.remove(name);
+    if (value != null && value2 != null) {
       val took = value2 - value;
+      Timings.timer(name).record(took);
       System.out.println(
           (Object)
               (
@@ -52,8 +53,6 @@ public class LagCatcher {
                   + " micro-seconds. That's "
                   + TimeUnit.NANOSECONDS.toMillis(took)
                   + " ms."));
-      LagCatcher.stopTimes.remove(name);
-      LagCatcher.startTimes.remove(name);
     }
   }
 
@@ -0,0 +1,149 @@
+package de.leonhard.storage.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Lock-free histogram of durations in nanoseconds. Values are counted in logarithmic buckets, eight
+ * per power of two, so percentiles are accurate to about 12% while recording is a single atomic
+ * increment and the memory used is fixed.
+ */
+public final class LatencyHistogram {
+
+  // Values below this get a bucket each, above it every power of two is split in this many buckets
+  private static final int SUB_BUCKETS = 8;
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(final long nanos) {
+    final long value = Math.max(nanos, 0);
+    this.buckets.incrementAndGet(bucketOf(value));
+    this.sum.add(value);
+
+    long currentMax;
+    while (value > (currentMax = this.max.get())) {
+      if (this.max.compareAndSet(currentMax, value)) {
+        break;
+      }
+    }
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.buckets.set(i, 0);
+    }
+    this.sum.reset();
+    this.max.set(0);
+  }
+
+  /**
+   * Copies the current state. Values recorded while copying may be contained partially.
+   */
+  public Snapshot snapshot() {
+    final long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.buckets.get(i);
+      total += counts[i];
+    }
+    return new Snapshot(counts, total, this.sum.sum(), this.max.get());
+  }
+
+  // ----------------------------------------------------------------------------------------------------
+  // Internal
+  // ----------------------------------------------------------------------------------------------------
+
+  private static int bucketOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  // Largest value counted in the bucket
+  private static long upperBoundOf(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int shift = bucket / SUB_BUCKETS - 1;
+    final long subBucket = bucket % SUB_BUCKETS;
+    return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+
+  @Getter
+  public static final class Snapshot {
+
+    @Getter(AccessLevel.NONE)
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    private Snapshot(final long[] counts, final long count, final long sum, final long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.max = max;
+    }
+
+    public long getMean() {
+      return this.count == 0 ? 0 : this.sum / this.count;
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100, like 99.9
+     * @return Upper bound of the bucket containing the percentile, in nanoseconds. 0 if nothing was
+     * recorded.
+     */
+    public long getPercentile(final double percentile) {
+      Valid.checkBoolean(
+          percentile >= 0 && percentile <= 100,
+          "Percentile must be between 0 and 100");
+      if (this.count == 0) {
+        return 0;
+      }
+
+      final long rank = Math.max(1, (long) Math.ceil(this.count * percentile / 100));
+      long seen = 0;
+      for (int i = 0; i < this.counts.length; i++) {
+        seen += this.counts[i];
+        if (seen >= rank) {
+          return Math.min(upperBoundOf(i), this.max);
+        }
+      }
+      return this.max;
+    }
+
+    public long getP50() {
+      return getPercentile(50);
+    }
+
+    public long getP99() {
+      return getPercentile(99);
+    }
+
+    public long getP999() {
+      return getPercentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+      return "count=" + this.count
+             + " mean=" + TimeUnit.NANOSECONDS.toMicros(getMean()) + "us"
+             + " p50=" + TimeUnit.NANOSECONDS.toMicros(getP50()) + "us"
+             + " p99=" + TimeUnit.NANOSECONDS.toMicros(getP99()) + "us"
+             + " p999=" + TimeUnit.NANOSECONDS.toMicros(getP999()) + "us"
+             + " max=" + TimeUnit.NANOSECONDS.toMicros(this.max) + "us";
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package de.leonhard.storage.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Registry of named timers, safe to use from any number of threads. Timing is a pair of calls
+ * which allocates nothing:
+ *
+ * <pre>{@code
+ * final long token = timer.start();
+ * ...
+ * timer.stop(token);
+ * }</pre>
+ *
+ * <p>The library times its own phases with {@link #RELOAD}, {@link #PARSE} and {@link #WRITE}.
+ * Timers only measure while timings are enabled using {@link #setEnabled(boolean)}, otherwise start
+ * and stop do nothing.
+ */
+@UtilityClass
+public class Timings {
+
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+  @Getter
+  private volatile boolean enabled;
+
+  /**
+   * Reloading a FlatFile, including reading & parsing its file.
+   */
+  public final Timer RELOAD = timer("simplix.reload");
+  /**
+   * Reading & parsing the file of a FlatFile.
+   */
+  public final Timer PARSE = timer("simplix.parse");
+  /**
+   * Writing the data of a FlatFile to its file.
+   */
+  public final Timer WRITE = timer("simplix.write");
+
+  public void setEnabled(final boolean enabled) {
+    Timings.enabled = enabled;
+  }
+
+  /**
+   * @return The timer with the given name, created if it doesn't exist yet.
+   */
+  public Timer timer(@NonNull final String name) {
+    final Timer timer = timers.get(name);
+    return timer != null ? timer : timers.computeIfAbsent(name, Timer::new);
+  }
+
+  /**
+   * @return Snapshots of all timers which recorded anything, sorted by name.
+   */
+  public Map<String, LatencyHistogram.Snapshot> snapshots() {
+    final Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+    for (final Timer timer : timers.values()) {
+      final LatencyHistogram.Snapshot snapshot = timer.snapshot();
+      if (snapshot.getCount() > 0) {
+        snapshots.put(timer.getName(), snapshot);
+      }
+    }
+    return Collections.unmodifiableMap(snapshots);
+  }
+
+  public void reset() {
+    for (final Timer timer : timers.values()) {
+      timer.reset();
+    }
+  }
+
+  @Getter
+  public static final class Timer {
+
+    // Token returned while timings are disabled
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private final String name;
+    @Getter(AccessLevel.NONE)
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private Timer(final String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return Token to pass to {@link #stop(long)}
+     */
+    public long start() {
+      return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Records the time passed since the token was returned by {@link #start()}.
+     */
+    public void stop(final long token) {
+      if (token != DISABLED) {
+        this.histogram.record(System.nanoTime() - token);
+      }
+    }
+
+    /**
+     * Records a duration measured elsewhere, even while timings are disabled.
+     */
+    public void record(final long nanos) {
+      this.histogram.record(nanos);
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+      return this.histogram.snapshot();
+    }
+
+    public void reset() {
+      this.histogram.reset();
+    }
+
+    @Override
+    public String toString() {
+      return this.name + ": " + snapshot();
+    }
+  }
+}
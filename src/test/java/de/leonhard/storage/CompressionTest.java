@@ -0,0 +1,140 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.settings.CompressionSettings;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.internal.settings.WriteSettings;
+import de.leonhard.storage.util.CompressionUtils;
+import de.leonhard.storage.util.FileUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CompressionTest {
+
+  @TempDir
+  File directory;
+
+  @Test
+  void testCompressedFilesAreReadable() throws IOException {
+    for (final FileType fileType : Arrays.asList(
+        FileType.JSON,
+        FileType.YAML,
+        FileType.TOML,
+        FileType.SDB)) {
+      final FlatFile flatFile = SimplixBuilder
+          .fromPath("compressed", directory.getAbsolutePath())
+          .setCompressionSettings(CompressionSettings.GZIP)
+          .setReloadSettings(ReloadSettings.MANUALLY)
+          .create(fileType);
+      flatFile.batch(transaction -> {
+        for (int i = 0; i < 100; i++) {
+          transaction.set("section.key-" + i, "value " + i);
+        }
+      });
+
+      final byte[] bytes = Files.readAllBytes(flatFile.getFile().toPath());
+      Assertions.assertEquals(0x1F, bytes[0] & 0xFF, fileType.name());
+      Assertions.assertEquals(0x8B, bytes[1] & 0xFF, fileType.name());
+
+      final FlatFile reopened = SimplixBuilder.fromFile(flatFile.getFile()).create(fileType);
+      Assertions.assertEquals("value 99", reopened.getString("section.key-99"), fileType.name());
+    }
+  }
+
+  @Test
+  void testCompressedConfigKeepsComments() throws IOException {
+    final Config config = new Config("config", directory.getAbsolutePath());
+    config.setCompressionSettings(CompressionSettings.GZIP);
+    config.set("key", 1);
+    config.addHeader("# Header");
+    config.set("other", 2);
+
+    final byte[] bytes = Files.readAllBytes(config.getFile().toPath());
+    Assertions.assertEquals(0x1F, bytes[0] & 0xFF);
+    Assertions.assertEquals(0x8B, bytes[1] & 0xFF);
+
+    final Config reopened = new Config(config.getFile());
+    Assertions.assertEquals(2, reopened.getInt("other"));
+    Assertions.assertEquals(Arrays.asList("# Header"), reopened.getHeader());
+  }
+
+  @Test
+  void testCompressedHeader() throws IOException {
+    final Yaml yaml = new Yaml("header", directory.getAbsolutePath());
+    yaml.setCompressionSettings(CompressionSettings.GZIP);
+    yaml.set("key", 1);
+    yaml.setHeader("Header");
+
+    // Written compressed, not only by the next write of the data
+    final byte[] bytes = Files.readAllBytes(yaml.getFile().toPath());
+    Assertions.assertEquals(0x1F, bytes[0] & 0xFF);
+    Assertions.assertEquals(0x8B, bytes[1] & 0xFF);
+    Assertions.assertEquals(Arrays.asList("#Header"), yaml.getHeader());
+
+    final Yaml reopened = new Yaml(yaml.getFile());
+    Assertions.assertEquals(1, reopened.getInt("key"));
+  }
+
+  @Test
+  void testStreamsReleaseTheirDeflater() throws IOException {
+    final File file = new File(directory, "data");
+    Assertions.assertThrows(
+        IOException.class,
+        () -> FileUtils.write(file, WriteSettings.DIRECT, CompressionSettings.GZIP, writer -> {
+          writer.write("partial");
+          throw new IOException("Failed");
+        }));
+
+    final DeflaterOutputStream compressed = CompressionUtils.compress(new ByteArrayOutputStream());
+    compressed.write(1);
+    compressed.finish();
+    // The Deflater was returned to the pool and might be used by another stream already
+    Assertions.assertThrows(IOException.class, () -> compressed.write(2));
+    CompressionUtils.release(compressed);
+    compressed.close();
+  }
+
+  @Test
+  void testSwitchingCompression() throws IOException {
+    final Json json = new Json("data", directory.getAbsolutePath());
+    json.set("key", "uncompressed");
+
+    final long compressedBefore = CompressionUtils.getCompressedBytesWritten();
+    final long rawBefore = CompressionUtils.getRawBytesWritten();
+    json.setCompressionSettings(CompressionSettings.GZIP);
+    json.set("key", "compressed");
+    Assertions.assertTrue(CompressionUtils.getCompressedBytesWritten() > compressedBefore);
+    Assertions.assertTrue(CompressionUtils.getRawBytesWritten() > rawBefore);
+
+    // Standard GZIP, readable by every tool
+    try (final InputStream in =
+        new GZIPInputStream(Files.newInputStream(json.getFile().toPath()))) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[1024];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      Assertions.assertTrue(
+          new String(out.toByteArray(), StandardCharsets.UTF_8).contains("\"compressed\""));
+    }
+
+    json.setCompressionSettings(CompressionSettings.NONE);
+    json.set("other", 1);
+    Assertions.assertTrue(
+        new String(Files.readAllBytes(json.getFile().toPath()), StandardCharsets.UTF_8)
+            .contains("\"compressed\""));
+    Assertions.assertEquals("compressed", new Json(json.getFile()).getString("key"));
+  }
+}
@@ -3,14 +3,19 @@ package de.leonhard.storage;
 import de.leonhard.storage.annotation.ConfigPath;
 import de.leonhard.storage.internal.exceptions.SimplixValidationException;
 import de.leonhard.storage.internal.settings.DataType;
+import de.leonhard.storage.internal.settings.WriteSettings;
 import lombok.Getter;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -89,6 +94,71 @@ class ConfigTest {
     Assertions.assertEquals(2, test.getAnnotationTest2());
   }
 
+  @Test
+  void testAtomicWrite() throws Exception {
+    final File directory = Files.createTempDirectory("simplixstorage").toFile();
+    final Config atomic = SimplixBuilder
+        .fromDirectory(directory)
+        .setName("Atomic")
+        .setWriteSettings(WriteSettings.ATOMIC_SYNC)
+        .createConfig();
+    atomic.set("section.key", 1);
+    atomic.setHeader("Header");
+    atomic.set("section.key", 2);
+
+    Assertions.assertEquals(Collections.singletonList("#Header"), atomic.getHeader());
+    Assertions.assertEquals(2, new Config(atomic.getFile()).getInt("section.key"));
+    Assertions.assertArrayEquals(new String[]{"Atomic.yml"}, directory.list());
+    Assertions.assertTrue(atomic.getFile().delete());
+    Assertions.assertTrue(directory.delete());
+  }
+
+  @Test
+  void testPreserveComments() throws Exception {
+    final File directory = Files.createTempDirectory("simplixstorage").toFile();
+    final List<String> lines = Arrays.asList(
+        "# Header",
+        "",
+        "# Comment of a",
+        "a:",
+        "  # Comment of a.x",
+        "  x: 1",
+        "b:",
+        "  # Comment of b.x",
+        "  x: 2",
+        "",
+        "# Footer");
+    Files.write(new File(directory, "Comments.yml").toPath(), lines);
+
+    final Config comments = new Config("Comments", directory.getPath());
+    comments.set("a.y", 3);
+    comments.remove("b.x");
+    comments.set("b.z", 4);
+
+    Assertions.assertEquals(
+        Arrays.asList(
+            "# Header",
+            "",
+            "# Comment of a",
+            "a: ",
+            "  # Comment of a.x",
+            "   x: 1",
+            "   y: 3",
+            "b: ",
+            "   z: 4",
+            "",
+            "# Footer"),
+        Files.readAllLines(comments.getFile().toPath()));
+
+    // Comments are kept in memory between writes, without those of removed keys
+    comments.set("b.x", 5);
+    final List<String> written = Files.readAllLines(comments.getFile().toPath());
+    Assertions.assertTrue(written.contains("  # Comment of a.x"));
+    Assertions.assertFalse(written.contains("  # Comment of b.x"));
+    Assertions.assertTrue(comments.getFile().delete());
+    Assertions.assertTrue(directory.delete());
+  }
+
   @AfterAll
   static void tearDown() {
     config.clear();
@@ -0,0 +1,139 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.internal.settings.ConcurrencySettings;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournalTest {
+
+  @TempDir
+  File directory;
+
+  @Test
+  void testReplay() throws IOException {
+    final Journal journal = new Journal("test", directory.getAbsolutePath());
+    journal.set("a.b", 1);
+    journal.set("a.c", "text\nwith newline");
+    journal.set("list", Arrays.asList("x", "y"));
+    journal.remove("a.b");
+    journal.batch(transaction -> transaction.set("d", true).set("e", 2.5));
+
+    // One record per commit, no snapshot
+    final List<String> lines = Files.readAllLines(journal.getFile().toPath());
+    Assertions.assertEquals(5, lines.size());
+
+    final Journal reopened = new Journal(journal.getFile());
+    Assertions.assertEquals(journal.keySet(), reopened.keySet());
+    Assertions.assertFalse(reopened.contains("a.b"));
+    Assertions.assertEquals("text\nwith newline", reopened.getString("a.c"));
+    Assertions.assertEquals(Arrays.asList("x", "y"), reopened.getStringList("list"));
+    Assertions.assertEquals(2.5, reopened.getDouble("e"));
+  }
+
+  @Test
+  void testPartialRecordIsIgnored() throws IOException {
+    final Journal journal = new Journal("test", directory.getAbsolutePath());
+    journal.set("first", 1);
+    journal.set("second", 2);
+    final byte[] complete = Files.readAllBytes(journal.getFile().toPath());
+    // Cut the second record in half, like a crash while appending would
+    Files.write(journal.getFile().toPath(), Arrays.copyOf(complete, complete.length - 5));
+
+    final Journal reopened = new Journal(journal.getFile());
+    Assertions.assertNull(reopened.getLastReloadException());
+    Assertions.assertEquals(1, reopened.getInt("first"));
+    Assertions.assertFalse(reopened.contains("second"));
+
+    reopened.set("third", 3);
+    final Journal repaired = new Journal(journal.getFile());
+    Assertions.assertEquals(1, repaired.getInt("first"));
+    Assertions.assertEquals(3, repaired.getInt("third"));
+    Assertions.assertEquals(2, Files.readAllLines(journal.getFile().toPath()).size());
+  }
+
+  @Test
+  void testDamagedRecordFailsReload() throws IOException {
+    final Journal journal = new Journal("test", directory.getAbsolutePath());
+    journal.set("first", 1);
+    journal.set("second", 2);
+    final byte[] bytes = Files.readAllBytes(journal.getFile().toPath());
+    bytes[12]++;
+    Files.write(journal.getFile().toPath(), bytes);
+
+    final Journal damaged = new Journal(journal.getFile());
+    Assertions.assertNotNull(damaged.getLastReloadException());
+    // Neither writing nor compacting replaces the file while it can't be read
+    damaged.set("third", 3);
+    damaged.compact();
+    Assertions.assertArrayEquals(bytes, Files.readAllBytes(journal.getFile().toPath()));
+
+    bytes[12]--;
+    Files.write(journal.getFile().toPath(), bytes);
+    final Journal repaired = new Journal(journal.getFile());
+    Assertions.assertNull(repaired.getLastReloadException());
+    Assertions.assertEquals(1, repaired.getInt("first"));
+    Assertions.assertEquals(2, repaired.getInt("second"));
+    Assertions.assertFalse(repaired.contains("third"));
+  }
+
+  @Test
+  void testCompaction() throws IOException {
+    final Journal journal = SimplixBuilder
+        .fromPath("test", directory.getAbsolutePath())
+        .setReloadSettings(ReloadSettings.INTELLIGENT)
+        .createJournal();
+    for (int i = 0; i < 2000; i++) {
+      journal.set("key-" + (i % 100), "value-" + i);
+    }
+    journal.compact();
+
+    final List<String> lines = Files.readAllLines(journal.getFile().toPath());
+    Assertions.assertEquals(1, lines.size());
+    Assertions.assertTrue(lines.get(0).contains("\"snapshot\""));
+
+    journal.set("after", "compaction");
+    Files.write(
+        journal.getFile().toPath(),
+        "partial".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+    final Journal reopened = new Journal(journal.getFile());
+    Assertions.assertEquals(101, reopened.singleLayerKeySet().size());
+    Assertions.assertEquals("value-1999", reopened.getString("key-99"));
+    Assertions.assertEquals("compaction", reopened.getString("after"));
+  }
+
+  @Test
+  void testCompactionWhileCommitting() throws Exception {
+    final Journal journal = new Journal("test", directory.getAbsolutePath());
+    journal.setConcurrencySettings(ConcurrencySettings.IN_PLACE);
+    journal.set("section.key-0", 0);
+    final AtomicBoolean done = new AtomicBoolean();
+    final Thread writer = new Thread(() -> {
+      for (int i = 0; i < 5000; i++) {
+        journal.set("section.key-" + i, i);
+      }
+      done.set(true);
+    });
+    writer.start();
+    // Compacting serializes a snapshot of sections which are changed in place meanwhile
+    while (!done.get()) {
+      journal.compact();
+    }
+    writer.join();
+    journal.compact();
+
+    final Journal reopened = new Journal(journal.getFile());
+    Assertions.assertEquals(5000, reopened.singleLayerKeySet("section").size());
+    Assertions.assertEquals(journal.getData(), reopened.getData());
+  }
+}
@@ -1,9 +1,22 @@
 package de.leonhard.storage;
 
+import de.leonhard.storage.internal.editor.json.JsonWriter;
+import de.leonhard.storage.internal.exceptions.JsonException;
 import de.leonhard.storage.internal.exceptions.SimplixValidationException;
 import de.leonhard.storage.internal.settings.DataType;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONString;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -67,6 +80,139 @@ public class JsonTest {
     Assertions.assertTrue(json.getBoolean("Test-Key-1"));
   }
 
+  @Test
+  void testWatchedReload() throws Exception {
+    final Json watched = new Json("Watched", "", null, ReloadSettings.WATCHED);
+    watched.set("Key", "Old");
+
+    Thread.sleep(50);
+    Files.write(watched.getFile().toPath(), Collections.singletonList("{\"Key\": \"New\"}"));
+
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (!"New".equals(watched.getString("Key")) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    Assertions.assertEquals("New", watched.getString("Key"));
+    Assertions.assertTrue(watched.getFile().delete());
+  }
+
+  @Test
+  void testWatchedIgnoresOwnWrites() throws Exception {
+    final AtomicInteger reloads = new AtomicInteger();
+    final Json watched = new Json(
+        "WatchedOwn",
+        "",
+        null,
+        ReloadSettings.WATCHED,
+        flatFile -> reloads.incrementAndGet());
+    final int initial = reloads.get();
+    for (int i = 0; i < 20; i++) {
+      watched.set("Key", i);
+    }
+
+    // Give the FileWatcher time to deliver the events of our writes
+    Thread.sleep(500);
+    Assertions.assertEquals(19, watched.getInt("Key"));
+    Assertions.assertEquals(initial, reloads.get());
+    Assertions.assertTrue(watched.getFile().delete());
+  }
+
+  @Test
+  void testWriteBehind() throws Exception {
+    final Json deferred = SimplixBuilder
+        .fromPath("WriteBehind", "")
+        .setWriteBehind(1, 2, TimeUnit.MINUTES)
+        .createJson();
+
+    for (int i = 0; i < 20; i++) {
+      deferred.set("Key-" + i, i);
+    }
+
+    final String unsaved = new String(Files.readAllBytes(deferred.getFile().toPath()));
+    Assertions.assertFalse(unsaved.contains("Key-0"));
+    Assertions.assertEquals(19, deferred.getInt("Key-19"));
+
+    deferred.close();
+    final String saved = new String(Files.readAllBytes(deferred.getFile().toPath()));
+    Assertions.assertTrue(saved.contains("Key-19"));
+    Assertions.assertTrue(deferred.getFile().delete());
+  }
+
+  @Test
+  void testStreamingReader() throws Exception {
+    final String data = "{\"string\": \"a\\\"b\\u00e9\\n\", \"int\": 1, \"long\": 12345678901,"
+        + " \"big\": 123456789012345678901234, \"decimal\": 1.5, \"exponent\": 1e3,"
+        + " \"negativeZero\": -0, \"null\": null, \"bool\": true, 'quoted': 'single',"
+        + " \"list\": [1, {\"nested\": [2.0, \"x\"]}, []], \"section\": {\"key\": {}}}";
+    final Json streamed = new Json("Streamed", "");
+    Files.write(streamed.getFile().toPath(), Collections.singletonList(data));
+    streamed.forceReload();
+
+    Assertions.assertEquals(new JSONObject(data).toMap(), streamed.getData());
+    Assertions.assertEquals("a\"b\u00e9\n", streamed.getString("string"));
+    Assertions.assertEquals(1.5, streamed.getDouble("decimal"));
+    Assertions.assertEquals(12345678901L, streamed.getLong("long"));
+    Assertions.assertTrue(streamed.get("section.key") instanceof Map);
+
+    Files.write(streamed.getFile().toPath(), Collections.singletonList("{\"key\": [1,}"));
+    streamed.forceReload();
+    Assertions.assertTrue(streamed.getLastReloadException() instanceof JsonException);
+    // The data read before is kept
+    Assertions.assertEquals(1.5, streamed.getDouble("decimal"));
+    Assertions.assertTrue(streamed.getFile().delete());
+  }
+
+  @Test
+  void testStreamingWriter() throws Exception {
+    final Json written = new Json("Written", "");
+    written.set("string", "a\"b</c\n\u0001");
+    written.set("section.decimal", 2.50);
+    written.set("section.list", Arrays.asList(1, "x", Collections.singletonMap("k", true)));
+    written.set("section.array", new int[]{1, 2});
+    written.set("unit", TimeUnit.SECONDS);
+
+    final String pretty = new String(Files.readAllBytes(written.getFile().toPath()));
+    Assertions.assertTrue(pretty.contains("\n   \"section\": {\n      "));
+    Assertions.assertTrue(pretty.contains("\"decimal\": 2.5"));
+    Assertions.assertTrue(pretty.contains("\"string\": \"a\\\"b<\\/c\\n\\u0001\""));
+    final String expected = written.getFileData().toJsonObject().toString(3);
+    Assertions.assertTrue(new JSONObject(expected).similar(new JSONObject(pretty)));
+
+    written.setIndentation(0);
+    written.write();
+    final String compact = new String(Files.readAllBytes(written.getFile().toPath()));
+    Assertions.assertFalse(compact.contains(" "));
+    written.forceReload();
+    Assertions.assertEquals("SECONDS", written.getString("unit"));
+    Assertions.assertEquals(Arrays.asList(1, 2), written.getList("section.array"));
+
+    Assertions.assertThrows(JsonException.class, () -> written.set("nan", Double.NaN));
+    Assertions.assertTrue(written.getFile().delete());
+  }
+
+  @Test
+  void testWritingOrgJsonValues() throws Exception {
+    final Map<String, Object> values = new LinkedHashMap<>();
+    values.put("null", JSONObject.NULL);
+    values.put("object", new JSONObject("{\"x\": 1, \"y\": [true, null]}"));
+    values.put("array", new JSONArray("[1, \"two\", {\"three\": 3}]"));
+    values.put("raw", (JSONString) () -> "{\"raw\":true}");
+
+    final StringWriter out = new StringWriter();
+    new JsonWriter(out, 3).write(values);
+    final String written = out.toString();
+    Assertions.assertTrue(written.contains("\"null\": null"));
+    final String expected = new JSONObject(values).toString(3);
+    Assertions.assertTrue(new JSONObject(expected).similar(new JSONObject(written)));
+
+    final Json orgJson = new Json("OrgJson", "");
+    orgJson.set("object", new JSONObject("{\"x\": 1}"));
+    orgJson.forceReload();
+    Assertions.assertEquals(1, orgJson.getInt("object.x"));
+    Assertions.assertTrue(orgJson.getFile().delete());
+  }
+
   @AfterAll
   static void tearDown() {
     json.clear();
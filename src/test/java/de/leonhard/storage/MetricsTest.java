@@ -0,0 +1,151 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.internal.provider.InMemoryMetricsProvider;
+import de.leonhard.storage.internal.provider.MetricsProvider;
+import de.leonhard.storage.internal.provider.SimplixProviders;
+import de.leonhard.storage.internal.settings.CompressionSettings;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import de.leonhard.storage.util.LatencyHistogram;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricsTest {
+
+  @TempDir
+  File directory;
+
+  @AfterEach
+  void tearDown() {
+    SimplixProviders.metricsProvider(null);
+  }
+
+  @Test
+  void testFlatFileMetrics() {
+    final InMemoryMetricsProvider metrics = new InMemoryMetricsProvider();
+    SimplixProviders.metricsProvider(metrics);
+
+    final Json json = SimplixBuilder
+        .fromPath("metrics", directory.getAbsolutePath())
+        .setReloadSettings(ReloadSettings.INTELLIGENT)
+        .createJson();
+    json.set("a", 1);
+    json.batch(transaction -> transaction.set("b", 2).set("c", 3).remove("a"));
+    json.getInt("b");
+    json.getInt("c");
+    json.forceReload();
+
+    final InMemoryMetricsProvider.FileMetrics fileMetrics = metrics.getMetrics(json.getFile());
+    Assertions.assertNotNull(fileMetrics);
+    Assertions.assertEquals(3, fileMetrics.getSets());
+    Assertions.assertEquals(1, fileMetrics.getRemoves());
+    Assertions.assertTrue(fileMetrics.getGets() >= 2);
+    Assertions.assertEquals(2, fileMetrics.getWrites());
+    Assertions.assertEquals(2, fileMetrics.getWriteLatency().getCount());
+    Assertions.assertTrue(fileMetrics.getBytesWritten() >= json.getFile().length());
+    // Once on creation, once explicitly
+    Assertions.assertEquals(2, fileMetrics.getReloads());
+    Assertions.assertTrue(fileMetrics.getReloadChecks() >= 4);
+    Assertions.assertEquals(0, fileMetrics.getTriggeredReloads());
+
+    final String scraped = metrics.scrape();
+    final String label = "{file=\"" + json.getFile().getAbsolutePath() + "\"}";
+    Assertions.assertTrue(scraped.contains("simplix_writes_total" + label + " 2"), scraped);
+  }
+
+  @Test
+  void testCommentPreservingWritesAreCounted() {
+    final InMemoryMetricsProvider metrics = new InMemoryMetricsProvider();
+    SimplixProviders.metricsProvider(metrics);
+
+    final Config config = new Config("config", directory.getAbsolutePath());
+    config.set("a", 1);
+
+    final InMemoryMetricsProvider.FileMetrics fileMetrics = metrics.getMetrics(config.getFile());
+    Assertions.assertNotNull(fileMetrics);
+    Assertions.assertEquals(1, fileMetrics.getWrites());
+    Assertions.assertEquals(config.getFile().length(), fileMetrics.getBytesWritten());
+  }
+
+  @Test
+  void testCompressionMetrics() {
+    final InMemoryMetricsProvider metrics = new InMemoryMetricsProvider();
+    SimplixProviders.metricsProvider(metrics);
+
+    final Json json = SimplixBuilder
+        .fromPath("compressed", directory.getAbsolutePath())
+        .setCompressionSettings(CompressionSettings.GZIP)
+        .createJson();
+    json.batch(transaction -> {
+      for (int i = 0; i < 100; i++) {
+        transaction.set("key-" + i, "value " + i);
+      }
+    });
+    json.forceReload();
+
+    final InMemoryMetricsProvider.FileMetrics fileMetrics = metrics.getMetrics(json.getFile());
+    Assertions.assertNotNull(fileMetrics);
+    Assertions.assertEquals(json.getFile().length(), fileMetrics.getCompressedBytesWritten());
+    Assertions.assertTrue(
+        fileMetrics.getRawBytesWritten() > fileMetrics.getCompressedBytesWritten());
+    Assertions.assertEquals(json.getFile().length(), fileMetrics.getCompressedBytesRead());
+    Assertions.assertEquals(fileMetrics.getRawBytesWritten(), fileMetrics.getRawBytesRead());
+
+    final String label = "{file=\"" + json.getFile().getAbsolutePath() + "\"}";
+    Assertions.assertTrue(metrics.scrape().contains(
+        "simplix_compression_written_raw_bytes_total" + label + " "
+        + fileMetrics.getRawBytesWritten()));
+  }
+
+  @Test
+  void testFailureMetrics() throws IOException {
+    final Journal journal = new Journal("failing", directory.getAbsolutePath());
+    journal.set("first", 1);
+    journal.set("second", 2);
+    final byte[] bytes = Files.readAllBytes(journal.getFile().toPath());
+    // Damage the first record, so reloads fail and writes are refused
+    bytes[12]++;
+    Files.write(journal.getFile().toPath(), bytes);
+
+    final InMemoryMetricsProvider metrics = new InMemoryMetricsProvider();
+    SimplixProviders.metricsProvider(metrics);
+    journal.forceReload();
+    journal.write();
+
+    final InMemoryMetricsProvider.FileMetrics fileMetrics = metrics.getMetrics(journal.getFile());
+    Assertions.assertNotNull(fileMetrics);
+    Assertions.assertEquals(1, fileMetrics.getReloads());
+    Assertions.assertEquals(1, fileMetrics.getReloadFailures());
+    Assertions.assertEquals(0, fileMetrics.getWrites());
+    Assertions.assertEquals(1, fileMetrics.getWriteFailures());
+    Assertions.assertEquals(1, fileMetrics.getWriteLatency().getCount());
+
+    final String label = "{file=\"" + journal.getFile().getAbsolutePath() + "\"}";
+    Assertions.assertTrue(metrics.scrape().contains("simplix_write_failures_total" + label + " 1"));
+  }
+
+  @Test
+  void testDisabledByDefault() {
+    Assertions.assertSame(MetricsProvider.NONE, SimplixProviders.metricsProvider());
+  }
+
+  @Test
+  void testHistogramPercentiles() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    Assertions.assertEquals(1000, snapshot.getCount());
+    Assertions.assertEquals(1_000_000, snapshot.getMax());
+    // Buckets are accurate to an eighth of a power of two
+    Assertions.assertEquals(500_000, snapshot.getP50(), 500_000 / 8.0);
+    Assertions.assertEquals(990_000, snapshot.getP99(), 990_000 / 8.0);
+    Assertions.assertEquals(1_000_000, snapshot.getP999(), 1_000_000 / 8.0);
+  }
+}
@@ -0,0 +1,117 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.exceptions.SdbException;
+import de.leonhard.storage.util.FlatFileConverter;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SdbTest {
+
+  @TempDir
+  File directory;
+
+  @Test
+  void testTypesAreKept() {
+    final Sdb sdb = new Sdb("test", directory.getAbsolutePath());
+    sdb.set("int", -5);
+    sdb.set("long", Long.MIN_VALUE);
+    sdb.set("float", 1.5F);
+    sdb.set("double", -0.1);
+    sdb.set("big.integer", new BigInteger("123456789012345678901234567890"));
+    sdb.set("big.decimal", new BigDecimal("0.1000"));
+    sdb.set("string", "ünïcödé\n\u0000");
+    sdb.set("boolean", true);
+    sdb.set("null", null);
+    sdb.set("list", Arrays.asList(1, "two", Arrays.asList(3L, false)));
+    sdb.set("array", new int[]{4, 5});
+
+    final Sdb reopened = new Sdb(sdb.getFile());
+    final Map<String, Object> expected = new HashMap<>(sdb.getData());
+    // Arrays are read as lists
+    expected.put("array", Arrays.asList(4, 5));
+    Assertions.assertEquals(expected, reopened.getData());
+    Assertions.assertEquals(Long.MIN_VALUE, reopened.get("long"));
+    Assertions.assertEquals(1.5F, reopened.get("float"));
+    Assertions.assertEquals(new BigDecimal("0.1000"), reopened.get("big.decimal"));
+  }
+
+  @Test
+  void testRepeatedKeysAreStoredOnce() {
+    final Sdb sdb = new Sdb("test", directory.getAbsolutePath());
+    final Json json = new Json("test", directory.getAbsolutePath());
+    json.setIndentation(0);
+    sdb.batch(transaction -> {
+      for (int i = 0; i < 1000; i++) {
+        transaction.set("players.player-" + i + ".last-login-timestamp", 1600000000000L + i);
+        transaction.set("players.player-" + i + ".display-name", "name");
+      }
+    });
+    FlatFileConverter.addAllData(sdb, json);
+
+    Assertions.assertTrue(sdb.getFile().length() * 2 < json.getFile().length());
+    Assertions.assertEquals(
+        1600000000999L,
+        new Sdb(sdb.getFile()).get("players.player-999.last-login-timestamp"));
+  }
+
+  @Test
+  void testDamagedFile() throws IOException {
+    final Sdb sdb = new Sdb("test", directory.getAbsolutePath());
+    sdb.set("key", "value");
+    final byte[] bytes = Files.readAllBytes(sdb.getFile().toPath());
+
+    Files.write(sdb.getFile().toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+    final Sdb truncated = new Sdb(sdb.getFile());
+    Assertions.assertTrue(truncated.getLastReloadException() instanceof SdbException);
+    Assertions.assertTrue(truncated.getData().isEmpty());
+    Files.write(sdb.getFile().toPath(), "{\"key\": \"value\"}".getBytes());
+    Assertions.assertTrue(new Sdb(sdb.getFile()).getLastReloadException() instanceof SdbException);
+  }
+
+  @Test
+  void testConvert() {
+    final Json json = new Json("data", directory.getAbsolutePath());
+    final Map<String, Object> section = new LinkedHashMap<>();
+    section.put("name", "value");
+    section.put("numbers", Arrays.asList(1, 2, 3));
+    json.set("section", section);
+
+    final FlatFile sdb = FlatFileConverter.convert(json, FileType.SDB);
+    Assertions.assertEquals(new File(directory, "data.sdb"), sdb.getFile().getAbsoluteFile());
+    final FlatFile yaml = FlatFileConverter.convert(new Sdb(sdb.getFile()), FileType.YAML);
+    Assertions.assertEquals("value", yaml.getString("section.name"));
+    Assertions.assertEquals(Arrays.asList(1, 2, 3), yaml.getList("section.numbers"));
+
+    // The data isn't shared
+    sdb.set("section.name", "changed");
+    Assertions.assertEquals("value", json.getString("section.name"));
+    final List<?> numbers = sdb.getList("section.numbers");
+    Assertions.assertNotSame(numbers, json.getList("section.numbers"));
+  }
+
+  @Test
+  void testConvertKeepsDottedKeys() throws IOException {
+    final File file = new File(directory, "dotted.json");
+    Files.write(file.toPath(), "{\"a.b\": 1, \"c\": {\"d.e\": 2}}".getBytes());
+    final Json json = new Json(file);
+
+    final FlatFile sdb = FlatFileConverter.convert(json, FileType.SDB);
+    Assertions.assertEquals(json.getData(), sdb.getData());
+    Assertions.assertEquals(json.getData(), new Sdb(sdb.getFile()).getData());
+    final FlatFile journal = FlatFileConverter.convert(json, FileType.JOURNAL);
+    Assertions.assertEquals(json.getData(), new Journal(journal.getFile()).getData());
+  }
+}
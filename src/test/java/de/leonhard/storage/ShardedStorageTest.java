@@ -0,0 +1,104 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.exceptions.SimplixValidationException;
+import de.leonhard.storage.internal.settings.ReloadSettings;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ShardedStorageTest {
+
+  @TempDir
+  File directory;
+
+  @Test
+  void testOnlyTouchedShardIsLoaded() {
+    final ShardedStorage storage = SimplixBuilder
+        .fromDirectory(directory)
+        .setReloadSettings(ReloadSettings.MANUALLY)
+        .createSharded(FileType.JSON, 8);
+
+    storage.set("players.first.name", "first");
+    storage.set("players.second.name", "second");
+    final int index = storage.shardIndex("players");
+    for (int i = 0; i < 8; i++) {
+      Assertions.assertEquals(i == index, storage.isLoaded(i));
+    }
+    Assertions.assertEquals(1, directory.listFiles().length);
+    Assertions.assertTrue(new File(directory, "shard-" + index + "-of-8.json").exists());
+    Assertions.assertEquals("second", storage.getString("players.second.name"));
+    Assertions.assertEquals(2, storage.singleLayerKeySet("players").size());
+  }
+
+  @Test
+  void testReshard() {
+    final ShardedStorage storage = new ShardedStorage(directory, FileType.YAML, 4);
+    for (int i = 0; i < 100; i++) {
+      storage.set("key-" + i + ".value", i);
+    }
+    storage.close();
+
+    Assertions.assertThrows(
+        SimplixValidationException.class,
+        () -> new ShardedStorage(directory, FileType.YAML, 16));
+
+    ShardedStorage.reshard(directory, FileType.YAML, 16);
+    final ShardedStorage resharded = new ShardedStorage(directory, FileType.YAML, 16);
+    Assertions.assertEquals(100, resharded.singleLayerKeySet().size());
+    for (int i = 0; i < 100; i++) {
+      Assertions.assertEquals(i, resharded.getInt("key-" + i + ".value"));
+    }
+    Assertions.assertEquals(16, directory.listFiles().length);
+  }
+
+  @Test
+  void testInterruptedReshardIsCompleted() throws IOException {
+    final File shards = new File(directory, "shards");
+    final ShardedStorage storage = new ShardedStorage(shards, FileType.YAML, 4);
+    for (int i = 0; i < 100; i++) {
+      storage.set("key-" + i + ".value", i);
+    }
+    storage.close();
+
+    // Reshard a copy and move its shards back under their temporary names
+    final File copy = Files.createDirectory(new File(directory, "copy").toPath()).toFile();
+    for (final File file : shards.listFiles()) {
+      Files.copy(file.toPath(), new File(copy, file.getName()).toPath());
+    }
+    ShardedStorage.reshard(copy, FileType.YAML, 16);
+    for (final File file : copy.listFiles()) {
+      Files.move(
+          file.toPath(),
+          new File(shards, file.getName().replace("shard-", "resharding-")).toPath());
+    }
+    // Died after writing all new shards, while deleting the old ones
+    Assertions.assertTrue(new File(shards, "resharding-of-16.yml.done").createNewFile());
+    Assertions.assertTrue(new File(shards, "shard-0-of-4.yml").delete());
+
+    final ShardedStorage resharded = new ShardedStorage(shards, FileType.YAML, 16);
+    Assertions.assertEquals(100, resharded.singleLayerKeySet().size());
+    Assertions.assertEquals(16, shards.listFiles().length);
+  }
+
+  @Test
+  void testIncompleteReshardIsDiscarded() throws IOException {
+    final ShardedStorage storage = new ShardedStorage(directory, FileType.JSON, 2);
+    storage.set("key", "value");
+    storage.close();
+    // Died while writing the new shards
+    Files.write(
+        new File(directory, "resharding-0-of-8.json").toPath(),
+        "{\"partial\": ".getBytes(StandardCharsets.UTF_8));
+
+    ShardedStorage.reshard(directory, FileType.JSON, 8);
+    final ShardedStorage resharded = new ShardedStorage(directory, FileType.JSON, 8);
+    Assertions.assertEquals("value", resharded.getString("key"));
+    Assertions.assertFalse(resharded.contains("partial"));
+    Assertions.assertEquals(8, directory.listFiles().length);
+  }
+}
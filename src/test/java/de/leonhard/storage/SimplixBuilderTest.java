@@ -0,0 +1,54 @@
+package de.leonhard.storage;
+
+import de.leonhard.storage.SimplixBuilder.DirectoryLoadResult;
+import de.leonhard.storage.internal.FileType;
+import de.leonhard.storage.internal.FlatFile;
+import de.leonhard.storage.internal.exceptions.JsonException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SimplixBuilderTest {
+
+  @TempDir
+  File directory;
+
+  @Test
+  void testCreate() {
+    final FlatFile flatFile = SimplixBuilder
+        .fromPath("created", directory.getAbsolutePath())
+        .create(FileType.TOML);
+
+    Assertions.assertTrue(flatFile instanceof Toml);
+    Assertions.assertTrue(new File(directory, "created.toml").exists());
+  }
+
+  @Test
+  void testLoadDirectory() throws IOException {
+    for (int i = 0; i < 20; i++) {
+      new Json("user-" + i, directory.getAbsolutePath()).set("id", i);
+    }
+    Files.write(
+        new File(directory, "broken.json").toPath(),
+        Collections.singletonList("{\"id\": "),
+        StandardCharsets.UTF_8);
+    new Yaml("other-type", directory.getAbsolutePath()).set("id", -1);
+
+    final DirectoryLoadResult result = SimplixBuilder
+        .fromDirectory(directory)
+        .loadDirectory(FileType.JSON, 4);
+
+    Assertions.assertEquals(20, result.getLoaded().size());
+    for (int i = 0; i < 20; i++) {
+      Assertions.assertEquals(i, result.getLoaded().get("user-" + i + ".json").getInt("id"));
+    }
+    Assertions.assertTrue(result.hasErrors());
+    Assertions.assertEquals(Collections.singleton("broken.json"), result.getErrors().keySet());
+    Assertions.assertTrue(result.getErrors().get("broken.json") instanceof JsonException);
+  }
+}
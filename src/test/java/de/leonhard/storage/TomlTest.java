@@ -1,6 +1,8 @@
 package de.leonhard.storage;
 
+import de.leonhard.storage.internal.FileData;
 import de.leonhard.storage.internal.exceptions.SimplixValidationException;
+import de.leonhard.storage.internal.settings.ConcurrencySettings;
 import de.leonhard.storage.internal.settings.DataType;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -67,6 +69,24 @@ public class TomlTest {
     Assertions.assertTrue(toml.getBoolean("Test-Key-1"));
   }
 
+  @Test
+  void testCopyOnWrite() {
+    final Toml copyOnWrite = new Toml("CopyOnWrite", "");
+    copyOnWrite.setConcurrencySettings(ConcurrencySettings.COPY_ON_WRITE);
+    copyOnWrite.set("Section.A", 1);
+    final FileData snapshot = copyOnWrite.getFileData();
+
+    copyOnWrite.set("Section.B", 2);
+    copyOnWrite.remove("Section.A");
+
+    Assertions.assertNotSame(snapshot, copyOnWrite.getFileData());
+    Assertions.assertEquals(1, snapshot.get("Section.A"));
+    Assertions.assertFalse(snapshot.containsKey("Section.B"));
+    Assertions.assertFalse(copyOnWrite.contains("Section.A"));
+    Assertions.assertEquals(2, copyOnWrite.getInt("Section.B"));
+    Assertions.assertTrue(copyOnWrite.getFile().delete());
+  }
+
   @AfterAll
   static void tearDown() {
     toml.clear();
@@ -77,6 +77,47 @@ public class YamlTest {
     Assertions.assertTrue(yaml.getBoolean("Test-Key-1"));
   }
 
+  @Test
+  void testBatch() {
+    yaml.batch(transaction -> transaction
+        .set("Batch.A", 1)
+        .set("Batch.B", 2)
+        .remove("Batch.A"));
+
+    Assertions.assertFalse(yaml.contains("Batch.A"));
+    Assertions.assertEquals(2, yaml.getInt("Batch.B"));
+    Assertions.assertEquals(2, new Yaml(yaml.getFile()).getInt("Batch.B"));
+
+    Assertions.assertThrows(IllegalStateException.class, () -> yaml.batch(transaction -> {
+      transaction.set("Batch.C", 3);
+      throw new IllegalStateException();
+    }));
+    Assertions.assertFalse(yaml.contains("Batch.C"));
+  }
+
+  @Test
+  void testNumberLists() {
+    yaml.set("Numbers.Ints", Arrays.asList(1, 2, 3));
+    yaml.set("Numbers.Strings", Arrays.asList("4", "5"));
+
+    Assertions.assertEquals(Arrays.asList(1, 2, 3), yaml.getIntegerList("Numbers.Ints"));
+    Assertions.assertEquals(Arrays.asList(4L, 5L), yaml.getLongList("Numbers.Strings"));
+    Assertions.assertArrayEquals(new int[]{4, 5}, yaml.getIntArray("Numbers.Strings"));
+    Assertions.assertArrayEquals(new double[]{1, 2, 3}, yaml.getDoubleArray("Numbers.Ints"));
+    Assertions.assertArrayEquals(new long[0], yaml.getLongArray("Numbers.Missing"));
+
+    // Callers get copies, so changing them doesn't change the cached array
+    final int[] ints = yaml.getIntArray("Numbers.Ints");
+    ints[0] = 42;
+    Assertions.assertNotSame(ints, yaml.getIntArray("Numbers.Ints"));
+    Assertions.assertArrayEquals(new int[]{1, 2, 3}, yaml.getIntArray("Numbers.Ints"));
+    yaml.set("Numbers.Ints", Arrays.asList(6, 7));
+    Assertions.assertArrayEquals(new int[]{6, 7}, yaml.getIntArray("Numbers.Ints"));
+    Assertions.assertArrayEquals(
+        new int[]{6, 7},
+        yaml.getSection("Numbers").getIntArray("Ints"));
+  }
+
   @AfterAll
   static void tearDown() {
     yaml.clear();
@@ -0,0 +1,55 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.internal.settings.DataType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FileDataTest {
+
+  private static final int SECTION_SIZE = 1_000;
+
+  @Test
+  void testInsertInPlace() {
+    final FileData fileData = createFileData();
+    final Object section = fileData.get("a.b.c");
+
+    fileData.insert("a.b.c.d", "value");
+    fileData.insert("x.y", Collections.singletonMap("z", 1));
+    fileData.insert("x.y.w", 2);
+
+    Assertions.assertSame(section, fileData.get("a.b.c"));
+    Assertions.assertEquals("value", fileData.get("a.b.c.d"));
+    Assertions.assertEquals(1, fileData.get("x.y.z"));
+    Assertions.assertEquals(2, fileData.get("x.y.w"));
+  }
+
+  @Test
+  void testInsertedMapsAreNotModified() {
+    final FileData fileData = new FileData(new HashMap<>(), DataType.UNSORTED);
+    final Map<String, Object> map = new HashMap<>();
+    map.put("x", 0);
+    map.put("y", 0);
+    fileData.insert("a", map);
+    fileData.insert("b", map);
+
+    fileData.insert("a.x", 1);
+    fileData.remove("b.y");
+
+    Assertions.assertEquals(1, fileData.get("a.x"));
+    Assertions.assertEquals(0, fileData.get("b.x"));
+    Assertions.assertFalse(fileData.containsKey("b.y"));
+    Assertions.assertEquals(0, map.get("x"));
+    Assertions.assertEquals(2, map.size());
+  }
+
+  private static FileData createFileData() {
+    final FileData fileData = new FileData(new HashMap<>(), DataType.UNSORTED);
+    for (int i = 0; i < SECTION_SIZE; i++) {
+      fileData.insert("a.b.c.key-" + i, i);
+    }
+    return fileData;
+  }
+}
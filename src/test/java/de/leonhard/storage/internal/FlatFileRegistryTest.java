@@ -0,0 +1,146 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.internal.FlatFileRegistry.Stats;
+import de.leonhard.storage.internal.exceptions.SimplixValidationException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FlatFileRegistryTest {
+
+  @TempDir
+  File directory;
+
+  @Test
+  void testLeastRecentlyUsedEviction() {
+    final File first = new File(directory, "first.json");
+    final File second = new File(directory, "second.json");
+    final File third = new File(directory, "third.json");
+    final FlatFileRegistry<Json> registry = new FlatFileRegistry<>(Json::new, 2);
+
+    final Json json = registry.get(first);
+    registry.get(second);
+    Assertions.assertSame(json, registry.get(new File(directory, "./first.json")));
+    registry.get(third);
+
+    Assertions.assertTrue(registry.isLoaded(first));
+    Assertions.assertFalse(registry.isLoaded(second));
+    Assertions.assertTrue(registry.isLoaded(third));
+
+    final Stats stats = registry.getStats();
+    Assertions.assertEquals(1, stats.getHitCount());
+    Assertions.assertEquals(3, stats.getMissCount());
+    Assertions.assertEquals(1, stats.getEvictionCount());
+    Assertions.assertEquals(2, stats.getSize());
+    Assertions.assertEquals(0.25, stats.getHitRate());
+  }
+
+  @Test
+  void testPinnedFilesAreNotEvicted() {
+    final File pinned = new File(directory, "pinned.json");
+    final FlatFileRegistry<Json> registry = new FlatFileRegistry<>(Json::new, 1);
+
+    registry.acquire(pinned);
+    registry.get(new File(directory, "other.json"));
+    Assertions.assertTrue(registry.isLoaded(pinned));
+
+    registry.release(pinned);
+    Assertions.assertEquals(1, registry.getStats().getSize());
+    Assertions.assertThrows(SimplixValidationException.class, () -> registry.release(pinned));
+  }
+
+  @Test
+  void testEvictionFlushesAndReloads() throws IOException {
+    final File file = new File(directory, "user.json");
+    final FlatFileRegistry<Json> registry = new FlatFileRegistry<>(Json::new, 1);
+
+    final Json json = registry.get(file);
+    json.setWriteBehind(1, 1, TimeUnit.HOURS);
+    json.set("name", "value");
+    Assertions.assertFalse(new String(Files.readAllBytes(file.toPath())).contains("value"));
+
+    registry.get(new File(directory, "other.json"));
+    Assertions.assertTrue(new String(Files.readAllBytes(file.toPath())).contains("value"));
+
+    final Json reloaded = registry.get(file);
+    Assertions.assertNotSame(json, reloaded);
+    Assertions.assertEquals("value", reloaded.getString("name"));
+    Assertions.assertEquals(2, registry.getStats().getEvictionCount());
+  }
+
+  @Test
+  void testOverweightFileIsReturnedLoaded() {
+    final File heavy = new File(directory, "heavy.json");
+    final FlatFileRegistry<Json> registry = new FlatFileRegistry<>(Json::new, 1, json -> 5);
+
+    registry.get(heavy).set("name", "value");
+    Assertions.assertTrue(registry.isLoaded(heavy));
+    Assertions.assertEquals(5, registry.getStats().getWeight());
+
+    registry.get(new File(directory, "other.json"));
+    Assertions.assertFalse(registry.isLoaded(heavy));
+    Assertions.assertEquals(1, registry.getStats().getSize());
+  }
+
+  @Test
+  void testEvictedFilesRefuseChanges() {
+    final File file = new File(directory, "user.json");
+    final FlatFileRegistry<Json> registry = new FlatFileRegistry<>(Json::new, 1);
+
+    final Json evicted = registry.get(file);
+    registry.get(new File(directory, "other.json"));
+    Assertions.assertThrows(SimplixValidationException.class, () -> evicted.set("name", "lost"));
+
+    final Json reloaded = registry.get(file);
+    reloaded.set("name", "kept");
+    Assertions.assertEquals("kept", registry.get(file).getString("name"));
+  }
+
+  @Test
+  void testLoadingDoesNotBlockOtherFiles() throws Exception {
+    final File slow = new File(directory, "slow.json");
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch proceed = new CountDownLatch(1);
+    final AtomicInteger loads = new AtomicInteger();
+    final FlatFileRegistry<Json> registry = new FlatFileRegistry<>(file -> {
+      if (file.getName().equals("slow.json")) {
+        loads.incrementAndGet();
+        loading.countDown();
+        try {
+          proceed.await();
+        } catch (final InterruptedException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }
+      return new Json(file);
+    }, 10);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<Json> first = executor.submit(() -> registry.get(slow));
+      Assertions.assertTrue(loading.await(10, TimeUnit.SECONDS));
+      final Future<Json> second = executor.submit(() -> registry.get(slow));
+
+      // Other files are available while the slow one is loaded
+      registry.get(new File(directory, "fast.json")).set("key", "value");
+      Assertions.assertFalse(second.isDone());
+
+      proceed.countDown();
+      Assertions.assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+      Assertions.assertEquals(1, loads.get());
+    } finally {
+      proceed.countDown();
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.internal.settings.DataType;
+import java.util.HashMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class KeyPathTest {
+
+  @Test
+  void testInterning() {
+    final KeyPath first = KeyPath.of("a.b.c");
+    Assertions.assertSame(first, KeyPath.of("a.b.c"));
+    Assertions.assertEquals(3, first.length());
+    Assertions.assertEquals("b", first.segment(1));
+    Assertions.assertEquals("a.b.c", first.toString());
+  }
+
+  @Test
+  void testFrequentlyUsedKeysSurviveEviction() {
+    final KeyPath hot = KeyPath.of("hot.key");
+    for (int i = 0; i < 50_000; i++) {
+      KeyPath.of("players." + i + ".balance");
+      Assertions.assertSame(hot, KeyPath.of("hot.key"));
+    }
+
+    // Keys interned once the cache was full are still cached
+    final KeyPath late = KeyPath.of("late.key");
+    Assertions.assertSame(late, KeyPath.of("late.key"));
+  }
+
+  @Test
+  void testResolve() {
+    final KeyPath resolved = KeyPath.of("a").resolve(KeyPath.of("b.c"));
+    Assertions.assertEquals(KeyPath.of("a.b.c"), resolved);
+    Assertions.assertEquals(3, resolved.length());
+    Assertions.assertEquals("c", resolved.segment(2));
+  }
+
+  @Test
+  void testFileDataLookups() {
+    final FileData fileData = new FileData(new HashMap<>(), DataType.UNSORTED);
+    fileData.insert(KeyPath.of("section.key"), 1);
+
+    Assertions.assertEquals(1, fileData.get("section.key"));
+    Assertions.assertEquals(1, fileData.get(KeyPath.of("section"), KeyPath.of("key")));
+    Assertions.assertTrue(fileData.containsKey(KeyPath.of("section"), KeyPath.of("key")));
+    Assertions.assertFalse(fileData.containsKey(KeyPath.of("key"), KeyPath.of("section")));
+
+    fileData.remove(KeyPath.of("section.key"));
+    Assertions.assertFalse(fileData.containsKey("section.key"));
+  }
+}
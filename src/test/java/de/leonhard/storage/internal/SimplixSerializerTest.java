@@ -0,0 +1,171 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.internal.exceptions.SimplixValidationException;
+import de.leonhard.storage.internal.serialize.SimplixSerializable;
+import de.leonhard.storage.internal.serialize.SimplixSerializer;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.NonNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SimplixSerializerTest {
+
+  @TempDir
+  File directory;
+
+  interface Shape {
+
+    double area();
+  }
+
+  static class Square implements Shape {
+
+    final double side;
+
+    Square(final double side) {
+      this.side = side;
+    }
+
+    @Override
+    public double area() {
+      return this.side * this.side;
+    }
+  }
+
+  static final class ColoredSquare extends Square {
+
+    ColoredSquare(final double side) {
+      super(side);
+    }
+  }
+
+  static final class Unregistered {
+
+  }
+
+  static final class RegisteredLate {
+
+  }
+
+  static final SimplixSerializable<Shape> SHAPE_SERIALIZABLE = new SimplixSerializable<Shape>() {
+    @Override
+    public Shape deserialize(@NonNull final Object obj) {
+      return new Square(Math.sqrt(((Number) obj).doubleValue()));
+    }
+
+    @Override
+    public Object serialize(@NonNull final Shape shape) {
+      return shape.area();
+    }
+
+    @Override
+    public Class<Shape> getClazz() {
+      return Shape.class;
+    }
+  };
+
+  @Test
+  void testHierarchyResolution() {
+    SimplixSerializer.registerSerializable(SHAPE_SERIALIZABLE);
+    Assertions.assertSame(
+        SHAPE_SERIALIZABLE,
+        SimplixSerializer.findSerializable(ColoredSquare.class));
+    Assertions.assertSame(SHAPE_SERIALIZABLE, SimplixSerializer.findSerializable(Square.class));
+    Assertions.assertEquals(4.0, SimplixSerializer.serialize(new ColoredSquare(2)));
+    Assertions.assertNull(SimplixSerializer.findSerializable(Unregistered.class));
+    Assertions.assertThrows(
+        SimplixValidationException.class,
+        () -> SimplixSerializer.serialize(new Unregistered()));
+  }
+
+  @Test
+  void testDeserializedTypeIsChecked() {
+    SimplixSerializer.registerSerializable(SHAPE_SERIALIZABLE);
+    Assertions.assertEquals(4.0, SimplixSerializer.deserialize(4.0, Square.class).area(), 1e-9);
+    // The serializable of Shape creates Squares only
+    Assertions.assertThrows(
+        SimplixValidationException.class,
+        () -> SimplixSerializer.deserialize(4.0, ColoredSquare.class));
+    Assertions.assertThrows(
+        SimplixValidationException.class,
+        () -> SimplixSerializer.deserializeList(Arrays.asList(1.0, 4.0), ColoredSquare.class));
+  }
+
+  @Test
+  void testCachedMissesAreResolvedAgain() {
+    Assertions.assertFalse(SimplixSerializer.isSerializable(RegisteredLate.class));
+    SimplixSerializer.registerSerializable(new SimplixSerializable<RegisteredLate>() {
+      @Override
+      public RegisteredLate deserialize(@NonNull final Object obj) {
+        return new RegisteredLate();
+      }
+
+      @Override
+      public Object serialize(@NonNull final RegisteredLate registeredLate) {
+        return "late";
+      }
+
+      @Override
+      public Class<RegisteredLate> getClazz() {
+        return RegisteredLate.class;
+      }
+    });
+    Assertions.assertTrue(SimplixSerializer.isSerializable(RegisteredLate.class));
+  }
+
+  @Test
+  void testSerializableLists() {
+    SimplixSerializer.registerSerializable(SHAPE_SERIALIZABLE);
+    final Json json = new Json("shapes", directory.getAbsolutePath());
+
+    json.setSerializableList(
+        "shapes",
+        Arrays.asList(new Square(1), new ColoredSquare(3)),
+        Shape.class);
+    Assertions.assertEquals(Arrays.asList(1.0, 9.0), json.getList("shapes"));
+
+    final List<Shape> shapes = json.getSerializableList("shapes", Shape.class);
+    Assertions.assertNotNull(shapes);
+    Assertions.assertEquals(2, shapes.size());
+    Assertions.assertEquals(9.0, shapes.get(1).area(), 1e-9);
+  }
+
+  @Test
+  void testSerializableCaching() {
+    SimplixSerializer.registerSerializable(SHAPE_SERIALIZABLE);
+    final Json json = new Json("cached", directory.getAbsolutePath());
+    json.set("shapes.a", 4);
+    json.set("shapes.b", 9);
+    Assertions.assertNotSame(
+        json.getSerializable("shapes.a", Shape.class),
+        json.getSerializable("shapes.a", Shape.class));
+
+    json.setSerializableCaching(true);
+    final Shape shape = json.getSerializable("shapes.a", Shape.class);
+    Assertions.assertSame(shape, json.getSerializable("shapes.a", Shape.class));
+
+    // Changes of other keys keep the instance
+    json.set("shapes.b", 16);
+    json.remove("other");
+    Assertions.assertSame(shape, json.getSerializable("shapes.a", Shape.class));
+
+    // Changes of the key or a section of it don't
+    json.set("shapes", Collections.singletonMap("a", 25));
+    final Shape changed = json.getSerializable("shapes.a", Shape.class);
+    Assertions.assertNotSame(shape, changed);
+    Assertions.assertEquals(25, changed.area(), 1e-9);
+
+    json.forceReload();
+    Assertions.assertNotSame(changed, json.getSerializable("shapes.a", Shape.class));
+    json.getFileData().insert("shapes.a", 36);
+    Assertions.assertEquals(36, json.getSerializable("shapes.a", Shape.class).area(), 1e-9);
+
+    json.remove("shapes.a");
+    Assertions.assertNull(json.getSerializable("shapes.a", Shape.class));
+  }
+}
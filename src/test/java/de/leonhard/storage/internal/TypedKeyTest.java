@@ -0,0 +1,72 @@
+package de.leonhard.storage.internal;
+
+import de.leonhard.storage.Json;
+import de.leonhard.storage.internal.settings.ConcurrencySettings;
+import java.io.File;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TypedKeyTest {
+
+  @TempDir
+  File directory;
+
+  @Test
+  void testTypedKeys() {
+    final Json json = new Json("typed", directory.getAbsolutePath());
+    json.set("numbers.int", "42");
+    json.set("numbers.double", 1.5);
+    json.set("flags.enabled", "TRUE");
+
+    final IntKey intKey = IntKey.of(json, "numbers.int", -1);
+    final LongKey missing = LongKey.of(json, "numbers.missing", 7L);
+    final DoubleKey doubleKey = DoubleKey.of(json, "numbers.double", 0);
+    final BoolKey boolKey = BoolKey.of(json, "flags.enabled", false);
+    final StringKey stringKey = StringKey.of(json, "numbers.int", "");
+
+    Assertions.assertEquals(42, intKey.get());
+    Assertions.assertEquals(7L, missing.get());
+    Assertions.assertEquals(1.5, doubleKey.get());
+    Assertions.assertTrue(boolKey.get());
+    Assertions.assertEquals("42", stringKey.get());
+
+    json.set("numbers.int", 43);
+    json.remove("flags.enabled");
+    Assertions.assertEquals(43, intKey.get());
+    Assertions.assertFalse(boolKey.get());
+    Assertions.assertEquals("43", stringKey.get());
+  }
+
+  @Test
+  void testKeysFollowChangesOfEveryKind() {
+    final Json json = new Json("versions", directory.getAbsolutePath());
+    json.setConcurrencySettings(ConcurrencySettings.COPY_ON_WRITE);
+    final IntKey key = IntKey.of(json, "a.b", 0);
+    Assertions.assertEquals(0, key.get());
+
+    json.set("a.b", 1);
+    Assertions.assertEquals(1, key.get());
+    json.batch(transaction -> transaction.set("a.b", 2));
+    Assertions.assertEquals(2, key.get());
+    json.clear();
+    Assertions.assertEquals(0, key.get());
+
+    json.getFileData().insert("a.b", 3);
+    Assertions.assertEquals(3, key.get());
+    json.forceReload();
+    Assertions.assertEquals(0, key.get());
+  }
+
+  @Test
+  void testPathPrefixIsResolvedOnCreation() {
+    final Json json = new Json("prefix", directory.getAbsolutePath());
+    json.set("section.key", 5);
+    json.setPathPrefix("section");
+    final IntKey key = IntKey.of(json, "key", 0);
+    json.clearPathPrefix();
+
+    Assertions.assertEquals(KeyPath.of("section.key"), key.getKey());
+    Assertions.assertEquals(5, key.get());
+  }
+}
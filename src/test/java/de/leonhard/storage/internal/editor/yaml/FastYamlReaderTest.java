@@ -0,0 +1,181 @@
+package de.leonhard.storage.internal.editor.yaml;
+
+import de.leonhard.storage.util.FastStringWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the data read by the FastYamlReader with the data read by yamlbeans.
+ */
+public class FastYamlReaderTest {
+
+  private static final List<String> SUPPORTED = Arrays.asList(
+      "",
+      "# only a comment\n\n",
+      "key: value\nother: 1\n",
+      "key:   value with  spaces   # comment\nempty:\nquoted: ''\n",
+      "a:\n  b:\n    c: d\n  e: f\ng: h",
+      "a: 1\r\nb: 2\r\n",
+      "list:\n- a\n- b\n-\n- 'c'\nafter: x\n",
+      "list:\n   - a\n   -  - b\n      - c\n   -  key: value\n      other: value\n",
+      "list:\n-\n   - nested\n-\n   key: value\n",
+      "plain: first\n  second\n\n  third\nnext: x\n",
+      "plain: text # comment\n  # not continued\nnext: x\n",
+      "colon: a:b:c\nhash: a#b\ndash: -a\nquestion: ?a\nurl: http://x.y\n",
+      "single: 'it''s'\ndouble: \"tab\\there \\\"q\\\" \\x41\\u00e9\\_\"\n",
+      "folded: \"first\n  second\n\n  third \\\n  fourth\"\n",
+      "'quoted key': 1\n\"double key\": 2\n\"key with: colon\": 3\n",
+      "literal: |\n  line 1\n\n  line 2\nstrip: |-\n  text\n\nkeep: |+\n  text\n\n\nend: x\n",
+      "folded: >\n  a\n  b\n\n  c\n    indented\n  d\n",
+      "indicator: |2\n   three\n  two\n",
+      "flow: [a, 'b', \"c\", [d, e], {f: g}]\nempty: []\nmap: {}\nmap2: {a: 1, 'b': [2]}\n",
+      "  indented: root\n  other: 2\n",
+      "duplicate: 1\nother: 2\nduplicate: 3\n",
+      "null: ~\ntrue: yes\nnumber: 0x10\n",
+      "unicode: äöü ✓ \u00e9\n");
+
+  private static final List<String> UNSUPPORTED = Arrays.asList(
+      "---\nkey: value\n",
+      "key: value\n...\n",
+      "%YAML 1.1\n---\nkey: value\n",
+      "anchor: &a value\nalias: *a\n",
+      "tagged: !!str value\n",
+      "base: &b {a: 1}\nmerged:\n  <<: *b\n",
+      "? complex\n: key\n",
+      "- root\n- sequence\n",
+      "root scalar",
+      "flow: [a,\n  b]\n",
+      "key:\tvalue\n",
+      "\tkey: value\n",
+      "bom: \ufeffvalue\n",
+      "invalid: [a\n",
+      "invalid: \"unterminated\n",
+      "invalid:\n  a: 1\n b: 2\n",
+      "invalid: a: b\n",
+      "invalid: 'a' b\n",
+      "invalid: \"\\q\"\n");
+
+  @Test
+  void testSupported() throws IOException {
+    for (final String yaml : SUPPORTED) {
+      assertSameData(yaml, true);
+    }
+  }
+
+  @Test
+  void testUnsupported() throws IOException {
+    for (final String yaml : UNSUPPORTED) {
+      Assertions.assertNull(new FastYamlReader(yaml).tryRead(), yaml);
+      assertSameData(yaml, false);
+    }
+  }
+
+  @Test
+  void testWrittenFiles() throws IOException {
+    final Random random = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      // Only fails for Strings yamlbeans can't read either, like Strings starting with a tab
+      assertSameData(write(randomMap(random, 0)), true);
+    }
+  }
+
+  /**
+   * Damaged documents must either be read like yamlbeans does or be read by yamlbeans.
+   */
+  @Test
+  void testDamagedFiles() throws IOException {
+    final Random random = new Random(42);
+    final String alphabet = " \n-:#'\"[]{},|>&*!?\\\tab";
+    for (int i = 0; i < 2000; i++) {
+      final StringBuilder yaml = new StringBuilder(random.nextBoolean()
+          ? write(randomMap(random, 0))
+          : SUPPORTED.get(random.nextInt(SUPPORTED.size())));
+      final int changes = 1 + random.nextInt(3);
+      for (int j = 0; j < changes && yaml.length() > 0; j++) {
+        final int index = random.nextInt(yaml.length());
+        if (random.nextBoolean()) {
+          yaml.deleteCharAt(index);
+        } else {
+          yaml.insert(index, alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+      }
+      assertSameData(yaml.toString(), false);
+    }
+  }
+
+  /**
+   * @param fastPath Whether the document must be read without yamlbeans, if yamlbeans can read it.
+   */
+  private static void assertSameData(final String yaml, final boolean fastPath) {
+    final Map<String, Object> actual = new FastYamlReader(yaml).tryRead();
+    Object expected;
+    try {
+      expected = new SimpleYamlReader(yaml).readToMap();
+    } catch (final Exception ex) {
+      expected = ex;
+    }
+
+    if (actual == null) {
+      Assertions.assertFalse(fastPath && expected instanceof Map, yaml);
+      return;
+    }
+    Assertions.assertTrue(expected instanceof Map, () -> yaml + "\nis invalid: " + actual);
+    Assertions.assertEquals(expected, actual, yaml);
+    // Including order
+    Assertions.assertEquals(expected.toString(), actual.toString(), yaml);
+  }
+
+  private static String write(final Map<String, Object> data) throws IOException {
+    final FastStringWriter writer = new FastStringWriter();
+    new FastYamlWriter(writer).write(data);
+    return writer.toString();
+  }
+
+  private static Map<String, Object> randomMap(final Random random, final int depth) {
+    final Map<String, Object> map = new LinkedHashMap<>();
+    final int size = random.nextInt(5);
+    for (int i = 0; i < size; i++) {
+      map.put(randomString(random).replace('\n', ' '), randomValue(random, depth + 1));
+    }
+    return map;
+  }
+
+  private static Object randomValue(final Random random, final int depth) {
+    switch (random.nextInt(depth < 4 ? 6 : 4)) {
+      case 0:
+        return null;
+      case 1:
+        return random.nextInt();
+      case 2:
+      case 3:
+        return randomString(random);
+      case 4:
+        return randomMap(random, depth);
+      default:
+        final List<Object> list = new ArrayList<>();
+        final int size = random.nextInt(4);
+        for (int i = 0; i < size; i++) {
+          list.add(randomValue(random, depth + 1));
+        }
+        return list;
+    }
+  }
+
+  private static String randomString(final Random random) {
+    final String alphabet = "ab :#-?'\"\n\t,[]{}|>!&*. \\ä";
+    final StringBuilder builder = new StringBuilder();
+    final int length = random.nextInt(random.nextInt(10) == 0 ? 250 : 12);
+    for (int i = 0; i < length; i++) {
+      builder.append(
+          random.nextInt(3) == 0 ? alphabet.charAt(random.nextInt(alphabet.length())) : 'w');
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,158 @@
+package de.leonhard.storage.internal.editor.yaml;
+
+import de.leonhard.storage.util.FastStringWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the output of the FastYamlWriter with the output of yamlbeans.
+ */
+public class FastYamlWriterTest {
+
+  private static final List<String> STRINGS = Arrays.asList(
+      "plain", "two words", "", " leading", "trailing ", "key: value", "a:b", "# comment",
+      "a #b", "a#b", "- item", "-item", "? x", ":x", "---", "...", "---x", "'quoted'",
+      "\"double\"", "it's", "[list]", "{map}", "a, b", "*alias", "&anchor", "!tag", "|", ">",
+      "%", "@", "`", "line\nbreak", "trailing\n", "two\n\n", "\nleading", "tab\there",
+      "mixed \n break", "nbsp here", "next\u0085line", "bell\u0007", "unicode äöü ✓",
+      "true", "null", "~", "1", "1.5", "0x10", "a  b", "a \\ b",
+      repeat("word ", 40), repeat("x", 150), repeat("word ", 30) + "\n" + repeat("word ", 30),
+      "'" + repeat("quoted words ", 12) + "'", repeat("a: ", 40), repeat(" x\n", 5));
+
+  @Test
+  void testScalars() throws IOException {
+    final Map<String, Object> data = new LinkedHashMap<>();
+    for (int i = 0; i < STRINGS.size(); i++) {
+      data.put("key-" + i, STRINGS.get(i));
+      final String string = STRINGS.get(i);
+      if (!string.isEmpty() && string.indexOf('\n') == -1 && string.indexOf('\u0085') == -1) {
+        data.put(string, i);
+      }
+    }
+    data.put("int", 1);
+    data.put("long", Long.MAX_VALUE);
+    data.put("double", 1.5D);
+    data.put("float", Float.NaN);
+    data.put("bool", true);
+    data.put("char", 'c');
+    data.put("short", (short) 2);
+    data.put("byte", (byte) 3);
+    data.put("enum", TimeUnit.SECONDS);
+    data.put("null", null);
+
+    assertSameOutput(data);
+  }
+
+  @Test
+  void testCollections() throws IOException {
+    final Map<String, Object> nested = new LinkedHashMap<>();
+    nested.put("key", "value");
+    nested.put("empty-map", new LinkedHashMap<>());
+    nested.put("empty-list", new ArrayList<>());
+    nested.put("list", Arrays.asList("a", 1, null, "multi\nline", ""));
+
+    final Map<String, Object> data = new LinkedHashMap<>();
+    data.put("section", nested);
+    data.put("list-of-maps", Arrays.asList(nested, Collections.singletonMap("a", "b")));
+    data.put("list-of-lists", Arrays.asList(Arrays.asList(1, 2), new ArrayList<>(), "x"));
+    data.put("deep", Collections.singletonMap("a", Collections.singletonMap("b", nested)));
+    data.put("empty", new LinkedHashMap<>());
+
+    assertSameOutput(data);
+    assertSameOutput(new LinkedHashMap<>());
+  }
+
+  @Test
+  void testRandomTrees() throws IOException {
+    final Random random = new Random(42);
+    for (int i = 0; i < 200; i++) {
+      assertSameOutput(randomMap(random, 0));
+    }
+  }
+
+  @Test
+  void testUnsupported() {
+    Assertions.assertFalse(
+        FastYamlWriter.isSupported(Collections.singletonMap("key", new Object())));
+    Assertions.assertFalse(
+        FastYamlWriter.isSupported(Collections.singletonMap("multi\nline", 1)));
+    Assertions.assertFalse(
+        FastYamlWriter.isSupported(Collections.singletonMap("key", new int[]{1})));
+    Assertions.assertTrue(
+        FastYamlWriter.isSupported(Collections.singletonMap("key", Arrays.asList(1, "a"))));
+  }
+
+  private static void assertSameOutput(final Map<String, Object> data) throws IOException {
+    Assertions.assertTrue(FastYamlWriter.isSupported(data));
+
+    final FastStringWriter expected = new FastStringWriter();
+    final SimpleYamlWriter yamlWriter = new SimpleYamlWriter(expected);
+    yamlWriter.write(data);
+    yamlWriter.close();
+
+    final FastStringWriter actual = new FastStringWriter();
+    new FastYamlWriter(actual).write(data);
+
+    Assertions.assertEquals(expected.toString(), actual.toString());
+  }
+
+  private static Map<String, Object> randomMap(final Random random, final int depth) {
+    final Map<String, Object> map = new LinkedHashMap<>();
+    final int size = random.nextInt(5);
+    for (int i = 0; i < size; i++) {
+      final String key = randomString(random).replace('\n', ' ').replace('\u0085', ' ');
+      map.put(key, randomValue(random, depth + 1));
+    }
+    return map;
+  }
+
+  private static Object randomValue(final Random random, final int depth) {
+    final int type = random.nextInt(depth < 4 ? 6 : 4);
+    switch (type) {
+      case 0:
+        return null;
+      case 1:
+        return random.nextInt();
+      case 2:
+      case 3:
+        return randomString(random);
+      case 4:
+        return randomMap(random, depth);
+      default:
+        final List<Object> list = new ArrayList<>();
+        final int size = random.nextInt(4);
+        for (int i = 0; i < size; i++) {
+          list.add(randomValue(random, depth + 1));
+        }
+        return list;
+    }
+  }
+
+  private static String randomString(final Random random) {
+    final String alphabet = "ab :#-?'\"\n\t,[]{}|>!&*. \u0085\\ä";
+    final StringBuilder builder = new StringBuilder();
+    final int length = random.nextInt(random.nextInt(10) == 0 ? 250 : 12);
+    for (int i = 0; i < length; i++) {
+      builder.append(
+          random.nextInt(3) == 0 ? alphabet.charAt(random.nextInt(alphabet.length())) : 'w');
+    }
+    return builder.toString();
+  }
+
+  private static String repeat(final String string, final int times) {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < times; i++) {
+      builder.append(string);
+    }
+    return builder.toString();
+  }
+}
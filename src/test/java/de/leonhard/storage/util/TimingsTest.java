@@ -0,0 +1,67 @@
+package de.leonhard.storage.util;
+
+import de.leonhard.storage.Json;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TimingsTest {
+
+  @TempDir
+  File directory;
+
+  @AfterEach
+  void tearDown() {
+    Timings.setEnabled(false);
+    Timings.reset();
+  }
+
+  @Test
+  void testConcurrentTiming() throws InterruptedException {
+    Timings.setEnabled(true);
+    final Timings.Timer timer = Timings.timer("test.concurrent");
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      final String name = "test.lag-catcher-" + i;
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < 1000; j++) {
+          final long token = timer.start();
+          timer.stop(token);
+        }
+        LagCatcher.start(name);
+        LagCatcher.stopAndShow(name);
+      }));
+    }
+    for (final Thread thread : threads) {
+      thread.start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    Assertions.assertEquals(4000, timer.snapshot().getCount());
+    for (int i = 0; i < 4; i++) {
+      Assertions.assertEquals(1, Timings.timer("test.lag-catcher-" + i).snapshot().getCount());
+    }
+    Assertions.assertThrows(IllegalStateException.class, () -> LagCatcher.stop("test.unknown"));
+  }
+
+  @Test
+  void testLibraryPhases() {
+    final Json json = new Json("timings", directory.getAbsolutePath());
+    json.set("disabled", true);
+    Assertions.assertEquals(0, Timings.WRITE.snapshot().getCount());
+
+    Timings.setEnabled(true);
+    json.set("enabled", true);
+    json.forceReload();
+    Assertions.assertEquals(1, Timings.WRITE.snapshot().getCount());
+    Assertions.assertEquals(1, Timings.RELOAD.snapshot().getCount());
+    Assertions.assertEquals(1, Timings.PARSE.snapshot().getCount());
+    Assertions.assertTrue(Timings.snapshots().containsKey("simplix.write"));
+  }
+}